@@ -0,0 +1,98 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
+
+/**
+ * Measures binding the JSON of alerts to {@link Alert}s, configured the same
+ * way as the '/alert/batch' endpoint does it, both one alert at a time and
+ * as a batch of newline delimited alerts.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AlertBindingBenchmark {
+    private static final int BATCH_SIZE = 1000;
+    
+    private final ObjectReader reader = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .readerFor(Alert.class)
+    ;
+    private byte[] alertJson;
+    private byte[] batchJson;
+    
+    /**
+     * Builds the JSON of a single alert and of a batch.
+     *
+     * @throws IOException Indicates the alerts could not be written as JSON.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Alert[] alerts = BenchmarkData.alerts(100);
+        alertJson = mapper.writeValueAsBytes(alerts[0]);
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.append(mapper.writeValueAsString(alerts[i % alerts.length])).append('\n');
+        }
+        batchJson = batch.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * @return Returns the bound alert as {@link Alert}
+     *
+     * @throws IOException Indicates the JSON could not be bound.
+     */
+    @Benchmark
+    public Alert bindAlert() throws IOException {
+        
+        return reader.readValue(alertJson);
+    }
+    
+    /**
+     * Binds a batch of {@link #BATCH_SIZE} alerts one at a time, as they are streamed.
+     *
+     * @param blackhole - Keeps the bound alerts from being optimized away as {@link Blackhole}
+     *
+     * @throws IOException Indicates the JSON could not be bound.
+     */
+    @Benchmark
+    public void bindBatch(Blackhole blackhole) throws IOException {
+        try (MappingIterator<Alert> iterator = reader.readValues(batchJson)) {
+            while (iterator.hasNextValue()) {
+                blackhole.consume(iterator.nextValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import com.firebirdcss.service.alert_gateway.data.Settings;
+import com.firebirdcss.service.alert_gateway.util.AlertCodec;
+import com.firebirdcss.service.alert_gateway.util.AlertRecord;
+import com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue;
+
+/**
+ * Measures the Notifier's alertQueue with several producers, as the request
+ * threads are, offering to it while its single consumer polls from it; both
+ * with the lanes on the heap and off of it.
+ * <p>
+ * The queue is unbounded, so the producers hold off once the backlog reaches
+ * {@link #MAX_BACKLOG}, just as admission control holds off senders. A producer
+ * which is held off waits for the consumer to make room before it offers, and
+ * the consumer waits on an empty queue for an alert to poll, so the scores only
+ * count alerts which were actually offered and polled.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AlertQueueBenchmark {
+    private static final int MAX_BACKLOG = 100000;
+    private static final int SOURCE_COUNT = 100;
+    
+    @Param({"false", "true"})
+    private boolean offHeap;
+    
+    private SeverityLaneQueue<AlertRecord> queue;
+    private AlertRecord[] records;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicInteger next = new AtomicInteger();
+    
+    /**
+     * Builds the alerts offered to the queue.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        records = BenchmarkData.records(SOURCE_COUNT); // BenchmarkData.ALERT_COUNT records, a power of two
+    }
+    
+    /**
+     * Starts each iteration with an empty queue.
+     */
+    @Setup(Level.Iteration)
+    public void newQueue() {
+        backlog.set(0L);
+        if (offHeap) {
+            queue = new SeverityLaneQueue<>(Settings.queueAgingMillis, Settings.queueOffHeapChunkKilobytes * 1024, new SeverityLaneQueue.Codec<AlertRecord>() {
+                @Override
+                public byte[] encode(AlertRecord item) {
+                    
+                    return AlertCodec.encode(item);
+                }
+                
+                @Override
+                public AlertRecord decode(ByteBuffer buffer) {
+                    
+                    return AlertCodec.decode(buffer);
+                }
+            });
+        } else {
+            queue = new SeverityLaneQueue<>(Settings.queueAgingMillis);
+        }
+    }
+    
+    /**
+     * @param control - Tells when the consumer has stopped as {@link Control}
+     * @return Returns true if an alert was offered, or false if the iteration ended
+     * while the producer was held off, as <code>boolean</code>
+     */
+    @Benchmark
+    @Group("alertQueue")
+    @GroupThreads(3)
+    public boolean offer(Control control) {
+        while (backlog.get() >= MAX_BACKLOG) { // Held off...
+            if (control.stopMeasurement) { // Consumer won't make room...
+                
+                return false;
+            }
+            Thread.onSpinWait();
+        }
+        
+        AlertRecord record = records[next.getAndIncrement() & (BenchmarkData.ALERT_COUNT - 1)];
+        queue.offer(record.getSeverity(), record);
+        backlog.incrementAndGet();
+        
+        return true;
+    }
+    
+    /**
+     * @param control - Tells when the producers have stopped as {@link Control}
+     * @return Returns the alert polled as {@link AlertRecord}, or null if the iteration
+     * ended while the queue was empty
+     */
+    @Benchmark
+    @Group("alertQueue")
+    @GroupThreads(1)
+    public AlertRecord poll(Control control) {
+        int lane = queue.selectLane();
+        while (lane < 0) { // Empty; an idle poll isn't a poll...
+            if (control.stopMeasurement) { // Producers won't fill it...
+                
+                return null;
+            }
+            Thread.onSpinWait();
+            lane = queue.selectLane();
+        }
+        
+        AlertRecord record = queue.poll(lane);
+        backlog.decrementAndGet();
+        
+        return record;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.firebirdcss.service.alert_gateway.data.Settings;
+import com.firebirdcss.service.alert_gateway.util.AlertRecord;
+import com.firebirdcss.service.alert_gateway.util.AlertRenderer;
+
+/**
+ * Measures rendering alerts into email messages with the default templates,
+ * as is done for every email sent, both with and without an HTML template.
+ * Writing the rendered message out, as the SMTP transport does, is measured
+ * separately since that is where the MIME encoding happens.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AlertRenderingBenchmark {
+    private static final String HTML_TEMPLATE = "<p><b>${date}: ${severity}</b></p><p>${message}</p><p>From ${sourceName} (${sourceAddress})</p>";
+    
+    @Param({"false", "true"})
+    private boolean html;
+    
+    private AlertRenderer renderer;
+    private AlertRecord[] records;
+    private Address[] recipients;
+    private List<AlertRecord> digestRecords;
+    private int[] digestSuppressed;
+    private int next = 0;
+    
+    /**
+     * Builds the renderer and the alerts it renders.
+     *
+     * @throws MessagingException Indicates an address could not be parsed.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws MessagingException {
+        renderer = new AlertRenderer(
+            Session.getInstance(new Properties()),
+            new InternetAddress(Settings.notifierFromEmailAddress, false),
+            Settings.emailSubjectTemplate,
+            Settings.emailTextTemplate,
+            (html ? HTML_TEMPLATE : Settings.emailHtmlTemplate),
+            DateTimeFormatter.ofPattern(Settings.DEFAULT_EMAIL_DATE_FORMAT)
+        );
+        records = BenchmarkData.records(100);
+        recipients = new Address[] {
+            new InternetAddress("oncall@example.com"),
+            new InternetAddress("network-team@example.com"),
+            new InternetAddress("noc@example.com")
+        };
+        digestRecords = Arrays.asList(Arrays.copyOf(records, Settings.digestMaxAlerts));
+        digestSuppressed = new int[digestRecords.size()];
+    }
+    
+    /**
+     * @return Returns the rendered message as {@link Message}
+     *
+     * @throws MessagingException Indicates the message could not be built.
+     */
+    @Benchmark
+    public Message render() throws MessagingException {
+        
+        return renderer.render(records[next++ & (records.length - 1)], 0, recipients);
+    }
+    
+    /**
+     * Renders a message and writes it out just as it would be sent.
+     *
+     * @return Returns the rendered message as {@link Message}
+     *
+     * @throws MessagingException Indicates the message could not be built.
+     * @throws IOException Indicates the message could not be written.
+     */
+    @Benchmark
+    public Message renderAndWrite() throws MessagingException, IOException {
+        Message message = renderer.render(records[next++ & (records.length - 1)], 3, recipients);
+        message.writeTo(OutputStream.nullOutputStream());
+        
+        return message;
+    }
+    
+    /**
+     * Renders a full digest and writes it out just as it would be sent.
+     *
+     * @return Returns the rendered digest as {@link Message}
+     *
+     * @throws MessagingException Indicates the digest could not be built.
+     * @throws IOException Indicates the digest could not be written.
+     */
+    @Benchmark
+    public Message renderDigestAndWrite() throws MessagingException, IOException {
+        Message message = renderer.renderDigest(recipients[0], digestRecords, digestSuppressed);
+        message.writeTo(OutputStream.nullOutputStream());
+        
+        return message;
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+import com.firebirdcss.service.alert_gateway.util.AlertRecord;
+
+/**
+ * This class builds the data the benchmarks work on, so that each of them
+ * is measured against the same shape of data.
+ * <p>
+ * Subscriptions are spread over one source for every ten of them, and each
+ * is for every severity. The alerts cycle through the sources, with one in
+ * eight of them coming from a source nobody is subscribed to.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+class BenchmarkData {
+    static final int ALERT_COUNT = 1024; // A power of two, so the benchmarks can cycle with a mask
+    static final int ALL_SEVERITIES = 0b111110;
+    static final String MESSAGE = "Interface GigabitEthernet0/12 changed state to down; Neighbor 10.20.30.40 lost.";
+    
+    /**
+     * PRIVATE CONSTRUCTOR:<br>
+     * Only static methods are offered by this class.
+     */
+    private BenchmarkData() {}
+    
+    /**
+     * STATIC METHOD:<br>
+     *
+     * @param subscriptions - The number of subscriptions as <code>int</code>
+     * @return Returns the number of sources they are spread over as <code>int</code>
+     */
+    static int sources(int subscriptions) {
+        
+        return Math.max(1, subscriptions / 10);
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Builds the given number of subscriptions, each for its own user.
+     *
+     * @param count - The number of subscriptions as <code>int</code>
+     * @return Returns the subscriptions as {@link List} of {@link Subscription}s
+     */
+    static List<Subscription> subscriptions(int count) {
+        int sources = sources(count);
+        List<Subscription> subscriptions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            subscriptions.add(new Subscription("user" + i + "@example.com", "device-" + (i % sources), null, Integer.valueOf(ALL_SEVERITIES)));
+        }
+        
+        return subscriptions;
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Builds {@link #ALERT_COUNT} alerts from the given number of sources.
+     *
+     * @param sources - The number of sources subscribed to as <code>int</code>
+     * @return Returns the alerts as {@link Alert}[]
+     */
+    static Alert[] alerts(int sources) {
+        Alert[] alerts = new Alert[ALERT_COUNT];
+        for (int i = 0; i < alerts.length; i++) {
+            String sourceName = (i % 8 == 7 ? "unknown-" + i : "device-" + (i * 7919 % sources));
+            Alert alert = new Alert("10.0." + (i / 256) + "." + (i % 256), sourceName, "20261018093000", "yyyyMMddHHmmss", MESSAGE);
+            alert.setSeverity(Integer.valueOf(1 + i % 5));
+            alerts[i] = alert;
+        }
+        
+        return alerts;
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Builds {@link #ALERT_COUNT} records of alerts from the given number of sources.
+     *
+     * @param sources - The number of sources as <code>int</code>
+     * @return Returns the records as {@link AlertRecord}[]
+     */
+    static AlertRecord[] records(int sources) {
+        Alert[] alerts = alerts(sources);
+        AlertRecord[] records = new AlertRecord[alerts.length];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < alerts.length; i++) {
+            records[i] = AlertRecord.of(alerts[i], now);
+        }
+        
+        return records;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
+import com.firebirdcss.service.alert_gateway.exceptions.InvalidSubscriptionException;
+import com.firebirdcss.service.alert_gateway.exceptions.SubscriptionManagementException;
+import com.firebirdcss.service.alert_gateway.util.SubscriptionManager;
+import com.firebirdcss.service.alert_gateway.util.TempDirectory;
+
+/**
+ * Measures looking up the subscribers of an alert, as is done for every
+ * alert delivered, with a growing number of subscriptions.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SubscriptionLookupBenchmark {
+    @Param({"1000", "10000", "100000"})
+    private int subscriptions;
+    
+    private Path dir;
+    private SubscriptionManager manager;
+    private Alert[] alerts;
+    private int next = 0;
+    
+    /**
+     * Subscribes the users to the sources, in a directory of its own.
+     *
+     * @throws IOException Indicates the directory could not be created.
+     * @throws SubscriptionManagementException Indicates the subscriptions could not be persisted.
+     * @throws InvalidSubscriptionException Indicates a subscription was not valid.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException, SubscriptionManagementException, InvalidSubscriptionException {
+        dir = TempDirectory.create("subscription-lookup");
+        manager = new SubscriptionManager(
+            dir.resolve("subscriptions.dat").toString(),
+            dir.resolve("subscriptions.ser").toString(),
+            dir.resolve("subscriptions.journal").toString(),
+            Integer.MAX_VALUE
+        );
+        manager.updateAll(BenchmarkData.subscriptions(subscriptions));
+        alerts = BenchmarkData.alerts(BenchmarkData.sources(subscriptions));
+    }
+    
+    /**
+     * Removes the directory of the subscriptions.
+     *
+     * @throws IOException Indicates the directory could not be removed.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        TempDirectory.delete(dir);
+    }
+    
+    /**
+     * @return Returns the subscribers of the next alert as {@link List} of {@link String}s
+     */
+    @Benchmark
+    public List<String> getSubscribers() {
+        
+        return manager.getSubscribers(alerts[next++ & (alerts.length - 1)]);
+    }
+}
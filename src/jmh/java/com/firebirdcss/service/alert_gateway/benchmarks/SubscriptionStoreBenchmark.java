@@ -0,0 +1,101 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+import com.firebirdcss.service.alert_gateway.util.SubscriptionStore;
+import com.firebirdcss.service.alert_gateway.util.TempDirectory;
+
+/**
+ * Measures persisting and loading the snapshot of all subscriptions, as is
+ * done when the subscription journal is compacted and at startup.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SubscriptionStoreBenchmark {
+    @Param({"1000", "10000", "100000"})
+    private int subscriptions;
+    
+    private Path dir;
+    private List<Subscription> toPersist;
+    private String persistFile;
+    private String loadFile;
+    
+    /**
+     * Builds the subscriptions and writes the snapshot which is loaded.
+     *
+     * @throws IOException Indicates the snapshot could not be written.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = TempDirectory.create("subscription-store");
+        toPersist = BenchmarkData.subscriptions(subscriptions);
+        persistFile = dir.resolve("persisted.dat").toString();
+        loadFile = dir.resolve("loaded.dat").toString();
+        SubscriptionStore.write(loadFile, toPersist);
+    }
+    
+    /**
+     * Removes the directory of the snapshots.
+     *
+     * @throws IOException Indicates the directory could not be removed.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        TempDirectory.delete(dir);
+    }
+    
+    /**
+     * Persists every subscription, forcing the snapshot to disk.
+     *
+     * @throws IOException Indicates the snapshot could not be written.
+     */
+    @Benchmark
+    public void persistSubscriptions() throws IOException {
+        SubscriptionStore.write(persistFile, toPersist);
+    }
+    
+    /**
+     * Loads every subscription from the snapshot.
+     *
+     * @param blackhole - Keeps the loaded subscriptions from being optimized away as {@link Blackhole}
+     * @return Returns the number loaded as <code>int</code>
+     *
+     * @throws IOException Indicates the snapshot could not be read.
+     */
+    @Benchmark
+    public int loadSubscriptions(Blackhole blackhole) throws IOException {
+        
+        return SubscriptionStore.read(loadFile, blackhole::consume);
+    }
+}
@@ -0,0 +1,572 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.loadtest;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firebirdcss.service.alert_gateway.ApplicationMain;
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+import com.firebirdcss.service.alert_gateway.service.Notifier;
+
+/**
+ * This class load tests the gateway from end to end, in a single process.
+ * <p>
+ * It starts {@link ApplicationMain} in a home directory of its own, sending
+ * email to an {@link SmtpSink} over SMTPS, subscribes many users to many
+ * synthetic sources, and then posts alerts to '/alert' at a target rate. Once
+ * it is done posting it waits for the queue to drain and reports:
+ * <ul>
+ * <li>the ingest throughput, and how the requests were answered</li>
+ * <li>the depth of the alert queue, sampled each second</li>
+ * <li>percentiles of the latency from posting an alert to the sink taking its email</li>
+ * </ul>
+ * Each alert's message carries its id, which is how the sink's emails are
+ * matched back to when their alerts were posted.
+ * <p>
+ * It is configured with system properties, all of which are optional:
+ * <pre>
+ * loadtest.rate                  Alerts posted per second (500)
+ * loadtest.duration.seconds      How long to post for (30)
+ * loadtest.sources               Number of synthetic sources (200)
+ * loadtest.subscriptions         Number of subscriptions, spread over the sources (1000)
+ * loadtest.concurrency           Max requests in flight (64)
+ * loadtest.smtp.latency.millis   Least time the sink takes per email (20)
+ * loadtest.smtp.failure.percent  Percentage of emails the sink fails (0)
+ * loadtest.drain.seconds         Max time to wait for the queue to drain (120)
+ * </pre>
+ * Only the report is printed to stdout; everything else, from the harness, the
+ * sink and the gateway, is logged to stderr as set up by 'log4j-loadtest.properties'.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class LoadHarness {
+    static {
+        System.setProperty("log4j.configuration", "log4j-loadtest.properties"); // Before anything gets a Logger
+    }
+    private static final Logger log = LogManager.getLogger(LoadHarness.class);
+    
+    private static final String STORE_PASSWORD = "loadtest";
+    private static final Pattern ALERT_ID = Pattern.compile("load-(\\d+)");
+    private static final double[] PERCENTILES = {50.0D, 90.0D, 99.0D, 99.9D, 100.0D};
+    
+    private final int rate = Integer.getInteger("loadtest.rate", 500);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration.seconds", 30);
+    private final int sources = Integer.getInteger("loadtest.sources", 200);
+    private final int subscriptions = Integer.getInteger("loadtest.subscriptions", 1000);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+    private final long smtpLatencyMillis = Long.getLong("loadtest.smtp.latency.millis", 20L);
+    private final double smtpFailurePercent = Double.parseDouble(System.getProperty("loadtest.smtp.failure.percent", "0"));
+    private final int drainSeconds = Integer.getInteger("loadtest.drain.seconds", 120);
+    
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicLongArray postedNanos; // By alert id; zero until posted
+    private final LatencySamples latencies = new LatencySamples();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder busy = new LongAdder(); // 429s
+    private final LongAdder otherStatus = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final ConcurrentSkipListMap<Long/*Second*/, Integer/*Depth*/> depths = new ConcurrentSkipListMap<>();
+    private HttpClient client;
+    private URI baseUri;
+    private SmtpSink sink;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     */
+    private LoadHarness() {
+        this.postedNanos = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE - 8L, (long) rate * durationSeconds + 1L));
+    }
+    
+    /**
+     * MAIN METHOD:<br>
+     * Runs the load test and prints its report.
+     *
+     * @param args - NOT USED
+     *
+     * @throws Exception Indicates the load test could not be run.
+     */
+    public static void main(String[] args) throws Exception {
+        int status = 1;
+        try {
+            status = new LoadHarness().run();
+        } finally {
+            System.exit(status); // Runs the gateway's shutdown hook
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Runs the load test.
+     *
+     * @return Returns the exit status as <code>int</code>
+     *
+     * @throws Exception Indicates the load test could not be run.
+     */
+    private int run() throws Exception {
+        Path home = Files.createTempDirectory("alert-gateway-loadtest");
+        log.info("Load test home: " + home);
+        
+        /* The sink's certificate has to be trusted before anything uses TLS */
+        Path keyStore = createKeyStore(home);
+        System.setProperty("javax.net.ssl.trustStore", keyStore.toString());
+        System.setProperty("javax.net.ssl.trustStorePassword", STORE_PASSWORD);
+        System.setProperty("javax.net.ssl.trustStoreType", "PKCS12");
+        sink = new SmtpSink(createSslContext(keyStore), smtpLatencyMillis, smtpFailurePercent, this::delivered);
+        sink.start();
+        
+        /* Start the gateway */
+        int httpPort = freePort();
+        writeConfig(home, sink.getPort());
+        System.setProperty("alert_gateway.home", home.toString() + "/");
+        System.setProperty("server.port", String.valueOf(httpPort));
+        Thread gateway = new Thread(() -> ApplicationMain.main(new String[0]));
+        gateway.setDaemon(true);
+        gateway.start();
+        
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(5L)).build();
+        baseUri = URI.create("http://127.0.0.1:" + httpPort);
+        if (!awaitGateway(TimeUnit.SECONDS.toNanos(60L))) {
+            log.error("The gateway did not start; See the output above.");
+            
+            return 1;
+        }
+        
+        subscribe();
+        startDepthSampler();
+        long postingNanos = post();
+        long drainedNanos = drain();
+        report(postingNanos, drainedNanos);
+        
+        return 0;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Subscribes the users to the sources, several at a time.
+     *
+     * @throws Exception Indicates a subscription could not be made.
+     */
+    private void subscribe() throws Exception {
+        long start = System.nanoTime();
+        Semaphore inFlight = new Semaphore(concurrency);
+        LongAdder failed = new LongAdder();
+        for (int i = 0; i < subscriptions; i++) {
+            Subscription sub = new Subscription("user" + i + "@loadtest.example", "source-" + (i % sources), null, Integer.valueOf(0b111110));
+            inFlight.acquire();
+            client.sendAsync(post("/alert/subscriptions", mapper.writeValueAsBytes(sub)), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null || !isSuccess(response.statusCode())) {
+                        failed.increment();
+                    }
+                    inFlight.release();
+                })
+            ;
+        }
+        inFlight.acquire(concurrency);
+        inFlight.release(concurrency);
+        log.info(String.format(
+            "Subscribed %d users to %d sources in %.1fs (%d failed).",
+            subscriptions, sources, (System.nanoTime() - start) / 1e9D, failed.sum()
+        ));
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Posts alerts to '/alert' at the target rate for the configured duration.
+     *
+     * @return Returns the time taken to post them, in nanoseconds, as <code>long</code>
+     *
+     * @throws Exception Indicates an alert could not be posted.
+     */
+    private long post() throws Exception {
+        int total = postedNanos.length();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1L) / Math.max(rate, 1);
+        Semaphore inFlight = new Semaphore(concurrency);
+        log.info(String.format("Posting %d alerts at %d per second...", total, rate));
+        
+        long start = System.nanoTime();
+        for (int id = 0; id < total; id++) {
+            long due = start + id * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0L) {
+                LockSupport.parkNanos(wait);
+            }
+            
+            Alert alert = new Alert(
+                "10.1." + (id % sources / 256) + "." + (id % sources % 256),
+                "source-" + (id % sources),
+                null,
+                null,
+                "Load test alert load-" + id
+            );
+            alert.setSeverity(Integer.valueOf(1 + id % 5));
+            byte[] body = mapper.writeValueAsBytes(alert);
+            inFlight.acquire(); // Falls behind the target rate once the gateway can't keep up
+            postedNanos.set(id, System.nanoTime());
+            client.sendAsync(post("/alert", body), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        errors.increment();
+                    } else if (isSuccess(response.statusCode())) { // Accepted, or suppressed as a repeat
+                        accepted.increment();
+                    } else if (response.statusCode() == 429) {
+                        busy.increment();
+                    } else {
+                        otherStatus.increment();
+                    }
+                    inFlight.release();
+                })
+            ;
+        }
+        inFlight.acquire(concurrency);
+        inFlight.release(concurrency);
+        
+        return System.nanoTime() - start;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Waits for every accepted alert to be delivered, or for the drain timeout.
+     *
+     * @return Returns the time taken to drain, in nanoseconds, as <code>long</code>
+     */
+    private long drain() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(drainSeconds);
+        Notifier notifier = Notifier.getInstanceSilently();
+        while (System.nanoTime() - deadline < 0L && notifier.getQueueDepth() > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100L));
+        }
+        if (notifier.getQueueDepth() > 0) {
+            log.warn(String.format("The queue did not drain within %ds; %d alerts are still waiting.", drainSeconds, notifier.getQueueDepth()));
+        }
+        
+        return System.nanoTime() - start;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Prints the report of the load test.
+     *
+     * @param postingNanos - The time taken to post the alerts as <code>long</code>
+     * @param drainedNanos - The time taken to drain the queue as <code>long</code>
+     */
+    private void report(long postingNanos, long drainedNanos) {
+        double postingSeconds = postingNanos / 1e9D;
+        long posted = accepted.sum() + busy.sum() + otherStatus.sum() + errors.sum();
+        System.out.println();
+        System.out.println("==== Load test report ====");
+        System.out.println(String.format("Target rate:        %d alerts/s for %ds", rate, durationSeconds));
+        System.out.println(String.format("Posted:             %d in %.1fs (%.0f alerts/s)", posted, postingSeconds, posted / postingSeconds));
+        System.out.println(String.format("Accepted:           %d (%.0f alerts/s)", accepted.sum(), accepted.sum() / postingSeconds));
+        System.out.println(String.format("Busy (429):         %d", busy.sum()));
+        System.out.println(String.format("Other status:       %d", otherStatus.sum()));
+        System.out.println(String.format("Request errors:     %d", errors.sum()));
+        System.out.println(String.format("Drained in:         %.1fs", drainedNanos / 1e9D));
+        System.out.println(String.format("Emails delivered:   %d to %d recipients over %d SMTP sessions", sink.getAccepted(), sink.getRecipients(), sink.getSessions()));
+        System.out.println(String.format("Emails failed:      %d (injected)", sink.getFailed()));
+        
+        System.out.println();
+        System.out.println("Queue depth (second: depth):");
+        StringBuilder line = new StringBuilder();
+        depths.forEach((second, depth) -> {
+            line.append(String.format(Locale.ROOT, "%4d:%-7d", second, depth));
+            if (line.length() >= 96) {
+                System.out.println(line);
+                line.setLength(0);
+            }
+        });
+        if (line.length() > 0) {
+            System.out.println(line);
+        }
+        
+        System.out.println();
+        System.out.println("Post to delivery latency:");
+        long[] sorted = latencies.sorted();
+        if (sorted.length == 0) {
+            System.out.println("  No emails were delivered.");
+        }
+        for (int i = 0; i < PERCENTILES.length && sorted.length > 0; i++) {
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(PERCENTILES[i] / 100.0D * sorted.length) - 1);
+            System.out.println(String.format("  p%-5s %10.1f ms", trim(PERCENTILES[i]), sorted[Math.max(index, 0)] / 1e6D));
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Records the latency of an email taken by the sink.
+     *
+     * @param data - The data of the email as {@link String}
+     */
+    private void delivered(String data) {
+        long now = System.nanoTime();
+        Matcher matcher = ALERT_ID.matcher(data);
+        if (matcher.find()) {
+            int id = Integer.parseInt(matcher.group(1));
+            if (id < postedNanos.length() && postedNanos.get(id) != 0L) {
+                latencies.add(now - postedNanos.get(id));
+            }
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Samples the depth of the alert queue once a second.
+     */
+    private void startDepthSampler() {
+        long start = System.nanoTime();
+        Thread sampler = new Thread(() -> {
+            Notifier notifier = Notifier.getInstanceSilently();
+            while (true) {
+                depths.put(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), notifier.getQueueDepth());
+                try {
+                    TimeUnit.SECONDS.sleep(1L);
+                } catch (InterruptedException e) {
+                    
+                    return;
+                }
+            }
+        }, "DepthSampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Waits for the gateway to answer on its root path.
+     *
+     * @param timeoutNanos - The max time to wait as <code>long</code>
+     * @return Returns true if the gateway answered as <code>boolean</code>
+     */
+    private boolean awaitGateway(long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (System.nanoTime() - deadline < 0L) {
+            try {
+                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(baseUri.resolve("/")).GET().build(), HttpResponse.BodyHandlers.discarding());
+                if (isSuccess(response.statusCode())) {
+                    
+                    return true;
+                }
+            } catch (IOException e) {
+                // Not listening yet...
+            } catch (InterruptedException e) {
+                
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(250L));
+        }
+        
+        return false;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     *
+     * @param path - The path to post to as {@link String}
+     * @param json - The body as <code>byte[]</code>
+     * @return Returns the request as {@link HttpRequest}
+     */
+    private HttpRequest post(String path, byte[] json) {
+        
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(json))
+            .build()
+        ;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Writes the gateway's application.properties into the home directory,
+     * starting from the packaged one and pointing it at the sink.
+     *
+     * @param home - The home directory as {@link Path}
+     * @param smtpPort - The port of the sink as <code>int</code>
+     *
+     * @throws IOException Indicates the file could not be written.
+     */
+    private void writeConfig(Path home, int smtpPort) throws IOException {
+        Files.createDirectories(home.resolve("config"));
+        Files.createDirectories(home.resolve("data"));
+        String packaged = "";
+        try (InputStream in = LoadHarness.class.getClassLoader().getResourceAsStream("application.properties")) {
+            if (in != null) {
+                packaged = new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
+            }
+        }
+        
+        String overrides = String.join("\n",
+            "",
+            "## Load test overrides",
+            "notifier.smtp.server.address=127.0.0.1",
+            "notifier.smtp.server.port=" + smtpPort,
+            "notifier.smtp.user=loadtest",
+            "notifier.smtp.password=loadtest",
+            "notifier.email.from.address=gateway@loadtest.example",
+            ""
+        );
+        Files.write(home.resolve("config").resolve("application.properties"), (packaged + overrides).getBytes(StandardCharsets.ISO_8859_1));
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Creates a keystore holding a self-signed certificate for the sink, using the JDK's keytool.
+     *
+     * @param home - The directory to create it in as {@link Path}
+     * @return Returns the path of the keystore as {@link Path}
+     *
+     * @throws Exception Indicates the keystore could not be created.
+     */
+    private static Path createKeyStore(Path home) throws Exception {
+        Path keyStore = home.resolve("sink.p12");
+        String keytool = Path.of(System.getProperty("java.home"), "bin", "keytool").toString();
+        Process process = new ProcessBuilder(Arrays.asList(
+            keytool, "-genkeypair", "-alias", "sink", "-keyalg", "RSA", "-keysize", "2048", "-validity", "2",
+            "-dname", "CN=localhost", "-ext", "SAN=ip:127.0.0.1,dns:localhost",
+            "-storetype", "PKCS12", "-keystore", keyStore.toString(),
+            "-storepass", STORE_PASSWORD, "-keypass", STORE_PASSWORD
+        )).inheritIO().start();
+        if (process.waitFor() != 0) {
+            throw new IOException("keytool could not create the sink's keystore!");
+        }
+        
+        return keyStore;
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param keyStore - The keystore of the sink as {@link Path}
+     * @return Returns the context the sink serves SMTPS with as {@link SSLContext}
+     *
+     * @throws Exception Indicates the context could not be created.
+     */
+    private static SSLContext createSslContext(Path keyStore) throws Exception {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        try (FileInputStream in = new FileInputStream(keyStore.toFile())) {
+            store.load(in, STORE_PASSWORD.toCharArray());
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(store, STORE_PASSWORD.toCharArray());
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), null, null);
+        
+        return context;
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @return Returns a port which is free to listen on as <code>int</code>
+     *
+     * @throws IOException Indicates no port could be found.
+     */
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            
+            return socket.getLocalPort();
+        }
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * The gateway answers a taken alert or subscription with 202 (Accepted).
+     *
+     * @param statusCode - The HTTP status of a response as <code>int</code>
+     * @return Returns true if the status is a 2xx as <code>boolean</code>
+     */
+    private static boolean isSuccess(int statusCode) {
+        
+        return (statusCode >= 200 && statusCode < 300);
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param percentile - The percentile as <code>double</code>
+     * @return Returns the percentile without a trailing '.0' as {@link String}
+     */
+    private static String trim(double percentile) {
+        
+        return (percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile));
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * The latencies measured, kept in full so their percentiles are exact.
+     *
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class LatencySamples {
+        private final List<long[]> blocks = new ArrayList<>();
+        private long[] current = new long[8192];
+        private int count = 0;
+        
+        /**
+         * @param nanos - The latency as <code>long</code>
+         */
+        private synchronized void add(long nanos) {
+            if (count == current.length) {
+                blocks.add(current);
+                current = new long[current.length];
+                count = 0;
+            }
+            current[count++] = nanos;
+        }
+        
+        /**
+         * @return Returns every latency, sorted, as <code>long[]</code>
+         */
+        private synchronized long[] sorted() {
+            long[] all = new long[blocks.size() * current.length + count];
+            int position = 0;
+            for (long[] block : blocks) {
+                System.arraycopy(block, 0, all, position, block.length);
+                position += block.length;
+            }
+            System.arraycopy(current, 0, all, position, count);
+            Arrays.sort(all);
+            
+            return all;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+/**
+ * This class is an SMTP server which runs in the same process as the gateway
+ * and throws away every message sent to it, so delivery can be load tested
+ * without sending any real email.
+ * <p>
+ * It speaks just enough SMTP for JavaMail: EHLO, AUTH (LOGIN and PLAIN, any
+ * user is accepted), MAIL, RCPT, DATA, RSET, NOOP and QUIT. When it is given
+ * an {@link SSLContext} it speaks SMTPS, as the gateway expects. Each message
+ * can be delayed by a fixed latency, plus up to as much again at random, and
+ * a percentage of the messages can be failed with a transient error.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class SmtpSink {
+    private static final Logger log = LogManager.getLogger(SmtpSink.class);
+    
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+    
+    private final ServerSocket serverSocket;
+    private final long latencyMillis;
+    private final double failurePercent;
+    private final Consumer<String> onMessage;
+    private final ExecutorService connections = Executors.newCachedThreadPool((r) -> {
+        Thread thread = new Thread(r, "SmtpSink-" + THREAD_IDS.incrementAndGet());
+        thread.setDaemon(true);
+        
+        return thread;
+    });
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder recipients = new LongAdder();
+    private final LongAdder sessions = new LongAdder();
+    private volatile boolean running = true;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     * Binds the sink to a free port on the loopback address.
+     *
+     * @param sslContext - Used to speak SMTPS as {@link SSLContext}, or null to speak plain SMTP
+     * @param latencyMillis - The least time taken to accept a message as <code>long</code>
+     * @param failurePercent - The percentage of messages failed with a transient error as <code>double</code>
+     * @param onMessage - Receives the data of each accepted message as {@link Consumer}, may be null
+     *
+     * @throws IOException Indicates the sink could not be bound.
+     */
+    public SmtpSink(SSLContext sslContext, long latencyMillis, double failurePercent, Consumer<String> onMessage) throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        this.serverSocket = (sslContext == null ? new ServerSocket(0, 200, loopback) : sslContext.getServerSocketFactory().createServerSocket(0, 200, loopback));
+        this.latencyMillis = latencyMillis;
+        this.failurePercent = failurePercent;
+        this.onMessage = onMessage;
+    }
+    
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        Thread acceptor = new Thread(() -> {
+            while (running) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    sessions.increment();
+                    connections.execute(() -> serve(socket));
+                } catch (IOException e) {
+                    if (running) {
+                        log.warn("SmtpSink could not accept a connection: " + e.getMessage());
+                    }
+                }
+            }
+        }, "SmtpSink-Acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+    
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Going away anyway...
+        }
+        connections.shutdownNow();
+    }
+    
+    /**
+     * @return Returns the port the sink listens on as <code>int</code>
+     */
+    public int getPort() {
+        
+        return serverSocket.getLocalPort();
+    }
+    
+    /**
+     * @return Returns the number of messages accepted as <code>long</code>
+     */
+    public long getAccepted() {
+        
+        return accepted.sum();
+    }
+    
+    /**
+     * @return Returns the number of messages failed on purpose as <code>long</code>
+     */
+    public long getFailed() {
+        
+        return failed.sum();
+    }
+    
+    /**
+     * @return Returns the number of recipients of the accepted messages as <code>long</code>
+     */
+    public long getRecipients() {
+        
+        return recipients.sum();
+    }
+    
+    /**
+     * @return Returns the number of connections made to the sink as <code>long</code>
+     */
+    public long getSessions() {
+        
+        return sessions.sum();
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Holds an SMTP conversation on the given connection until it is quit or closed.
+     *
+     * @param socket - The connection as {@link Socket}
+     */
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.ISO_8859_1));
+            OutputStream out = s.getOutputStream();
+            reply(out, "220 localhost SmtpSink ready");
+            int messageRecipients = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = (line.length() < 4 ? line : line.substring(0, 4)).toUpperCase(Locale.ROOT);
+                switch (command) {
+                    case "EHLO":
+                        reply(out, "250-localhost\r\n250-AUTH LOGIN PLAIN\r\n250-8BITMIME\r\n250 SIZE 10485760");
+                        break;
+                    case "HELO":
+                        reply(out, "250 localhost");
+                        break;
+                    case "AUTH":
+                        authenticate(line, in, out);
+                        break;
+                    case "MAIL":
+                        messageRecipients = 0;
+                        reply(out, "250 2.1.0 Ok");
+                        break;
+                    case "RCPT":
+                        messageRecipients++;
+                        reply(out, "250 2.1.5 Ok");
+                        break;
+                    case "DATA":
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        receiveData(in, out, messageRecipients);
+                        messageRecipients = 0;
+                        break;
+                    case "RSET":
+                        messageRecipients = 0;
+                        reply(out, "250 2.0.0 Ok");
+                        break;
+                    case "NOOP":
+                        reply(out, "250 2.0.0 Ok");
+                        break;
+                    case "QUIT":
+                        reply(out, "221 2.0.0 Bye");
+                        
+                        return;
+                    default:
+                        reply(out, "502 5.5.2 Command not recognized");
+                }
+            }
+        } catch (SocketException e) {
+            // Closed by the gateway or by stop()...
+        } catch (IOException | InterruptedException e) {
+            if (running) {
+                log.warn("SmtpSink connection failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Accepts any credentials, using the LOGIN or PLAIN mechanism.
+     *
+     * @param line - The AUTH command as {@link String}
+     * @param in - The input of the connection as {@link BufferedReader}
+     * @param out - The output of the connection as {@link OutputStream}
+     *
+     * @throws IOException Indicates the connection failed.
+     */
+    private void authenticate(String line, BufferedReader in, OutputStream out) throws IOException {
+        String[] parts = line.trim().split(" ");
+        String mechanism = (parts.length > 1 ? parts[1].toUpperCase(Locale.ROOT) : "");
+        boolean initialResponse = (parts.length > 2);
+        if ("LOGIN".equals(mechanism)) {
+            if (!initialResponse) { // Ask for the user...
+                reply(out, "334 VXNlcm5hbWU6");
+                in.readLine();
+            }
+            reply(out, "334 UGFzc3dvcmQ6");
+            in.readLine();
+        } else if ("PLAIN".equals(mechanism)) {
+            if (!initialResponse) { // Ask for the credentials...
+                reply(out, "334 ");
+                in.readLine();
+            }
+        } else {
+            reply(out, "504 5.5.4 Unrecognized authentication type");
+            
+            return;
+        }
+        
+        reply(out, "235 2.7.0 Authentication successful");
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Reads the data of a message, then accepts or fails it after the configured latency.
+     *
+     * @param in - The input of the connection as {@link BufferedReader}
+     * @param out - The output of the connection as {@link OutputStream}
+     * @param messageRecipients - The number of recipients of the message as <code>int</code>
+     *
+     * @throws IOException Indicates the connection failed.
+     * @throws InterruptedException Indicates the sink is being stopped.
+     */
+    private void receiveData(BufferedReader in, OutputStream out, int messageRecipients) throws IOException, InterruptedException {
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !".".equals(line)) {
+            data.append(line.startsWith(".") ? line.substring(1) : line).append("\r\n");
+        }
+        
+        if (latencyMillis > 0L) {
+            TimeUnit.MILLISECONDS.sleep(latencyMillis + ThreadLocalRandom.current().nextLong(latencyMillis + 1L));
+        }
+        if (ThreadLocalRandom.current().nextDouble(100.0D) < failurePercent) { // Injected failure...
+            failed.increment();
+            reply(out, "451 4.3.0 Injected failure, try again later");
+            
+            return;
+        }
+        
+        accepted.increment();
+        recipients.add(messageRecipients);
+        if (onMessage != null) {
+            onMessage.accept(data.toString());
+        }
+        reply(out, "250 2.0.0 Ok: queued");
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     *
+     * @param out - The output of the connection as {@link OutputStream}
+     * @param reply - The reply, without its line ending, as {@link String}
+     *
+     * @throws IOException Indicates the connection failed.
+     */
+    private void reply(OutputStream out, String reply) throws IOException {
+        out.write((reply + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+}
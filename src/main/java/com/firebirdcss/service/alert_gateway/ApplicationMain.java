@@ -3,6 +3,7 @@
  */
 package com.firebirdcss.service.alert_gateway;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -16,11 +17,13 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.firebirdcss.service.alert_gateway.data.Settings;
+import com.firebirdcss.service.alert_gateway.exceptions.AlertJournalException;
 import com.firebirdcss.service.alert_gateway.exceptions.ApplicationInitializationException;
 import com.firebirdcss.service.alert_gateway.exceptions.FatalApplicationException;
 import com.firebirdcss.service.alert_gateway.exceptions.SubscriptionManagementException;
 import com.firebirdcss.service.alert_gateway.service.Notifier;
 import com.firebirdcss.service.alert_gateway.service.Service;
+import com.firebirdcss.service.alert_gateway.service.SocketListener;
 
 /**
  * This is the main Class of the application and contains the main method
@@ -106,13 +109,26 @@ public class ApplicationMain {
         Notifier notifierService;
         try {
             notifierService = Notifier.getInstance();
-        } catch (SubscriptionManagementException e) {
+        } catch (SubscriptionManagementException | AlertJournalException e) {
             throw new FatalApplicationException(e);
         }
         
         services.add(notifierService);
         notifierService.start();
         
+        /* Starting the SocketListener Service */
+        if (Settings.listenerPort > 0) { // Listener is enabled...
+            SocketListener listenerService;
+            try {
+                listenerService = new SocketListener(notifierService);
+            } catch (IOException e) {
+                throw new FatalApplicationException(String.format("Unable to listen for alerts on port %d!", Settings.listenerPort), e);
+            }
+            
+            services.add(0, listenerService); // Stopped before the Notifier it sends to
+            listenerService.start();
+        }
+        
         /* Start the SpringBoot service */
         springCtx = SpringApplication.run(ApplicationMain.class);
     }
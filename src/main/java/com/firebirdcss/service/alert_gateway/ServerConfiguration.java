@@ -0,0 +1,59 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway;
+
+import java.util.concurrent.ExecutorService;
+
+import org.apache.coyote.ProtocolHandler;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.firebirdcss.service.alert_gateway.data.Settings;
+import com.firebirdcss.service.alert_gateway.util.VirtualThreads;
+
+/**
+ * This class customizes the embedded server of the SpringBoot service.
+ * <p>
+ * When virtual threads are enabled, and the application is running on a Java
+ * which has them, each request is handled on its own virtual thread instead of
+ * on Tomcat's pool of request threads.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+@Configuration
+public class ServerConfiguration {
+    private static final Logger log = LogManager.getLogger(ServerConfiguration.class);
+    
+    /**
+     * Provides the customizer which hands Tomcat's request handling to virtual
+     * threads when they are enabled.
+     *
+     * @return Returns the customizer as {@link TomcatProtocolHandlerCustomizer}
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadCustomizer() {
+        
+        return (protocolHandler) -> {
+            if (!Settings.virtualThreadsEnabled) { // Platform threads...
+                
+                return;
+            }
+            
+            ExecutorService executor = VirtualThreads.newPerTaskExecutor("http-virtual-");
+            if (executor == null) { // Not available on this Java...
+                log.warn("Virtual threads are enabled but this Java doesn't have them; Requests are handled on platform threads.");
+                
+                return;
+            }
+            protocolHandler.setExecutor(executor);
+            log.info("Requests are handled on virtual threads.");
+        };
+    }
+}
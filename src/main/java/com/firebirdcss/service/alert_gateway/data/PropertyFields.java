@@ -15,8 +15,50 @@ package com.firebirdcss.service.alert_gateway.data;
 public class PropertyFields {
     public static final String NOTIFIER_FROM_ADDRESS = "notifier.email.from.address";
     public static final String NOTIFIER_FROM_NAME = "notifier.email.from.name";
+    public static final String NOTIFIER_SUBJECT_TEMPLATE = "notifier.email.subject.template";
+    public static final String NOTIFIER_TEXT_TEMPLATE = "notifier.email.text.template";
+    public static final String NOTIFIER_HTML_TEMPLATE = "notifier.email.html.template";
+    public static final String NOTIFIER_DATE_FORMAT = "notifier.email.date.format";
+    public static final String NOTIFIER_DATE_MASK_CACHE_MAX_ENTRIES = "notifier.date.mask.cache.max.entries";
+    public static final String NOTIFIER_RATE_LIMIT_SOURCE_PER_MINUTE = "notifier.rate.limit.source.per.minute";
+    public static final String NOTIFIER_RATE_LIMIT_SOURCE_BURST = "notifier.rate.limit.source.burst";
+    public static final String NOTIFIER_RATE_LIMIT_ADDRESS_PER_MINUTE = "notifier.rate.limit.address.per.minute";
+    public static final String NOTIFIER_RATE_LIMIT_ADDRESS_BURST = "notifier.rate.limit.address.burst";
+    public static final String NOTIFIER_RATE_LIMIT_MAX_ENTRIES = "notifier.rate.limit.max.entries";
+    public static final String NOTIFIER_RATE_LIMIT_SUMMARY_SECONDS = "notifier.rate.limit.summary.seconds";
     public static final String NOTIFIER_SMTP_ADDRESS = "notifier.smtp.server.address";
     public static final String NOTIFIER_SMTP_PORT = "notifier.smtp.server.port";
     public static final String NOTIFIER_SMTP_USER = "notifier.smtp.user";
     public static final String NOTIFIER_SMTP_PASSWORD = "notifier.smtp.password";
+    public static final String NOTIFIER_SMTP_POOL_MAX_IDLE = "notifier.smtp.pool.max.idle";
+    public static final String NOTIFIER_SMTP_POOL_MAX_MESSAGES = "notifier.smtp.pool.max.messages";
+    public static final String NOTIFIER_SMTP_POOL_IDLE_TIMEOUT_SECONDS = "notifier.smtp.pool.idle.timeout.seconds";
+    public static final String NOTIFIER_SUBSCRIPTIONS_COMPACT_THRESHOLD = "notifier.subscriptions.compact.threshold";
+    public static final String NOTIFIER_JOURNAL_SEGMENT_MB = "notifier.journal.segment.size.mb";
+    public static final String NOTIFIER_QUEUE_CAPACITY = "notifier.queue.capacity";
+    public static final String NOTIFIER_QUEUE_HIGH_WATERMARKS = "notifier.queue.high.watermark.percents";
+    public static final String NOTIFIER_QUEUE_LOW_WATERMARKS = "notifier.queue.low.watermark.percents";
+    public static final String NOTIFIER_QUEUE_RETRY_AFTER_SECONDS = "notifier.queue.retry.after.seconds";
+    public static final String NOTIFIER_QUEUE_AGING_MILLIS = "notifier.queue.aging.millis";
+    public static final String NOTIFIER_QUEUE_OFF_HEAP = "notifier.queue.off.heap";
+    public static final String NOTIFIER_QUEUE_OFF_HEAP_CHUNK_KB = "notifier.queue.off.heap.chunk.kb";
+    public static final String VIRTUAL_THREADS_ENABLED = "virtual.threads.enabled";
+    public static final String ALERT_BATCH_MAX_SIZE = "alert.batch.max.size";
+    public static final String LISTENER_PORT = "listener.port";
+    public static final String LISTENER_TCP_ENABLED = "listener.tcp.enabled";
+    public static final String LISTENER_UDP_ENABLED = "listener.udp.enabled";
+    public static final String LISTENER_MAX_FRAME_BYTES = "listener.max.frame.bytes";
+    public static final String LISTENER_MAX_CONNECTIONS = "listener.max.connections";
+    public static final String LISTENER_QUEUE_BATCHES = "listener.queue.batches";
+    public static final String NOTIFIER_DELIVERY_WORKERS = "notifier.delivery.workers";
+    public static final String NOTIFIER_DELIVERY_URGENT_WORKERS = "notifier.delivery.urgent.workers";
+    public static final String NOTIFIER_DELIVERY_RETRY_INITIAL_SECONDS = "notifier.delivery.retry.initial.seconds";
+    public static final String NOTIFIER_DELIVERY_RETRY_MAX_SECONDS = "notifier.delivery.retry.max.seconds";
+    public static final String NOTIFIER_DELIVERY_RETRY_MAX_ATTEMPTS = "notifier.delivery.retry.max.attempts";
+    public static final String NOTIFIER_DEDUP_WINDOW_SECONDS = "notifier.dedup.window.seconds";
+    public static final String NOTIFIER_DEDUP_MAX_ENTRIES = "notifier.dedup.max.entries";
+    public static final String NOTIFIER_DIGEST_WINDOW_SECONDS = "notifier.digest.window.seconds";
+    public static final String NOTIFIER_DIGEST_MAX_ALERTS = "notifier.digest.max.alerts";
+    public static final String NOTIFIER_RECIPIENT_CACHE_MAX_ENTRIES = "notifier.recipient.cache.max.entries";
+    public static final String NOTIFIER_INTERNED_NAMES_MAX_ENTRIES = "notifier.interned.names.max.entries";
 }
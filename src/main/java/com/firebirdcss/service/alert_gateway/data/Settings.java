@@ -22,19 +22,65 @@ public class Settings {
         APPLICATION_VERSION = temp;
     }
     
-    public static final String HOME_DIR = "/opt/alert_gateway/";
+    public static final String HOME_DIR = System.getProperty("alert_gateway.home", "/opt/alert_gateway/"); // May be moved, such as by the load test harness
     public static final String CONFIG_DIR = HOME_DIR + "config/";
     public static final String DATA_DIR = HOME_DIR + "data/";
     
-    public static final String NOTIFIER_SUBSCRIPTIONS_FILE = DATA_DIR + "notifier-subscriptions.ser";
+    public static final String NOTIFIER_SUBSCRIPTIONS_FILE = DATA_DIR + "notifier-subscriptions.dat";
+    public static final String NOTIFIER_LEGACY_SUBSCRIPTIONS_FILE = DATA_DIR + "notifier-subscriptions.ser";
+    public static final String NOTIFIER_SUBSCRIPTIONS_JOURNAL_FILE = DATA_DIR + "notifier-subscriptions.journal";
+    public static final String ALERT_JOURNAL_DIR = DATA_DIR + "alert-journal/";
     public static final String NOTIFIER_APPLICATION_PROPERTIES_FILE = CONFIG_DIR + "application.properties";
     
     public static String notifierFromEmailAddress = "no-reply@domain.com";
     public static String notifierFromEmailName = "Alert Gateway";
+    public static String emailSubjectTemplate = "Alert from '${sourceAddress} (${sourceName})'";
+    public static String emailTextTemplate = "${date}: ${severity}\n${message}";
+    public static String emailHtmlTemplate = ""; // Plain text only
+    public static final String DEFAULT_EMAIL_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss z";
+    public static String emailDateFormat = DEFAULT_EMAIL_DATE_FORMAT;
     public static String smtpServerAddress = "127.0.0.1";
     public static String smtpServerPort = "465";
     public static String smtpUser = "User";
     public static String smtpPassword = "password";
+    public static int smtpPoolMaxIdle = 6;
+    public static int smtpPoolMaxMessages = 100;
+    public static int smtpPoolIdleTimeoutSeconds = 30;
+    public static int subscriptionsCompactThreshold = 1000;
+    public static int alertJournalSegmentMegabytes = 64;
+    public static int queueCapacity = 100000;
+    public static int[] queueHighWatermarkPercents = {50, 60, 75, 90, 100}; // TEST thru EMERGENCY
+    public static int[] queueLowWatermarkPercents = {40, 50, 65, 80, 95}; // TEST thru EMERGENCY
+    public static int queueRetryAfterSeconds = 5;
+    public static int queueAgingMillis = 0;
+    public static boolean queueOffHeap = false;
+    public static int queueOffHeapChunkKilobytes = 1024;
+    public static int alertBatchMaxSize = 10000;
+    public static boolean virtualThreadsEnabled = false;
+    public static int listenerPort = 0; // Disabled
+    public static boolean listenerTcpEnabled = true;
+    public static boolean listenerUdpEnabled = true;
+    public static int listenerMaxFrameBytes = 8192;
+    public static int listenerMaxConnections = 1000;
+    public static int listenerQueueBatches = 1024;
+    public static int deliveryWorkers = 4;
+    public static int deliveryUrgentWorkers = 2;
+    public static int deliveryRetryInitialSeconds = 5;
+    public static int deliveryRetryMaxSeconds = 300;
+    public static int deliveryRetryMaxAttempts = 20; // About 70 minutes at the default backoff; 0 retries until delivered
+    public static int dedupWindowSeconds = 60;
+    public static int dedupMaxEntries = 100000;
+    public static int digestWindowSeconds = 300;
+    public static int digestMaxAlerts = 50;
+    public static int recipientCacheMaxEntries = 10000;
+    public static int dateMaskCacheMaxEntries = 256;
+    public static int internedNamesMaxEntries = 10000;
+    public static int rateLimitSourcePerMinute = 0; // Disabled
+    public static int rateLimitSourceBurst = 20;
+    public static int rateLimitAddressPerMinute = 0; // Disabled
+    public static int rateLimitAddressBurst = 20;
+    public static int rateLimitMaxEntries = 100000;
+    public static int rateLimitSummarySeconds = 60;
     
     /**
      * STATIC METHOD:<br>
@@ -53,8 +99,50 @@ public class Settings {
                     /* Optional Properties */
                     notifierFromEmailAddress = props.getProperty(PropertyFields.NOTIFIER_FROM_ADDRESS, notifierFromEmailAddress);
                     notifierFromEmailName = props.getProperty(PropertyFields.NOTIFIER_FROM_NAME, notifierFromEmailName);
+                    emailSubjectTemplate = props.getProperty(PropertyFields.NOTIFIER_SUBJECT_TEMPLATE, emailSubjectTemplate);
+                    emailTextTemplate = props.getProperty(PropertyFields.NOTIFIER_TEXT_TEMPLATE, emailTextTemplate);
+                    emailHtmlTemplate = props.getProperty(PropertyFields.NOTIFIER_HTML_TEMPLATE, emailHtmlTemplate);
+                    emailDateFormat = props.getProperty(PropertyFields.NOTIFIER_DATE_FORMAT, emailDateFormat);
                     smtpServerAddress = props.getProperty(PropertyFields.NOTIFIER_SMTP_ADDRESS, smtpServerAddress);
                     smtpServerPort = props.getProperty(PropertyFields.NOTIFIER_SMTP_PORT, smtpServerPort);
+                    smtpPoolMaxIdle = getIntProperty(props, PropertyFields.NOTIFIER_SMTP_POOL_MAX_IDLE, smtpPoolMaxIdle, 0);
+                    smtpPoolMaxMessages = getIntProperty(props, PropertyFields.NOTIFIER_SMTP_POOL_MAX_MESSAGES, smtpPoolMaxMessages, 1);
+                    smtpPoolIdleTimeoutSeconds = getIntProperty(props, PropertyFields.NOTIFIER_SMTP_POOL_IDLE_TIMEOUT_SECONDS, smtpPoolIdleTimeoutSeconds, 1);
+                    subscriptionsCompactThreshold = getIntProperty(props, PropertyFields.NOTIFIER_SUBSCRIPTIONS_COMPACT_THRESHOLD, subscriptionsCompactThreshold, 1);
+                    alertJournalSegmentMegabytes = getIntProperty(props, PropertyFields.NOTIFIER_JOURNAL_SEGMENT_MB, alertJournalSegmentMegabytes, 1);
+                    queueCapacity = getIntProperty(props, PropertyFields.NOTIFIER_QUEUE_CAPACITY, queueCapacity, 1);
+                    queueHighWatermarkPercents = getPercentsProperty(props, PropertyFields.NOTIFIER_QUEUE_HIGH_WATERMARKS, queueHighWatermarkPercents);
+                    queueLowWatermarkPercents = getPercentsProperty(props, PropertyFields.NOTIFIER_QUEUE_LOW_WATERMARKS, queueLowWatermarkPercents);
+                    queueRetryAfterSeconds = getIntProperty(props, PropertyFields.NOTIFIER_QUEUE_RETRY_AFTER_SECONDS, queueRetryAfterSeconds, 1);
+                    queueAgingMillis = getIntProperty(props, PropertyFields.NOTIFIER_QUEUE_AGING_MILLIS, queueAgingMillis, 0);
+                    queueOffHeap = Boolean.parseBoolean(props.getProperty(PropertyFields.NOTIFIER_QUEUE_OFF_HEAP, String.valueOf(queueOffHeap)).trim());
+                    queueOffHeapChunkKilobytes = getIntProperty(props, PropertyFields.NOTIFIER_QUEUE_OFF_HEAP_CHUNK_KB, queueOffHeapChunkKilobytes, 1);
+                    alertBatchMaxSize = getIntProperty(props, PropertyFields.ALERT_BATCH_MAX_SIZE, alertBatchMaxSize, 1);
+                    virtualThreadsEnabled = Boolean.parseBoolean(props.getProperty(PropertyFields.VIRTUAL_THREADS_ENABLED, String.valueOf(virtualThreadsEnabled)).trim());
+                    listenerPort = getIntProperty(props, PropertyFields.LISTENER_PORT, listenerPort, 0);
+                    listenerTcpEnabled = Boolean.parseBoolean(props.getProperty(PropertyFields.LISTENER_TCP_ENABLED, String.valueOf(listenerTcpEnabled)).trim());
+                    listenerUdpEnabled = Boolean.parseBoolean(props.getProperty(PropertyFields.LISTENER_UDP_ENABLED, String.valueOf(listenerUdpEnabled)).trim());
+                    listenerMaxFrameBytes = getIntProperty(props, PropertyFields.LISTENER_MAX_FRAME_BYTES, listenerMaxFrameBytes, 64);
+                    listenerMaxConnections = getIntProperty(props, PropertyFields.LISTENER_MAX_CONNECTIONS, listenerMaxConnections, 1);
+                    listenerQueueBatches = getIntProperty(props, PropertyFields.LISTENER_QUEUE_BATCHES, listenerQueueBatches, 1);
+                    deliveryWorkers = getIntProperty(props, PropertyFields.NOTIFIER_DELIVERY_WORKERS, deliveryWorkers, 1);
+                    deliveryUrgentWorkers = getIntProperty(props, PropertyFields.NOTIFIER_DELIVERY_URGENT_WORKERS, deliveryUrgentWorkers, 0);
+                    deliveryRetryInitialSeconds = getIntProperty(props, PropertyFields.NOTIFIER_DELIVERY_RETRY_INITIAL_SECONDS, deliveryRetryInitialSeconds, 1);
+                    deliveryRetryMaxSeconds = getIntProperty(props, PropertyFields.NOTIFIER_DELIVERY_RETRY_MAX_SECONDS, deliveryRetryMaxSeconds, 1);
+                    deliveryRetryMaxAttempts = getIntProperty(props, PropertyFields.NOTIFIER_DELIVERY_RETRY_MAX_ATTEMPTS, deliveryRetryMaxAttempts, 0);
+                    dedupWindowSeconds = getIntProperty(props, PropertyFields.NOTIFIER_DEDUP_WINDOW_SECONDS, dedupWindowSeconds, 0);
+                    dedupMaxEntries = getIntProperty(props, PropertyFields.NOTIFIER_DEDUP_MAX_ENTRIES, dedupMaxEntries, 1);
+                    digestWindowSeconds = getIntProperty(props, PropertyFields.NOTIFIER_DIGEST_WINDOW_SECONDS, digestWindowSeconds, 1);
+                    digestMaxAlerts = getIntProperty(props, PropertyFields.NOTIFIER_DIGEST_MAX_ALERTS, digestMaxAlerts, 1);
+                    recipientCacheMaxEntries = getIntProperty(props, PropertyFields.NOTIFIER_RECIPIENT_CACHE_MAX_ENTRIES, recipientCacheMaxEntries, 1);
+                    dateMaskCacheMaxEntries = getIntProperty(props, PropertyFields.NOTIFIER_DATE_MASK_CACHE_MAX_ENTRIES, dateMaskCacheMaxEntries, 1);
+                    internedNamesMaxEntries = getIntProperty(props, PropertyFields.NOTIFIER_INTERNED_NAMES_MAX_ENTRIES, internedNamesMaxEntries, 1);
+                    rateLimitSourcePerMinute = getIntProperty(props, PropertyFields.NOTIFIER_RATE_LIMIT_SOURCE_PER_MINUTE, rateLimitSourcePerMinute, 0);
+                    rateLimitSourceBurst = getIntProperty(props, PropertyFields.NOTIFIER_RATE_LIMIT_SOURCE_BURST, rateLimitSourceBurst, 1);
+                    rateLimitAddressPerMinute = getIntProperty(props, PropertyFields.NOTIFIER_RATE_LIMIT_ADDRESS_PER_MINUTE, rateLimitAddressPerMinute, 0);
+                    rateLimitAddressBurst = getIntProperty(props, PropertyFields.NOTIFIER_RATE_LIMIT_ADDRESS_BURST, rateLimitAddressBurst, 1);
+                    rateLimitMaxEntries = getIntProperty(props, PropertyFields.NOTIFIER_RATE_LIMIT_MAX_ENTRIES, rateLimitMaxEntries, 1);
+                    rateLimitSummarySeconds = getIntProperty(props, PropertyFields.NOTIFIER_RATE_LIMIT_SUMMARY_SECONDS, rateLimitSummarySeconds, 1);
                     /* Required Properties */
                     smtpUser = props.getProperty(PropertyFields.NOTIFIER_SMTP_USER, null);
                     smtpPassword = props.getProperty(PropertyFields.NOTIFIER_SMTP_PASSWORD, null);
@@ -73,4 +161,77 @@ public class Settings {
             throw new ApplicationInitializationException(String.format("Application cannot find the properties file! Expected file path is: '%s'", Settings.NOTIFIER_APPLICATION_PROPERTIES_FILE));
         }
     }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Used to read a numeric property, falling back to the given default value
+     * when the property isn't set.
+     * 
+     * @param props - The loaded properties as {@link Properties}
+     * @param field - The name of the property field as {@link String}
+     * @param defaultValue - The value to use when the property is not set as <code>int</code>
+     * @param minValue - The smallest value which is acceptable as <code>int</code>
+     * 
+     * @return Returns the value of the property as <code>int</code>
+     * 
+     * @throws ApplicationInitializationException Indicates the property's value is not a number or is too small.
+     */
+    private static int getIntProperty(Properties props, String field, int defaultValue, int minValue) throws ApplicationInitializationException {
+        String value = props.getProperty(field);
+        if (value == null || value.isBlank()) { // Not set...
+            
+            return defaultValue;
+        }
+        
+        try {
+            int result = Integer.parseInt(value.trim());
+            if (result < minValue) { // Value is out of range...
+                throw new ApplicationInitializationException(String.format("The property '%s' must be at least %d but was: '%s'", field, minValue, value));
+            }
+            
+            return result;
+        } catch (NumberFormatException e) {
+            throw new ApplicationInitializationException(String.format("The property '%s' must be a number but was: '%s'", field, value), e);
+        }
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Used to read a comma separated property holding one percentage for each
+     * severity, from least to most severe, falling back to the given default 
+     * values when the property isn't set.
+     * 
+     * @param props - The loaded properties as {@link Properties}
+     * @param field - The name of the property field as {@link String}
+     * @param defaultValues - The values to use when the property is not set as <code>int[]</code>
+     * 
+     * @return Returns the values of the property as <code>int[]</code>
+     * 
+     * @throws ApplicationInitializationException Indicates the property's value is malformed.
+     */
+    private static int[] getPercentsProperty(Properties props, String field, int[] defaultValues) throws ApplicationInitializationException {
+        String value = props.getProperty(field);
+        if (value == null || value.isBlank()) { // Not set...
+            
+            return defaultValues;
+        }
+        
+        String[] parts = value.split(",");
+        if (parts.length != defaultValues.length) { // Wrong number of values...
+            throw new ApplicationInitializationException(String.format("The property '%s' must have %d comma separated values but was: '%s'", field, defaultValues.length, value));
+        }
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                result[i] = Integer.parseInt(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new ApplicationInitializationException(String.format("The property '%s' must only hold numbers but was: '%s'", field, value), e);
+            }
+            if (result[i] < 0 || result[i] > 100) { // Not a percentage...
+                throw new ApplicationInitializationException(String.format("The property '%s' must only hold values from 0 to 100 but was: '%s'", field, value));
+            }
+        }
+        
+        return result;
+    }
 }
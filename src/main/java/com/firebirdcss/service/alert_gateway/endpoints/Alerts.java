@@ -3,21 +3,36 @@
  */
 package com.firebirdcss.service.alert_gateway.endpoints;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.firebirdcss.service.alert_gateway.data.Settings;
 import com.firebirdcss.service.alert_gateway.endpoints.enums.ResponseTypes;
 import com.firebirdcss.service.alert_gateway.endpoints.pojo.ActionResponse;
 import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
 import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+import com.firebirdcss.service.alert_gateway.exceptions.AlertJournalException;
+import com.firebirdcss.service.alert_gateway.exceptions.InvalidSubscriptionException;
 import com.firebirdcss.service.alert_gateway.exceptions.SubscriptionManagementException;
 import com.firebirdcss.service.alert_gateway.service.Notifier;
+import com.firebirdcss.service.alert_gateway.service.enums.SendResult;
 
 /**
  * REST ENDPOINT:<br>
@@ -32,8 +47,17 @@ import com.firebirdcss.service.alert_gateway.service.Notifier;
  */
 @RestController
 public class Alerts {
+    private static final ObjectReader ALERT_READER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false) // Same leniency as Spring's own binding
+        .readerFor(Alert.class)
+    ;
+    
     /**
      * This method handles the incoming posting of alerts via REST.
+     * <p>
+     * An alert is only acknowledged as accepted once it has been made durable.
+     * When the gateway is too busy to take the alert, or its source is over its
+     * rate limit, a 429 is returned along with a Retry-After header.
      * 
      * @param alert - The incoming alert as {@link Alert}
      * @return Returns the result of the post action as an {@link ResponseEntity} of
@@ -42,7 +66,66 @@ public class Alerts {
     @RequestMapping(value = "/alert", method = RequestMethod.POST)
     public ResponseEntity<ActionResponse> postAlert(@RequestBody Alert alert) {
         if (alert != null) { // Alert is not null...
-            Notifier.getInstanceSilently().send(alert);
+            SendResult result;
+            try {
+                result = Notifier.getInstanceSilently().send(alert);
+            } catch (AlertJournalException e) {
+                
+                return ResponseEntity
+                    .internalServerError()
+                    .body(
+                        new ActionResponse(
+                            ResponseTypes.ACTION_FAILED,
+                            "Action Failed",
+                            e.toString()
+                        )
+                    )
+                ;
+            }
+            
+            if (result == SendResult.REJECTED) { // Busy Reply...
+                
+                return ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Settings.queueRetryAfterSeconds))
+                    .body(
+                        new ActionResponse(
+                            ResponseTypes.ACTION_FAILED,
+                            "Action Failed",
+                            "The Alert Gateway is too busy to accept this Alert; Please retry later."
+                        )
+                    )
+                ;
+            }
+            
+            if (result == SendResult.RATE_LIMITED) { // Rate Limited Reply...
+                
+                return ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Notifier.getInstanceSilently().getRateLimitRetryAfterSeconds()))
+                    .body(
+                        new ActionResponse(
+                            ResponseTypes.ACTION_FAILED,
+                            "Action Failed",
+                            "The source of this Alert is sending too many Alerts; It was counted but not sent."
+                        )
+                    )
+                ;
+            }
+            
+            if (result == SendResult.SUPPRESSED) { // Duplicate Reply...
+                
+                return ResponseEntity
+                    .accepted()
+                    .body(
+                        new ActionResponse(
+                            ResponseTypes.ACTION_SUCCESSFUL, 
+                            "Action Successful",
+                            "The Alert repeats a recent Alert; It was counted but not sent again."
+                        )
+                    )
+                ;
+            }
             
             /* Successful Reply */
             return ResponseEntity
@@ -69,6 +152,140 @@ public class Alerts {
         ;
     }
     
+    /**
+     * This method handles the incoming posting of a batch of alerts via REST.
+     * <p>
+     * The body may be either a JSON array of alerts or newline delimited JSON 
+     * (NDJSON) with one alert per line, and it may be gzip compressed when the 
+     * 'Content-Encoding' header says so. The body is parsed as a stream, one 
+     * alert at a time, and then all of the alerts are handed to the {@link Notifier}
+     * in one operation. Should an alert fail to parse, the alerts before it are
+     * still sent and the rest of the body is ignored. Should any of the alerts
+     * fail to be stored for delivery, a 500 is returned along with the result of
+     * each alert, just as for a single alert.
+     * 
+     * @param contentEncoding - The 'Content-Encoding' header as {@link String}, may be null
+     * @param body - The raw request body as {@link InputStream}
+     * 
+     * @return Returns one result per alert, in the order the alerts were received, followed
+     * by a result for the alert which failed to parse if any, as an {@link ResponseEntity} of
+     * type {@link List} of {@link ActionResponse}s
+     */
+    @RequestMapping(value = "/alert/batch", method = RequestMethod.POST)
+    public ResponseEntity<List<ActionResponse>> postAlertBatch(@RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding, InputStream body) {
+        List<Alert> alerts = new ArrayList<>();
+        ActionResponse parseFailure = null;
+        try (
+            InputStream in = ("gzip".equalsIgnoreCase(contentEncoding == null ? null : contentEncoding.trim()) ? new GZIPInputStream(body) : body); 
+            MappingIterator<Alert> iterator = ALERT_READER.readValues(in);
+        ) {
+            while (iterator.hasNextValue()) {
+                if (alerts.size() >= Settings.alertBatchMaxSize) { // Too big; nothing is sent...
+                    
+                    return ResponseEntity
+                        .status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body(
+                            List.of(
+                                new ActionResponse(
+                                    ResponseTypes.ACTION_FAILED,
+                                    "Action Failed",
+                                    String.format("A batch may hold at most %d Alerts!", Settings.alertBatchMaxSize)
+                                )
+                            )
+                        )
+                    ;
+                }
+                alerts.add(iterator.nextValue());
+            }
+        } catch (IOException e) { // Malformed alert or body...
+            parseFailure = new ActionResponse(
+                ResponseTypes.ACTION_FAILED,
+                "Action Failed",
+                String.format("Unable to parse Alert #%d; It and the rest of the batch were ignored: %s", alerts.size() + 1, e.getMessage())
+            );
+        }
+        
+        if (alerts.isEmpty()) { // Nothing usable...
+            
+            return ResponseEntity
+                .badRequest()
+                .body(
+                    List.of(
+                        parseFailure != null ? parseFailure : new ActionResponse(
+                            ResponseTypes.ACTION_FAILED,
+                            "Action Failed",
+                            "An empty batch was received; There were no Alerts to send!"
+                        )
+                    )
+                )
+            ;
+        }
+        
+        /* Send them all and report on each */
+        List<SendResult> results = Notifier.getInstanceSilently().sendAll(alerts);
+        List<ActionResponse> responses = new ArrayList<>(results.size() + 1);
+        boolean anyAccepted = false;
+        boolean anyRejected = false;
+        boolean anyLimited = false;
+        boolean anyFailed = false;
+        for (SendResult result : results) {
+            switch (result) {
+                case ACCEPTED:
+                    anyAccepted = true;
+                    responses.add(new ActionResponse(ResponseTypes.ACTION_SUCCESSFUL, "Action Successful"));
+                    break;
+                case SUPPRESSED:
+                    anyAccepted = true;
+                    responses.add(new ActionResponse(ResponseTypes.ACTION_SUCCESSFUL, "Action Successful", "The Alert repeats a recent Alert; It was counted but not sent again."));
+                    break;
+                case REJECTED:
+                    anyRejected = true;
+                    responses.add(new ActionResponse(ResponseTypes.ACTION_FAILED, "Action Failed", "The Alert Gateway is too busy to accept this Alert; Please retry later."));
+                    break;
+                case RATE_LIMITED:
+                    anyLimited = true;
+                    responses.add(new ActionResponse(ResponseTypes.ACTION_FAILED, "Action Failed", "The source of this Alert is sending too many Alerts; It was counted but not sent."));
+                    break;
+                case FAILED:
+                    anyFailed = true;
+                    responses.add(new ActionResponse(ResponseTypes.ACTION_FAILED, "Action Failed", "The Alert could not be stored for delivery."));
+                    break;
+                default:
+                    responses.add(new ActionResponse(ResponseTypes.ACTION_FAILED, "Action Failed", "The Alert was missing required fields or had an unknown severity; It was discarded."));
+                    break;
+            }
+        }
+        if (parseFailure != null) {
+            responses.add(parseFailure);
+        }
+        
+        if (anyFailed) { // Same as a single Alert which could not be stored; Senders must not take the batch as accepted...
+            
+            return ResponseEntity
+                .internalServerError()
+                .body(responses)
+            ;
+        }
+        
+        if (anyRejected || anyLimited) { // Tell the sender when to retry the rejected ones...
+            int retryAfter = Math.max(
+                (anyRejected ? Settings.queueRetryAfterSeconds : 0), 
+                (anyLimited ? Notifier.getInstanceSilently().getRateLimitRetryAfterSeconds() : 0)
+            );
+            
+            return ResponseEntity
+                .status(anyAccepted ? HttpStatus.ACCEPTED : HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(responses)
+            ;
+        }
+        
+        return ResponseEntity
+            .accepted()
+            .body(responses)
+        ;
+    }
+    
     @RequestMapping(value = "/alert/subscriptions", method = RequestMethod.GET)
     public ResponseEntity<List<Subscription>> getSubscriptions(@RequestParam(required = false) String email, @RequestParam(required = false) String sourceName) {
         List<Subscription> subs = Notifier.getInstanceSilently().querySubscriptions(email, sourceName);
@@ -91,6 +308,18 @@ public class Alerts {
                     )
                 )
             ;
+        } catch (InvalidSubscriptionException e) {
+            
+            return ResponseEntity
+                .badRequest()
+                .body(
+                    new ActionResponse(
+                        ResponseTypes.ACTION_FAILED,
+                        "Action Failed",
+                        e.getMessage()
+                    )
+                )
+            ;
         } catch (SubscriptionManagementException e) {
             
             return ResponseEntity
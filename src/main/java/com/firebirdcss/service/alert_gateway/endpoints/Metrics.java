@@ -0,0 +1,45 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.endpoints;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.firebirdcss.service.alert_gateway.service.Notifier;
+
+/**
+ * REST ENDPOINT:<br>
+ * This is the '/metrics' REST endpoint.<br>
+ * This endpoint serves the metrics of the {@link Notifier} Service in the
+ * Prometheus text exposition format, for Prometheus to scrape.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+@RestController
+public class Metrics {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    
+    /**
+     * This method handles the scraping of the metrics.
+     *
+     * @return Returns the metrics as an {@link ResponseEntity} of type {@link String},
+     * or a 503 if the {@link Notifier} Service is not available
+     */
+    @RequestMapping(value = "/metrics", method = RequestMethod.GET, produces = CONTENT_TYPE)
+    public ResponseEntity<String> getMetrics() {
+        Notifier notifier = Notifier.getInstanceSilently();
+        if (notifier == null) { // Nothing to report...
+            
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("");
+        }
+        
+        return ResponseEntity.ok().body(notifier.getMetrics().scrape());
+    }
+}
@@ -3,9 +3,6 @@
  */
 package com.firebirdcss.service.alert_gateway.endpoints.enums;
 
-import java.util.Arrays;
-import java.util.Optional;
-
 /**
  * @author Scott Griffis
  * <p>
@@ -19,6 +16,19 @@ public enum MessageSeverity {
     CRITICAL(4),
     EMERGENCY(5);
     
+    private static final String[] NAMES_BY_VALUE; // Looked up for every alert sent, so built once
+    
+    static {
+        int max = 0;
+        for (MessageSeverity s : values()) {
+            max = Math.max(max, s.value.intValue());
+        }
+        NAMES_BY_VALUE = new String[max + 1];
+        for (MessageSeverity s : values()) {
+            NAMES_BY_VALUE[s.value.intValue()] = s.name();
+        }
+    }
+    
     private Integer value;
     
     MessageSeverity(Integer value) {
@@ -30,10 +40,9 @@ public enum MessageSeverity {
     }
     
     public static String getName(Integer value) {
-        Optional<MessageSeverity> v = Arrays.asList(MessageSeverity.values()).stream().filter((s) -> s.value.intValue() == value.intValue()).findFirst();
-        if (v.isPresent()) {
+        if (value != null && value.intValue() >= 0 && value.intValue() < NAMES_BY_VALUE.length) {
             
-            return v.get().name();
+            return NAMES_BY_VALUE[value.intValue()];
         } 
         
         return null;
@@ -17,11 +17,15 @@ public class Subscription implements Serializable {
     private String email;
     private String sourceName;
     private Integer severityMask;
+    private Integer digestSeverity; // Alerts below this severity are sent as a digest; null for no digest
+    private Integer digestWindowSeconds; // How long a digest collects alerts; null for the default
     
     public Subscription() {
         this.email = null;
         this.sourceName = null;
         this.severityMask = null;
+        this.digestSeverity = null;
+        this.digestWindowSeconds = null;
     }
     
     public Subscription(String email, String sourceName, String sourceAddress, Integer severityMask) {
@@ -75,6 +79,36 @@ public class Subscription implements Serializable {
         this.sourceName = sourceName;
     }
 
+    /**
+     * @return Returns the digestSeverity as Integer.
+     */
+    public Integer getDigestSeverity() {
+        
+        return digestSeverity;
+    }
+
+    /**
+     * @param digestSeverity - The digestSeverity to set as Integer.
+     */
+    public void setDigestSeverity(Integer digestSeverity) {
+        this.digestSeverity = digestSeverity;
+    }
+
+    /**
+     * @return Returns the digestWindowSeconds as Integer.
+     */
+    public Integer getDigestWindowSeconds() {
+        
+        return digestWindowSeconds;
+    }
+
+    /**
+     * @param digestWindowSeconds - The digestWindowSeconds to set as Integer.
+     */
+    public void setDigestWindowSeconds(Integer digestWindowSeconds) {
+        this.digestWindowSeconds = digestWindowSeconds;
+    }
+
     public String getId() {
         StringBuilder result = new StringBuilder();
         result
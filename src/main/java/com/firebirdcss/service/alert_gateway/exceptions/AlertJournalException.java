@@ -0,0 +1,64 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.exceptions;
+
+/**
+ * This exception indicates a problem with the durable journal 
+ * in which accepted alerts are kept until they are delivered.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class AlertJournalException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * CONSTRUCTOR: 
+     *
+     */
+    public AlertJournalException() {}
+    
+    /**
+     * CONSTRUCTOR: 
+     *
+     * @param message
+     */
+    public AlertJournalException(String message) {
+        super(message);
+    }
+    
+    /**
+     * CONSTRUCTOR: 
+     *
+     * @param cause
+     */
+    public AlertJournalException(Throwable cause) {
+        super(cause);
+    }
+    
+    /**
+     * CONSTRUCTOR: 
+     *
+     * @param message
+     * @param cause
+     */
+    public AlertJournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+    
+    /**
+     * CONSTRUCTOR: 
+     *
+     * @param message
+     * @param cause
+     * @param enableSuppression
+     * @param writableStackTrace
+     */
+    public AlertJournalException(String message, Throwable cause, boolean enableSuppression,
+            boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.exceptions;
+
+/**
+ * This exception indicates that a subscription was rejected because
+ * it is invalid, such as when its email address can't be parsed.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class InvalidSubscriptionException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * CONSTRUCTOR: 
+     *
+     */
+    public InvalidSubscriptionException() {}
+    
+    /**
+     * CONSTRUCTOR: 
+     *
+     * @param message
+     */
+    public InvalidSubscriptionException(String message) {
+        super(message);
+    }
+    
+    /**
+     * CONSTRUCTOR: 
+     *
+     * @param cause
+     */
+    public InvalidSubscriptionException(Throwable cause) {
+        super(cause);
+    }
+    
+    /**
+     * CONSTRUCTOR: 
+     *
+     * @param message
+     * @param cause
+     */
+    public InvalidSubscriptionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+    
+    /**
+     * CONSTRUCTOR: 
+     *
+     * @param message
+     * @param cause
+     * @param enableSuppression
+     * @param writableStackTrace
+     */
+    public InvalidSubscriptionException(String message, Throwable cause, boolean enableSuppression,
+            boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
@@ -3,20 +3,25 @@
  */
 package com.firebirdcss.service.alert_gateway.service;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Properties;
-import java.util.Queue;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import javax.mail.Message;
 import javax.mail.MessagingException;
 import javax.mail.PasswordAuthentication;
+import javax.mail.SendFailedException;
 import javax.mail.Session;
-import javax.mail.Transport;
-import javax.mail.internet.AddressException;
 import javax.mail.internet.InternetAddress;
-import javax.mail.internet.MimeMessage;
 
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
@@ -25,16 +30,60 @@ import com.firebirdcss.service.alert_gateway.data.Settings;
 import com.firebirdcss.service.alert_gateway.endpoints.enums.MessageSeverity;
 import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
 import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+import com.firebirdcss.service.alert_gateway.exceptions.AlertJournalException;
+import com.firebirdcss.service.alert_gateway.exceptions.InvalidSubscriptionException;
 import com.firebirdcss.service.alert_gateway.exceptions.SubscriptionManagementException;
+import com.firebirdcss.service.alert_gateway.service.enums.EmailResult;
+import com.firebirdcss.service.alert_gateway.service.enums.SendResult;
+import com.firebirdcss.service.alert_gateway.util.AdmissionController;
+import com.firebirdcss.service.alert_gateway.util.AlertDeduplicator;
+import com.firebirdcss.service.alert_gateway.util.AlertJournal;
+import com.firebirdcss.service.alert_gateway.util.AlertRecord;
+import com.firebirdcss.service.alert_gateway.util.AlertRenderer;
+import com.firebirdcss.service.alert_gateway.util.DateMaskParser;
+import com.firebirdcss.service.alert_gateway.util.DeliveryPool;
+import com.firebirdcss.service.alert_gateway.util.DigestBuffer;
+import com.firebirdcss.service.alert_gateway.util.DigestBuffer.Digest;
+import com.firebirdcss.service.alert_gateway.util.LatencyHistogram;
+import com.firebirdcss.service.alert_gateway.util.MetricsRegistry;
+import com.firebirdcss.service.alert_gateway.util.MetricsRegistry.SeverityCounter;
+import com.firebirdcss.service.alert_gateway.util.RateLimiter;
+import com.firebirdcss.service.alert_gateway.util.RecipientCache;
+import com.firebirdcss.service.alert_gateway.util.RecipientCache.Recipients;
+import com.firebirdcss.service.alert_gateway.util.RetryQueue;
+import com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue;
+import com.firebirdcss.service.alert_gateway.util.SmtpTransportPool;
+import com.firebirdcss.service.alert_gateway.util.SubscriptionIndex;
 import com.firebirdcss.service.alert_gateway.util.SubscriptionManager;
 
 /**
  * This is the Notifier Service. 
  * <p>
  * The objective of this service is to run on
- * it's own thread and continually check a queue of some sort for
- * messages which need to be sent out as alerts. Once such a message is
- * available it gets picked up, processed and sent out by this service.
+ * it's own thread and wait on a queue for messages which need to be
+ * sent out as alerts. The service is event-driven, so as soon as such 
+ * a message is added to the queue it gets picked up and handed off to 
+ * a pool of delivery workers which process and send it out.
+ * <p>
+ * Alerts are written to a durable {@link AlertJournal} before they are 
+ * accepted, and are marked in the journal once they have been processed,
+ * so alerts which were accepted but not yet sent survive a restart. An 
+ * email which could not be sent is tried again later, with a growing backoff,
+ * and its alerts are only marked once it has been sent. An email which can never
+ * be sent, such as one whose recipient was rejected, is given up on right away.
+ * <p>
+ * The number of alerts waiting for delivery is bounded by an 
+ * {@link AdmissionController}, which sheds the less severe alerts first.
+ * <p>
+ * Repeats of the same alert within a short window are counted by an
+ * {@link AlertDeduplicator} rather than sent, and the count is reported
+ * on the next email for that alert.
+ * <p>
+ * Subscriptions may opt into digests, in which case their less severe 
+ * alerts are collected into a {@link DigestBuffer} and sent as one email.
+ * <p>
+ * What happens to the alerts along the way is counted in a {@link MetricsRegistry},
+ * which is served at '/metrics' for Prometheus to scrape.
  * 
  * @author Scott Griffis
  * <p>
@@ -45,14 +94,64 @@ public class Notifier extends Service {
     private static final Logger log = LogManager.getLogger(Notifier.class);
     private static Notifier instance = null;
     
-    private final Queue<Alert> alertQueue = new PriorityBlockingQueue<>(
-        10 /*InitialCompacity*/, 
-        (a1, a2) -> a1.getSeverity().intValue() - a2.getSeverity().intValue()
+    private static final long IDLE_WAIT_MILLIS = 1000L; // Max time runtime blocks on an empty queue
+    private static final long HANDOFF_WAIT_MILLIS = 100L; // Max time runtime waits for a delivery worker
+    private static final long SHUTDOWN_WAIT_MILLIS = 30000L; // Max time to let in-flight deliveries finish
+    private static final int DIGEST_LANE_SEVERITY = 0; // Digests never hold urgent alerts
+    
+    private final SeverityLaneQueue<QueuedAlert> alertQueue = new SeverityLaneQueue<>( // Most severe first; FIFO within a severity
+        Settings.queueAgingMillis, 
+        Settings.queueOffHeapChunkKilobytes * 1024, 
+        (Settings.queueOffHeap ? QueuedAlert.CODEC : null)
     );
     
     private final SubscriptionManager subManager;
+    private final AlertJournal alertJournal;
+    private final AdmissionController admission = new AdmissionController(
+        Settings.queueCapacity, 
+        Settings.queueHighWatermarkPercents, 
+        Settings.queueLowWatermarkPercents
+    );
+    private final AlertDeduplicator deduplicator = new AlertDeduplicator(
+        TimeUnit.SECONDS.toMillis(Settings.dedupWindowSeconds), 
+        Settings.dedupMaxEntries
+    );
+    private final DigestBuffer<InternetAddress, QueuedAlert> digests = new DigestBuffer<>(Settings.digestMaxAlerts);
+    private final RecipientCache recipientCache = new RecipientCache(Settings.recipientCacheMaxEntries);
+    private final DateMaskParser dateParser = new DateMaskParser(Settings.dateMaskCacheMaxEntries);
+    private final RateLimiter sourceLimiter = new RateLimiter(
+        Settings.rateLimitSourcePerMinute, 
+        Settings.rateLimitSourceBurst, 
+        Settings.rateLimitMaxEntries
+    );
+    private final RateLimiter addressLimiter = new RateLimiter(
+        Settings.rateLimitAddressPerMinute, 
+        Settings.rateLimitAddressBurst, 
+        Settings.rateLimitMaxEntries
+    );
+    private long nextRateLimitSummaryMillis = 0L; // Only touched by the service thread
+    private final Deque<Digest<InternetAddress, QueuedAlert>> dueDigests = new ArrayDeque<>(); // Only touched by the service thread
+    private final RetryQueue<Redelivery> retries = new RetryQueue<>(
+        TimeUnit.SECONDS.toMillis(Settings.deliveryRetryInitialSeconds), 
+        TimeUnit.SECONDS.toMillis(Settings.deliveryRetryMaxSeconds)
+    );
+    private final Deque<Redelivery> dueRetries = new ArrayDeque<>(); // Only touched by the service thread
+    private final Session mailSession;
+    private final AlertRenderer renderer;
+    private final SmtpTransportPool transportPool;
+    private DeliveryPool deliveryPool = null;
     private Properties mailerProps = System.getProperties();
     
+    /* Metrics */
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final EnumMap<SendResult, SeverityCounter> received = new EnumMap<>(SendResult.class);
+    private final SeverityCounter queueDepth = metrics.severityGauge("alertgateway_queue_depth", "Alerts waiting in the alertQueue to be handed to a delivery worker.");
+    private final SeverityCounter delivered = metrics.severityCounter("alertgateway_alerts_delivered_total", "Alerts whose every email was sent.", null);
+    private final SeverityCounter undelivered = metrics.severityCounter("alertgateway_alerts_undelivered_total", "Alerts of which an email was given up on, after its retries ran out or because it can never be sent.", null);
+    private final SeverityCounter smtpErrors = metrics.severityCounter("alertgateway_smtp_errors_total", "Emails which could not be sent; A digest counts under its most severe alert.", null);
+    private final LatencyHistogram queueLatency = metrics.histogram("alertgateway_queue_latency_seconds", "Time from an alert being accepted until its email was sent; Digests are not included.");
+    private final LatencyHistogram smtpSendLatency = metrics.histogram("alertgateway_smtp_send_seconds", "Time taken to hand an email to the SMTP server, whether or not it was taken.");
+    
     /**
      * STATIC MEHTOD:<br>
      * Used to fetch an instance of this singleton service.
@@ -64,8 +163,9 @@ public class Notifier extends Service {
      * @return Returns an instance of this class as {@link Notifier}
      * 
      * @throws SubscriptionManagementException Notifier is having issues with Subscription persistence file.
+     * @throws AlertJournalException Notifier is having issues with the alert journal.
      */
-    public synchronized static Notifier getInstance() throws SubscriptionManagementException {
+    public synchronized static Notifier getInstance() throws SubscriptionManagementException, AlertJournalException {
         if (instance == null) {
             instance = new Notifier();
         }
@@ -98,13 +198,11 @@ public class Notifier extends Service {
      * PRIVATE CONSTRUCTOR:<br> 
      * This class constructor allows for required settings to be passed in.
      * 
-     * @param serviceName - The name of this instance of the service as {@link String}
-     * @param cycleSleepMillis - The number of milliseconds to sleep between cycles as <code>long</code>
-     * 
      * @throws SubscriptionManagementException Notifier issue loading Subscriptions from disk. 
+     * @throws AlertJournalException Notifier issue opening the alert journal.
      */
-    private Notifier() throws SubscriptionManagementException {
-        super("Notifier", 500L);
+    private Notifier() throws SubscriptionManagementException, AlertJournalException {
+        super("Notifier"); // Event-driven; runtime blocks on the alertQueue...
         
         /* Load the Mailer Properties */
         mailerProps.put("mail.smtp.host", Settings.smtpServerAddress);
@@ -113,26 +211,205 @@ public class Notifier extends Service {
         mailerProps.put("mail.smtp.auth", "true");
         mailerProps.put("mail.smtp.port", Settings.smtpServerPort);
         
-        subManager = new SubscriptionManager(Settings.NOTIFIER_SUBSCRIPTIONS_FILE);
+        /* Create the long-lived Mail Session and its pool of Transports */
+        mailSession = Session.getInstance(
+            mailerProps,
+            new javax.mail.Authenticator() {
+                @Override
+                protected PasswordAuthentication getPasswordAuthentication() {
+                    
+                    return new PasswordAuthentication(Settings.smtpUser, Settings.smtpPassword);
+                }
+            }
+        );
+        
+        /* Compile the message templates once, up front */
+        InternetAddress fromAddress = null;
+        try {
+            fromAddress = new InternetAddress(Settings.notifierFromEmailAddress, Settings.notifierFromEmailName);
+        } catch (UnsupportedEncodingException e) { // From address or name is invalid...
+            log.error("The provided 'From' address is invalid! Please correct the 'From' address and bounce the applicaiton! I show the 'From' address as: '" + Settings.notifierFromEmailName + " (" + Settings.notifierFromEmailAddress + "')");
+        }
+        DateTimeFormatter dateFormat;
+        try {
+            dateFormat = DateTimeFormatter.ofPattern(Settings.emailDateFormat);
+        } catch (IllegalArgumentException e) { // Date format is invalid...
+            log.error("The provided email date format is invalid; Using the default instead! I show the date format as: '" + Settings.emailDateFormat + "'");
+            dateFormat = DateTimeFormatter.ofPattern(Settings.DEFAULT_EMAIL_DATE_FORMAT);
+        }
+        renderer = new AlertRenderer(
+            mailSession, 
+            fromAddress, 
+            Settings.emailSubjectTemplate, 
+            Settings.emailTextTemplate, 
+            Settings.emailHtmlTemplate,
+            dateFormat
+        );
+        transportPool = new SmtpTransportPool(
+            mailSession, 
+            Settings.smtpUser, 
+            Settings.smtpPassword, 
+            Settings.smtpPoolMaxIdle, 
+            Settings.smtpPoolMaxMessages, 
+            TimeUnit.SECONDS.toMillis(Settings.smtpPoolIdleTimeoutSeconds)
+        );
+        
+        subManager = new SubscriptionManager(
+            Settings.NOTIFIER_SUBSCRIPTIONS_FILE, 
+            Settings.NOTIFIER_LEGACY_SUBSCRIPTIONS_FILE, 
+            Settings.NOTIFIER_SUBSCRIPTIONS_JOURNAL_FILE, 
+            Settings.subscriptionsCompactThreshold
+        );
+        
+        registerMetrics();
+        
+        /* Open the alert journal and queue up what wasn't delivered before */
+        alertJournal = new AlertJournal(Settings.ALERT_JOURNAL_DIR, Settings.alertJournalSegmentMegabytes * 1024 * 1024);
+        try {
+            int replayed = alertJournal.open((alert, ref) -> {
+                admission.forceAdmit(); // Was accepted before the restart...
+                enqueue(new QueuedAlert(alert, ref.longValue(), 0));
+            });
+            if (replayed > 0) {
+                log.info(String.format("Recovered %d undelivered Alerts from the alert journal.", replayed));
+            }
+        } catch (IOException e) {
+            throw new AlertJournalException("Unable to open the alert journal; Application might not have required access to it!", e);
+        }
     }
     
     /**
      * This method allows for an alert to be added to the alertQueue.
+     * <p>
+     * The alert is written to the alert journal and forced to disk before
+     * this method returns, so once it is accepted the alert will survive a 
+     * restart. An alert is rate limited when its source has sent more than its
+     * share of alerts recently, is suppressed when it repeats an alert accepted
+     * within the deduplication window, and is rejected when the queue is too full
+     * to take on alerts of its severity. Duplicates are suppressed before the 
+     * queue is checked, so a storm of them never takes room in the queue.
      * 
      * @param alert - The alert to add to the queue as {@link Alert}
+     * @return Returns the outcome as {@link SendResult}
+     * 
+     * @throws AlertJournalException Indicates the alert could not be made durable and was not accepted.
      */
-    public void send(Alert alert) {
-        if (
-            alert != null 
-            && alert.getMessage() != null 
-            && alert.getSeverity() != null
-            && alert.getSourceName() != null
-        ) { // Message is ok to send...
-            log.info("An Alert was added to the alertQueue.");
-            alertQueue.add(alert);
-        } else {
+    public SendResult send(Alert alert) throws AlertJournalException {
+        if (!isValid(alert)) { // Message is not ok to send...
             log.warn("An invalid alert was discarded."); // TODO: Add alert details...
+            
+            return count(alert, SendResult.DISCARDED);
         }
+        
+        if (isRateLimited(alert)) { // Source is sending too many; counted and summarized later...
+            
+            return count(alert, SendResult.RATE_LIMITED);
+        }
+        
+        AlertRecord record = toRecord(alert);
+        int suppressed = deduplicator.check(record);
+        if (suppressed == AlertDeduplicator.DUPLICATE) { // Repeat within the window; takes no room in the queue...
+            releaseRateLimits(alert);
+            
+            return count(alert, SendResult.SUPPRESSED);
+        }
+        
+        if (!admission.tryAdmit(alert.getSeverity().intValue())) { // Too full for this severity...
+            releaseRateLimits(alert);
+            deduplicator.forget(record);
+            log.warn(String.format("An Alert of severity %d was rejected; The alertQueue is too full.", alert.getSeverity()));
+            
+            return count(alert, SendResult.REJECTED);
+        }
+        
+        long ref;
+        try {
+            ref = alertJournal.append(record);
+        } catch (IOException e) {
+            admission.release();
+            releaseRateLimits(alert);
+            deduplicator.forget(record);
+            log.error("Unable to write an Alert to the alert journal: ", e);
+            count(alert, SendResult.FAILED);
+            
+            throw new AlertJournalException("Unable to write the Alert to the alert journal!", e);
+        }
+        alertJournal.commit(ref); // Group committed with other concurrent sends...
+        
+        log.info("An Alert was added to the alertQueue.");
+        enqueue(new QueuedAlert(record, ref, suppressed));
+        
+        return count(alert, SendResult.ACCEPTED);
+    }
+    
+    /**
+     * This method allows for a batch of alerts to be added to the alertQueue
+     * in one operation. 
+     * <p>
+     * Each alert is handled just as it would be by {@link #send(Alert)}, except
+     * that the whole batch is made durable with a single commit to the alert 
+     * journal, and should the journal fail part way the rest of the batch is
+     * reported as {@link SendResult#FAILED} rather than an exception being thrown.
+     * 
+     * @param alerts - The alerts to add to the queue as {@link List} of {@link Alert}s
+     * @return Returns the outcome of each alert, in the same order, as {@link List} of {@link SendResult}s
+     */
+    public List<SendResult> sendAll(List<Alert> alerts) {
+        List<SendResult> results = new ArrayList<>(alerts.size());
+        List<QueuedAlert> accepted = new ArrayList<>(alerts.size());
+        long lastRef = -1L;
+        boolean journalFailed = false;
+        int discarded = 0;
+        int rejected = 0;
+        int suppressed = 0;
+        int limited = 0;
+        for (Alert alert : alerts) {
+            if (!isValid(alert)) { // Message is not ok to send...
+                discarded++;
+                results.add(count(alert, SendResult.DISCARDED));
+            } else if (journalFailed) { // Cannot be made durable...
+                results.add(count(alert, SendResult.FAILED));
+            } else if (isRateLimited(alert)) { // Source is sending too many...
+                limited++;
+                results.add(count(alert, SendResult.RATE_LIMITED));
+            } else {
+                AlertRecord record = toRecord(alert);
+                int duplicates = deduplicator.check(record);
+                if (duplicates == AlertDeduplicator.DUPLICATE) { // Repeat within the window; takes no room in the queue...
+                    releaseRateLimits(alert);
+                    suppressed++;
+                    results.add(count(alert, SendResult.SUPPRESSED));
+                    continue;
+                }
+                if (!admission.tryAdmit(alert.getSeverity().intValue())) { // Too full for this severity...
+                    releaseRateLimits(alert);
+                    deduplicator.forget(record);
+                    rejected++;
+                    results.add(count(alert, SendResult.REJECTED));
+                    continue;
+                }
+                try {
+                    lastRef = alertJournal.append(record);
+                    accepted.add(new QueuedAlert(record, lastRef, duplicates));
+                    results.add(count(alert, SendResult.ACCEPTED));
+                } catch (IOException e) {
+                    admission.release();
+                    releaseRateLimits(alert);
+                    deduplicator.forget(record);
+                    log.error("Unable to write an Alert to the alert journal: ", e);
+                    journalFailed = true;
+                    results.add(count(alert, SendResult.FAILED));
+                }
+            }
+        }
+        
+        if (!accepted.isEmpty()) { // Make the whole batch durable at once...
+            alertJournal.commit(lastRef);
+            accepted.forEach(this::enqueue);
+        }
+        log.info(String.format("A batch of %d Alerts was received; %d were added to the alertQueue, %d were discarded, %d were suppressed, %d were rate limited and %d were rejected.", alerts.size(), accepted.size(), discarded, suppressed, limited, rejected));
+        
+        return results;
     }
     
     /**
@@ -144,8 +421,9 @@ public class Notifier extends Service {
      * 
      * @param subscription - The incoming subscription record as {@link Subscription}
      * @throws SubscriptionManagementException Indicates an issue with persisting updates to disk.
+     * @throws InvalidSubscriptionException Indicates the subscription is not valid, such as having a bad email address.
      */
-    public void subscribe(Subscription subscription) throws SubscriptionManagementException {
+    public void subscribe(Subscription subscription) throws SubscriptionManagementException, InvalidSubscriptionException {
         try {
             subManager.update(subscription);
         } catch (SubscriptionManagementException e) {
@@ -172,13 +450,54 @@ public class Notifier extends Service {
         return subManager.query(email, sourceName);
     }
     
+    /**
+     * Provides the cache of resolved alert recipients, mainly so its hit and 
+     * miss counts can be reported.
+     * 
+     * @return Returns the cache as {@link RecipientCache}
+     */
+    public RecipientCache getRecipientCache() {
+        
+        return recipientCache;
+    }
+    
+    /**
+     * Provides the metrics of the gateway, mainly so they can be served for scraping.
+     * 
+     * @return Returns the metrics as {@link MetricsRegistry}
+     */
+    public MetricsRegistry getMetrics() {
+        
+        return metrics;
+    }
+    
+    /**
+     * @return Returns the number of alerts accepted but not yet delivered as <code>int</code>
+     */
+    public int getQueueDepth() {
+        
+        return admission.getDepth();
+    }
+    
+    /**
+     * @return Returns the number of seconds a rate limited sender should wait
+     * before sending again as <code>int</code>
+     */
+    public int getRateLimitRetryAfterSeconds() {
+        
+        return Math.max(
+            (sourceLimiter.isEnabled() ? sourceLimiter.getRetryAfterSeconds() : 1), 
+            (addressLimiter.isEnabled() ? addressLimiter.getRetryAfterSeconds() : 1)
+        );
+    }
+    
     /*
      * (non-Javadoc)
      * @see com.firebirdcss.service.alert_gateway.service.Service#preRun()
      */
     @Override
     protected void preRun() {
-        // Not needed by this service.
+        deliveryPool = new DeliveryPool(getName(), Settings.deliveryWorkers, Settings.deliveryUrgentWorkers, Settings.virtualThreadsEnabled);
     }
     
     /*
@@ -187,7 +506,23 @@ public class Notifier extends Service {
      */
     @Override
     protected void postRun() {
-        // Not needed by this service.
+        Thread.interrupted(); // Clear the stop request so in-flight deliveries can be waited on...
+        deliveryPool.shutdown(SHUTDOWN_WAIT_MILLIS);
+        dueDigests.addAll(digests.drainAll()); // Send what was collected rather than wait on a restart...
+        while (!dueDigests.isEmpty()) {
+            deliverDigest(dueDigests.poll());
+        }
+        transportPool.close();
+        alertJournal.flush();
+        if (retries.size() > 0) {
+            log.warn(String.format("%d emails were still waiting to be tried again; Their Alerts will be delivered from the alert journal on the next start.", retries.size()));
+        }
+        log.info(String.format("Recipient cache had %d hits and %d misses.", recipientCache.getHits(), recipientCache.getMisses()));
+        log.info(String.format(
+            "Alerts waited %d ms at the median and %d ms at the 99th percentile to be sent.", 
+            TimeUnit.NANOSECONDS.toMillis(queueLatency.getValueAtPercentile(50.0D)), 
+            TimeUnit.NANOSECONDS.toMillis(queueLatency.getValueAtPercentile(99.0D))
+        ));
     }
     
     /*
@@ -196,62 +531,543 @@ public class Notifier extends Service {
      */
     @Override
     protected void runtime() {
-        while(alertQueue.peek() != null) { // There are alerts to process...
-            Alert alert = alertQueue.poll();
-            sendEmail(alert, subManager.getSubscribers(alert));
+        summarizeRateLimits();
+        try {
+            if (!dispatchDueRetries() || !dispatchDueDigests()) { // Lane is saturated...
+                
+                return;
+            }
+            if (!alertQueue.await(IDLE_WAIT_MILLIS)) { // Idle; good time for housekeeping...
+                transportPool.evictIdle();
+                alertJournal.flush();
+                deduplicator.purgeExpired();
+                
+                return;
+            }
+            for (int lane = alertQueue.selectLane(); lane >= 0; lane = alertQueue.selectLane()) { // There are alerts to process...
+                final QueuedAlert queued = alertQueue.peek(lane);
+                if (!deliveryPool.dispatch(queued.getSeverity(), () -> deliver(queued), HANDOFF_WAIT_MILLIS)) { // Lane is saturated...
+                    
+                    return; // Leave it at the head of its lane so a more severe alert may get ahead of it...
+                }
+                alertQueue.poll(lane);
+                queueDepth.decrement(queued.getSeverity());
+                summarizeRateLimits();
+                if (!dispatchDueRetries() || !dispatchDueDigests()) { // Lane is saturated...
+                    
+                    return;
+                }
+            }
+        } catch (InterruptedException e) { // Most likely the service is being stopped...
+            // Alerts stay in the queue until handed off, so nothing is lost...
         }
     }
     
     /**
      * PRIVATE METHOD:<br>
-     * Sends the contents of the incoming {@link Alert} to the 
-     * email addresses contained in the provided emailList.
-     * 
-     * @param alert - The given alert as {@link Alert}
-     * @param emailList - The emailList as a {@link List} of {@link String} emails
-     */
-    private void sendEmail(Alert alert, List<String> emailList) {
-        if (emailList != null && !emailList.isEmpty()) {
-            Session session = Session.getDefaultInstance(
-                mailerProps,
-                new javax.mail.Authenticator() {
-                    @Override
-                    protected PasswordAuthentication getPasswordAuthentication() {
-                        
-                        return new PasswordAuthentication(Settings.smtpUser, Settings.smtpPassword);
+     * Hands the emails whose retry backoffs have passed off to the delivery workers.
+     * 
+     * @return Returns false if an email could not be handed off because the lane
+     * is saturated, as <code>boolean</code>
+     * 
+     * @throws InterruptedException Indicates the service is being stopped.
+     */
+    private boolean dispatchDueRetries() throws InterruptedException {
+        dueRetries.addAll(retries.drainDue());
+        while (!dueRetries.isEmpty()) {
+            final Redelivery redelivery = dueRetries.peek();
+            if (!deliveryPool.dispatch(redelivery.getSeverity(), () -> redeliver(redelivery), HANDOFF_WAIT_MILLIS)) { // Try again later...
+                
+                return false;
+            }
+            dueRetries.poll();
+        }
+        
+        return true;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Hands the digests whose windows have closed off to the delivery workers.
+     * 
+     * @return Returns false if a digest could not be handed off because the lane
+     * is saturated, as <code>boolean</code>
+     * 
+     * @throws InterruptedException Indicates the service is being stopped.
+     */
+    private boolean dispatchDueDigests() throws InterruptedException {
+        dueDigests.addAll(digests.drainDue());
+        while (!dueDigests.isEmpty()) {
+            final Digest<InternetAddress, QueuedAlert> digest = dueDigests.peek();
+            if (!deliveryPool.dispatch(DIGEST_LANE_SEVERITY, () -> deliverDigest(digest), HANDOFF_WAIT_MILLIS)) { // Try again later...
+                
+                return false;
+            }
+            dueDigests.poll();
+        }
+        
+        return true;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Registers the metrics whose values are kept elsewhere, along with a
+     * counter of the alerts received for each {@link SendResult}.
+     */
+    private void registerMetrics() {
+        for (SendResult result : SendResult.values()) {
+            received.put(result, metrics.severityCounter("alertgateway_alerts_received_total", "Alerts handed to the gateway, by their outcome.", "result=\"" + result.name().toLowerCase() + "\""));
+        }
+        metrics.gauge("alertgateway_alerts_pending", "Alerts accepted but not yet delivered, including those with the delivery workers.", admission::getDepth);
+        metrics.gauge("alertgateway_alerts_pending_capacity", "The max number of alerts which may be pending.", admission::getCapacity);
+        metrics.gauge("alertgateway_delivery_retries_pending", "Emails waiting to be tried again after failing to send.", retries::size);
+        metrics.gauge("alertgateway_subscriptions", "Subscriptions currently held.", () -> subManager.getSnapshot().size());
+        metrics.counter("alertgateway_recipient_cache_hits_total", "Recipient lookups answered from the cache.", recipientCache::getHits);
+        metrics.counter("alertgateway_recipient_cache_misses_total", "Recipient lookups which had to be resolved.", recipientCache::getMisses);
+        metrics.counter("alertgateway_rate_limited_source_total", "Alerts dropped for being over the rate limit of their sourceName.", sourceLimiter::getLimited);
+        metrics.counter("alertgateway_rate_limited_address_total", "Alerts dropped for being over the rate limit of their sourceAddress.", addressLimiter::getLimited);
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Counts the given outcome of receiving the given alert.
+     * 
+     * @param alert - The alert as {@link Alert}, may be null
+     * @param result - The outcome as {@link SendResult}
+     * @return Returns the outcome as {@link SendResult}
+     */
+    private SendResult count(Alert alert, SendResult result) {
+        received.get(result).increment(alert == null ? null : alert.getSeverity());
+        
+        return result;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Adds the given accepted alert to the alertQueue.
+     * 
+     * @param queued - The alert as {@link QueuedAlert}
+     */
+    private void enqueue(QueuedAlert queued) {
+        queueDepth.increment(queued.getSeverity());
+        alertQueue.offer(queued.getSeverity(), queued);
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Takes a token for the given alert from the rate limits of its sourceName
+     * and sourceAddress. An alert over either limit takes from neither, so one
+     * limit doesn't use up the other's budget.
+     * 
+     * @param alert - The valid alert to check as {@link Alert}
+     * @return Returns true if the alert is over a rate limit as <code>boolean</code>
+     */
+    private boolean isRateLimited(Alert alert) {
+        String source = SubscriptionIndex.normalize(alert.getSourceName());
+        if (!sourceLimiter.tryAcquire(source)) { // Over the limit of its sourceName...
+            
+            return true;
+        }
+        if (!addressLimiter.tryAcquire(alert.getSourceAddress())) { // Over the limit of its sourceAddress...
+            sourceLimiter.release(source);
+            
+            return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Hands back the tokens taken by {@link #isRateLimited(Alert)} for an alert
+     * which was not accepted after all, such as a suppressed duplicate.
+     * 
+     * @param alert - The alert as {@link Alert}
+     */
+    private void releaseRateLimits(Alert alert) {
+        sourceLimiter.release(SubscriptionIndex.normalize(alert.getSourceName()));
+        addressLimiter.release(alert.getSourceAddress());
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Logs a summary of the alerts which were rate limited, once per summary
+     * period, rather than logging each one as it happens.
+     */
+    private void summarizeRateLimits() {
+        long now = System.currentTimeMillis();
+        if (now < nextRateLimitSummaryMillis) { // Not yet...
+            
+            return;
+        }
+        nextRateLimitSummaryMillis = now + TimeUnit.SECONDS.toMillis(Settings.rateLimitSummarySeconds);
+        
+        sourceLimiter.drainLimited().forEach((source, count) -> 
+            log.warn(String.format("%d Alerts from the sourceName '%s' were dropped in the last %d seconds; It is over its rate limit.", count, source, Settings.rateLimitSummarySeconds))
+        );
+        addressLimiter.drainLimited().forEach((address, count) -> 
+            log.warn(String.format("%d Alerts from the sourceAddress '%s' were dropped in the last %d seconds; It is over its rate limit.", count, address, Settings.rateLimitSummarySeconds))
+        );
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Checks that the given alert has what is required to send it, and that
+     * its severity is one of the {@link MessageSeverity}s.
+     * 
+     * @param alert - The alert to check as {@link Alert}
+     * @return Returns true if the alert is ok to send as <code>boolean</code>
+     */
+    private boolean isValid(Alert alert) {
+        
+        return (
+            alert != null 
+            && alert.getMessage() != null 
+            && alert.getSeverity() != null
+            && MessageSeverity.getName(alert.getSeverity()) != null
+            && alert.getSourceName() != null
+        );
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Delivers the given alert to its subscribers, and adds it to the digests
+     * of the subscribers who want it that way. Once every part of its delivery 
+     * is complete it gets marked as delivered in the alert journal. This runs on
+     * a delivery worker.
+     * 
+     * @param queued - The alert to deliver as {@link QueuedAlert}
+     */
+    private void deliver(QueuedAlert queued) {
+        List<Digest<InternetAddress, QueuedAlert>> fullDigests = null;
+        InternetAddress[] addresses = null;
+        EmailResult result = EmailResult.SENT;
+        try {
+            Recipients recipients = recipientCache.resolve(subManager.getSnapshot(), queued.getAlert().getSourceName(), queued.getSeverity());
+            addresses = recipients.getAddresses();
+            Subscription[] digestSubs = recipients.getDigestSubscriptions();
+            for (int i = 0; i < digestSubs.length; i++) { // Collect it for their digests...
+                Subscription sub = digestSubs[i];
+                queued.addPendingPart();
+                long windowMillis = TimeUnit.SECONDS.toMillis(sub.getDigestWindowSeconds() == null ? Settings.digestWindowSeconds : sub.getDigestWindowSeconds().intValue());
+                Digest<InternetAddress, QueuedAlert> full = digests.add(sub.getEmail(), recipients.getDigestAddresses()[i], windowMillis, queued);
+                if (full != null) { // Reached its max; send it now...
+                    if (fullDigests == null) {
+                        fullDigests = new ArrayList<>();
                     }
+                    fullDigests.add(full);
                 }
-            );
+            }
             
-            try {
-                Message message = new MimeMessage(session);
-                message.setFrom(new InternetAddress(Settings.notifierFromEmailAddress, Settings.notifierFromEmailName));
-                
-                /* Add subscribed recipients to message */
-                emailList.forEach(
-                    (email) -> {
-                        try {
-                            message.addRecipient(Message.RecipientType.TO, new InternetAddress(email));
-                        } catch (AddressException e) {
-                            log.warn(String.format("Invalid alert recipient of '%s', was skipped!", email));
-                        } catch (MessagingException e) {
-                            log.error(String.format("Encountered an error of: '%s', while attempting add recipients to the outgoing message! See stacktrace for details:", e.getMessage()), e);
-                        }
-                    }
-                );
-                
-                message.setSubject(String.format("Alert from '%s (%s)'", alert.getSourceAddress(), alert.getSourceName()));
-                message.setText(String.format("%s: %s\n%s", alert.getDate(), MessageSeverity.getName(alert.getSeverity()), alert.getMessage()));
-                
-                /* Send the message to SMTP Server */
-                Transport.send(message);
-            } catch (MessagingException e) {
-                log.error("An exception occurred while attempting to send out alerts: ", e);
-            } catch (UnsupportedEncodingException e) { // From address or name is invalid...
-                log.error("The provided 'From' address is invalid! Please correct the 'From' address and bounce the applicaiton! I show the 'From' address as: '" + Settings.notifierFromEmailName + " (" + Settings.notifierFromEmailAddress + "')");
+            if (addresses.length > 0 || recipients.getSubscriptionCount() == 0) { // Some are sent right away...
+                result = sendEmail(queued.getAlert(), queued.getSuppressedCount(), addresses);
+                if (result == EmailResult.SENT && addresses.length > 0) {
+                    queueLatency.recordSince(queued.getEnqueuedNanos());
+                }
+            }
+        } finally {
+            if (result == EmailResult.SENT) {
+                completePart(queued);
+            } else {
+                settle(result, new Redelivery(queued, addresses));
+            }
+        }
+        
+        if (fullDigests != null) {
+            fullDigests.forEach(this::deliverDigest);
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Delivers the given digest to its recipient and completes the part of each
+     * alert's delivery which the digest was holding. 
+     * 
+     * @param digest - The digest to deliver as {@link Digest}
+     */
+    private void deliverDigest(Digest<InternetAddress, QueuedAlert> digest) {
+        EmailResult result = EmailResult.SENT;
+        try {
+            result = sendDigestEmail(digest);
+        } finally {
+            if (result == EmailResult.SENT) {
+                digest.getItems().forEach(this::completePart);
+            } else {
+                settle(result, new Redelivery(digest));
             }
-        } else {
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Tries again to send an email which could not be sent before, and completes 
+     * the part of each alert's delivery which it was holding once it is sent. This
+     * runs on a delivery worker.
+     * 
+     * @param redelivery - The email to send as {@link Redelivery}
+     */
+    private void redeliver(Redelivery redelivery) {
+        EmailResult result = EmailResult.SENT;
+        try {
+            if (redelivery.digest != null) {
+                result = sendDigestEmail(redelivery.digest);
+            } else {
+                result = sendEmail(redelivery.queued.getAlert(), redelivery.queued.getSuppressedCount(), redelivery.recipients);
+                if (result == EmailResult.SENT) {
+                    queueLatency.recordSince(redelivery.queued.getEnqueuedNanos());
+                }
+            }
+        } finally {
+            settle(result, redelivery);
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Settles the part of each alert's delivery which the given email was holding,
+     * based on the result of trying to send it. A sent email completes its parts,
+     * one which failed for now is tried again later and one which can never be 
+     * sent completes its parts as failed right away, so its alerts don't keep 
+     * their room in the alert queue.
+     * 
+     * @param result - The result of trying to send the email as {@link EmailResult}
+     * @param redelivery - The email as {@link Redelivery}
+     */
+    private void settle(EmailResult result, Redelivery redelivery) {
+        if (result == EmailResult.SENT) {
+            redelivery.getItems().forEach(this::completePart);
+        } else if (result == EmailResult.TEMPORARY_FAILURE) {
+            retryLater(redelivery);
+        } else { // Trying again won't help...
+            log.error(String.format("Gave up on an email for %d Alerts; It can never be sent.", redelivery.getItems().size()));
+            giveUp(redelivery.getItems());
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Schedules an email which could not be sent to be tried again after a 
+     * backoff. Until it is sent, its alerts stay unmarked in the alert journal
+     * and keep their room in the alert queue. Once it runs out of attempts it 
+     * is given up on.
+     * 
+     * @param redelivery - The email as {@link Redelivery}
+     */
+    private void retryLater(Redelivery redelivery) {
+        int attempts = ++redelivery.attempts;
+        List<QueuedAlert> items = redelivery.getItems();
+        if (Settings.deliveryRetryMaxAttempts > 0 && attempts >= Settings.deliveryRetryMaxAttempts) { // Ran out of attempts...
+            log.error(String.format("Gave up on an email for %d Alerts after %d attempts to send it.", items.size(), attempts));
+            giveUp(items);
+            
+            return;
+        }
+        
+        long backoffMillis = retries.schedule(redelivery, attempts);
+        log.warn(String.format("An email for %d Alerts could not be sent; It will be tried again in %d seconds.", items.size(), TimeUnit.MILLISECONDS.toSeconds(backoffMillis)));
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Completes the part of each of the given alerts' deliveries which an email
+     * that was given up on was holding, as failed.
+     * 
+     * @param items - The alerts of the email as {@link List} of {@link QueuedAlert}s
+     */
+    private void giveUp(List<QueuedAlert> items) {
+        items.forEach((queued) -> {
+            queued.markFailed();
+            completePart(queued);
+        });
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Completes a part of the given alert's delivery, and once all of its parts
+     * are complete marks it as delivered in the alert journal.
+     * 
+     * @param queued - The alert as {@link QueuedAlert}
+     */
+    private void completePart(QueuedAlert queued) {
+        if (queued.completePart()) { // Fully delivered...
+            alertJournal.markDelivered(queued.getJournalRef());
+            admission.release();
+            (queued.hasFailed() ? undelivered : delivered).increment(queued.getSeverity());
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Converts the given alert into the compact record it is kept as until it
+     * is delivered. When the alert occurred is parsed from its date and dateMask; 
+     * an alert whose date is missing or doesn't match its dateMask is taken to 
+     * have occurred now, and keeps its raw date to be shown instead.
+     * 
+     * @param alert - The alert as {@link Alert}
+     * @return Returns the record of the alert as {@link AlertRecord}
+     */
+    private AlertRecord toRecord(Alert alert) {
+        
+        return AlertRecord.of(alert, dateParser);
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Sends the contents of the incoming {@link Alert} to the 
+     * given recipients.
+     * 
+     * @param alert - The given alert as {@link AlertRecord}
+     * @param suppressedCount - The number of duplicates suppressed since the alert was last sent as <code>int</code>
+     * @param recipients - The already parsed addresses of the recipients as {@link InternetAddress}[]
+     * @return Returns the result of trying to send the email as {@link EmailResult}
+     */
+    private EmailResult sendEmail(AlertRecord alert, int suppressedCount, InternetAddress[] recipients) {
+        if (recipients == null || recipients.length == 0) { // Nobody to send it to...
             log.warn("Attempted to send an Alert but no matching subscriptions were found!");
+            
+            return EmailResult.SENT;
+        }
+        
+        Message message;
+        try {
+            message = renderer.render(alert, suppressedCount, recipients);
+        } catch (MessagingException e) {
+            smtpErrors.increment(alert.getSeverity());
+            log.error("An exception occurred while attempting to build an alert email: ", e);
+            
+            return EmailResult.PERMANENT_FAILURE; // Rendering it again won't change anything...
+        }
+        
+        /* Send the message to SMTP Server over a pooled connection */
+        EmailResult result = transmit(message);
+        if (result != EmailResult.SENT) {
+            smtpErrors.increment(alert.getSeverity());
+        }
+        
+        return result;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Sends the alerts of the given digest to its recipient as a single email,
+     * in the order they occurred.
+     * 
+     * @param digest - The digest to send as {@link Digest}
+     * @return Returns the result of trying to send the email as {@link EmailResult}
+     */
+    private EmailResult sendDigestEmail(Digest<InternetAddress, QueuedAlert> digest) {
+        List<QueuedAlert> items = new ArrayList<>(digest.getItems());
+        items.sort(Comparator.comparingLong(QueuedAlert::getTimestamp));
+        List<AlertRecord> alerts = new ArrayList<>(items.size());
+        int[] suppressedCounts = new int[items.size()];
+        int severity = 0;
+        for (int i = 0; i < items.size(); i++) {
+            alerts.add(items.get(i).getAlert());
+            suppressedCounts[i] = items.get(i).getSuppressedCount();
+            severity = Math.max(severity, items.get(i).getSeverity());
+        }
+        
+        Message message;
+        try {
+            message = renderer.renderDigest(digest.getRecipient(), alerts, suppressedCounts);
+        } catch (MessagingException e) {
+            smtpErrors.increment(severity);
+            log.error("An exception occurred while attempting to build an alert digest: ", e);
+            
+            return EmailResult.PERMANENT_FAILURE; // Rendering it again won't change anything...
+        }
+        
+        /* Send the message to SMTP Server over a pooled connection */
+        EmailResult result = transmit(message);
+        if (result != EmailResult.SENT) {
+            smtpErrors.increment(severity);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Sends the given message over a pooled connection, timing how long it takes.
+     * A message which the SMTP server refused for its recipients can never be 
+     * sent, while any other failure, such as the server being unreachable, may
+     * pass.
+     * 
+     * @param message - The message to send as {@link Message}
+     * @return Returns the result of trying to send the message as {@link EmailResult}
+     */
+    private EmailResult transmit(Message message) {
+        long start = System.nanoTime();
+        try {
+            transportPool.send(message);
+        } catch (SendFailedException e) { // Rejected by the server, such as for an unknown recipient...
+            log.error("The SMTP server refused an email; It will not be tried again: ", e);
+            
+            return EmailResult.PERMANENT_FAILURE;
+        } catch (MessagingException e) {
+            log.error("An exception occurred while attempting to send out an email: ", e);
+            
+            return EmailResult.TEMPORARY_FAILURE;
+        } finally {
+            smtpSendLatency.recordSince(start);
+        }
+        
+        return EmailResult.SENT;
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * An email which could not be sent, waiting to be tried again. It is either
+     * the email of a single alert to its recipients or a digest.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class Redelivery {
+        private final QueuedAlert queued;
+        private final InternetAddress[] recipients;
+        private final Digest<InternetAddress, QueuedAlert> digest;
+        private int attempts = 0; // Only touched by the worker holding it
+        
+        /**
+         * CONSTRUCTOR:<br>
+         * 
+         * @param queued - The alert as {@link QueuedAlert}
+         * @param recipients - The recipients it wasn't sent to as {@link InternetAddress}[]
+         */
+        private Redelivery(QueuedAlert queued, InternetAddress[] recipients) {
+            this.queued = queued;
+            this.recipients = recipients;
+            this.digest = null;
+        }
+        
+        /**
+         * CONSTRUCTOR:<br>
+         * 
+         * @param digest - The digest which wasn't sent as {@link Digest}
+         */
+        private Redelivery(Digest<InternetAddress, QueuedAlert> digest) {
+            this.queued = null;
+            this.recipients = null;
+            this.digest = digest;
+        }
+        
+        /**
+         * @return Returns the alerts the email holds a part of the delivery of as {@link List} of {@link QueuedAlert}s
+         */
+        private List<QueuedAlert> getItems() {
+            
+            return (digest != null ? digest.getItems() : Collections.singletonList(queued));
+        }
+        
+        /**
+         * @return Returns the severity of the lane to send it on as <code>int</code>
+         */
+        private int getSeverity() {
+            
+            return (digest != null ? DIGEST_LANE_SEVERITY : queued.getSeverity());
         }
     }
 }
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.firebirdcss.service.alert_gateway.util.AlertCodec;
+import com.firebirdcss.service.alert_gateway.util.AlertRecord;
+import com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Codec;
+
+/**
+ * This class is an {@link AlertRecord} which has been accepted by the {@link Notifier}
+ * along with the information the {@link Notifier} needs to keep track of it 
+ * until it has been delivered.
+ * <p>
+ * An alert may be delivered in parts, such as when some of its recipients
+ * receive it in a digest, so it keeps a count of the parts still pending.
+ * <p>
+ * While waiting in an off-heap queue it is held encoded by {@link #CODEC} as:
+ * [long sequence][long journalRef][int suppressedCount][long enqueuedNanos][encoded alert]<br>
+ * where the alert is encoded by {@link AlertCodec}.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+class QueuedAlert {
+    static final Codec<QueuedAlert> CODEC = new Codec<QueuedAlert>() {
+        @Override
+        public byte[] encode(QueuedAlert item) {
+            byte[] alert = AlertCodec.encode(item.alert);
+            
+            return ByteBuffer.allocate(8 + 8 + 4 + 8 + alert.length)
+                .putLong(item.alert.getSequence())
+                .putLong(item.journalRef)
+                .putInt(item.suppressedCount)
+                .putLong(item.enqueuedNanos)
+                .put(alert)
+                .array();
+        }
+        
+        @Override
+        public QueuedAlert decode(ByteBuffer buffer) {
+            long sequence = buffer.getLong();
+            long journalRef = buffer.getLong();
+            int suppressedCount = buffer.getInt();
+            long enqueuedNanos = buffer.getLong();
+            
+            return new QueuedAlert(AlertCodec.decode(buffer, sequence), journalRef, suppressedCount, enqueuedNanos);
+        }
+    };
+    
+    private final AlertRecord alert;
+    private final long journalRef;
+    private final int suppressedCount;
+    private final long enqueuedNanos;
+    private final AtomicInteger pendingParts = new AtomicInteger(1);
+    private volatile boolean failed = false;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param alert - The accepted alert as {@link AlertRecord}
+     * @param journalRef - The reference of the alert in the alert journal as <code>long</code>
+     * @param suppressedCount - The number of duplicates of the alert suppressed before it as <code>int</code>
+     */
+    QueuedAlert(AlertRecord alert, long journalRef, int suppressedCount) {
+        this(alert, journalRef, suppressedCount, System.nanoTime());
+    }
+    
+    /**
+     * PRIVATE CONSTRUCTOR:<br>
+     *
+     * @param alert - The accepted alert as {@link AlertRecord}
+     * @param journalRef - The reference of the alert in the alert journal as <code>long</code>
+     * @param suppressedCount - The number of duplicates of the alert suppressed before it as <code>int</code>
+     * @param enqueuedNanos - When the alert was queued, from {@link System#nanoTime()}, as <code>long</code>
+     */
+    private QueuedAlert(AlertRecord alert, long journalRef, int suppressedCount, long enqueuedNanos) {
+        this.alert = alert;
+        this.journalRef = journalRef;
+        this.suppressedCount = suppressedCount;
+        this.enqueuedNanos = enqueuedNanos;
+    }
+    
+    /**
+     * @return Returns the alert as {@link AlertRecord}
+     */
+    AlertRecord getAlert() {
+        
+        return alert;
+    }
+    
+    /**
+     * @return Returns the severity of the alert as <code>int</code>
+     */
+    int getSeverity() {
+        
+        return alert.getSeverity();
+    }
+    
+    /**
+     * @return Returns when the alert occurred in epoch milliseconds as <code>long</code>
+     */
+    long getTimestamp() {
+        
+        return alert.getTimestamp();
+    }
+    
+    /**
+     * @return Returns the reference of the alert in the alert journal as <code>long</code>
+     */
+    long getJournalRef() {
+        
+        return journalRef;
+    }
+    
+    /**
+     * @return Returns the number of duplicates of the alert which were suppressed since
+     * the last time it was sent as <code>int</code>
+     */
+    int getSuppressedCount() {
+        
+        return suppressedCount;
+    }
+    
+    /**
+     * @return Returns when the alert was queued, from {@link System#nanoTime()}, as <code>long</code>
+     */
+    long getEnqueuedNanos() {
+        
+        return enqueuedNanos;
+    }
+    
+    /**
+     * Notes that a part of the delivery was given up on without being sent.
+     */
+    void markFailed() {
+        failed = true;
+    }
+    
+    /**
+     * @return Returns true if a part of the delivery was given up on as <code>boolean</code>
+     */
+    boolean hasFailed() {
+        
+        return failed;
+    }
+    
+    /**
+     * Adds a part of the delivery which must complete before the alert is delivered.
+     */
+    void addPendingPart() {
+        pendingParts.incrementAndGet();
+    }
+    
+    /**
+     * Completes a part of the delivery.
+     * 
+     * @return Returns true if this was the last pending part, and so the alert
+     * has now been delivered, as <code>boolean</code>
+     */
+    boolean completePart() {
+        
+        return (pendingParts.decrementAndGet() == 0);
+    }
+}
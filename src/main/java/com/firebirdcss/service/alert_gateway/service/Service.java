@@ -34,6 +34,21 @@ public abstract class Service {
         this.serviceName = serviceName;
     }
     
+    /**
+     * CONSTRUCTOR: Creates an event-driven service.
+     * <p>
+     * An event-driven service does not sleep between cycles; instead its 
+     * {@link #runtime()} is expected to block on its own source of work 
+     * (such as a {@link java.util.concurrent.BlockingQueue}) with a bounded 
+     * wait, so that it wakes up as soon as work arrives and still returns
+     * periodically to allow the service to be stopped.
+     *
+     * @param serviceName - A user friendly unique name for the implementing service as {@link String}
+     */
+    protected Service(String serviceName) {
+        this(serviceName, 0L);
+    }
+    
     /**
      * This method will contain code to be executed 
      * once start is called and just before the runtime
@@ -164,7 +179,7 @@ public abstract class Service {
             while (running) { // Is running...
                 runtime();
                 
-                if (running) { // Is running...
+                if (running && cycleSleepMillis > 0L) { // Is running and not event-driven...
                     try {
                         TimeUnit.MILLISECONDS.sleep(cycleSleepMillis);
                     } catch (InterruptedException e) {
@@ -172,6 +187,9 @@ public abstract class Service {
                     }
                 }
             }
+            
+            /* Perform postRun tasks */
+            postRun();
         }
         
         /**
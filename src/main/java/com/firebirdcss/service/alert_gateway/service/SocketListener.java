@@ -0,0 +1,395 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.service;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.firebirdcss.service.alert_gateway.data.Settings;
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
+import com.firebirdcss.service.alert_gateway.util.AlertFrameParser;
+
+/**
+ * This class is a service which takes alerts over raw TCP and UDP sockets,
+ * for devices which cannot make HTTP requests, or which send too many alerts
+ * for the cost of a request per alert.
+ * <p>
+ * A single thread serves every connection using a {@link Selector}. The bytes
+ * received are parsed straight out of a direct buffer by {@link AlertFrameParser},
+ * and all of the alerts found in one read, or in one datagram, are handed to
+ * the {@link Notifier} together so they are made durable with a single commit.
+ * They are then validated, rate limited and admitted just as the alerts of the
+ * HTTP endpoints are. Nothing is sent back to the sender; like syslog, the
+ * protocol is fire and forget.
+ * <p>
+ * The selector thread only reads and parses. The batches it finds are put on a
+ * bounded queue and sent to the {@link Notifier} by a thread of their own, so a
+ * slow journal commit never holds up the sockets. Should the queue fill up, the
+ * batches which don't fit are dropped, and how many alerts were dropped is
+ * logged periodically.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class SocketListener extends Service {
+    private static final Logger log = LogManager.getLogger(SocketListener.class);
+    
+    private static final long IDLE_WAIT_MILLIS = 1000L;
+    private static final int LENGTH_PREFIX_BYTES = 12; // Up to ten digits, a space, and one to spare
+    private static final long DROP_SUMMARY_MILLIS = 10000L;
+    
+    private final Notifier notifier;
+    private final Selector selector;
+    private final ServerSocketChannel tcpChannel;
+    private final DatagramChannel udpChannel;
+    private final AlertFrameParser parser = new AlertFrameParser(Settings.listenerMaxFrameBytes);
+    private final ByteBuffer datagramBuffer = ByteBuffer.allocateDirect(65536);
+    private final BlockingQueue<List<Alert>> batches = new ArrayBlockingQueue<>(Settings.listenerQueueBatches);
+    private final Sender sender = new Sender();
+    private List<Alert> received = new ArrayList<>();
+    private int connections = 0;
+    private long dropped = 0L; // Only touched by the selector thread
+    private long nextDropSummaryMillis = 0L; // Only touched by the selector thread
+    
+    /**
+     * CONSTRUCTOR:<br>
+     * Binds the listening sockets right away, so a port which can't be bound
+     * is known before the service is started.
+     *
+     * @param notifier - The notifier to send the received alerts to as {@link Notifier}
+     *
+     * @throws IOException Indicates the sockets could not be opened or bound.
+     */
+    public SocketListener(Notifier notifier) throws IOException {
+        super("SocketListener");
+        this.notifier = notifier;
+        this.selector = Selector.open();
+        InetSocketAddress address = new InetSocketAddress(Settings.listenerPort);
+        ServerSocketChannel tcp = null;
+        DatagramChannel udp = null;
+        try {
+            if (Settings.listenerTcpEnabled) {
+                tcp = ServerSocketChannel.open();
+                tcp.bind(address);
+                tcp.configureBlocking(false);
+                tcp.register(selector, SelectionKey.OP_ACCEPT);
+            }
+            if (Settings.listenerUdpEnabled) {
+                udp = DatagramChannel.open();
+                udp.bind(address);
+                udp.configureBlocking(false);
+                udp.register(selector, SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            if (tcp != null) {
+                tcp.close();
+            }
+            if (udp != null) {
+                udp.close();
+            }
+            selector.close();
+            
+            throw e;
+        }
+        this.tcpChannel = tcp;
+        this.udpChannel = udp;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see com.firebirdcss.service.alert_gateway.service.Service#preRun()
+     */
+    @Override
+    protected void preRun() {
+        sender.start();
+        log.info(String.format("Listening for alerts on port %d (TCP:%b, UDP:%b).", Settings.listenerPort, Settings.listenerTcpEnabled, Settings.listenerUdpEnabled));
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see com.firebirdcss.service.alert_gateway.service.Service#postRun()
+     */
+    @Override
+    protected void postRun() {
+        close();
+        sender.stopAndWait();
+        logDropped();
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see com.firebirdcss.service.alert_gateway.service.Service#runtime()
+     */
+    @Override
+    protected void runtime() {
+        if (dropped > 0L && System.currentTimeMillis() >= nextDropSummaryMillis) { // Time to report...
+            logDropped();
+        }
+        
+        try {
+            if (selector.select(IDLE_WAIT_MILLIS) == 0) { // Idle or being stopped...
+                
+                return;
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            log.error("Unable to wait on the listening sockets: ", e);
+            
+            return;
+        }
+        
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) { // Closed...
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+            } else if (key.channel() == udpChannel) {
+                receive();
+            } else {
+                read(key);
+            }
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Accepts the waiting connections, up to the max allowed.
+     */
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = tcpChannel.accept()) != null) {
+                if (connections >= Settings.listenerMaxConnections) { // Too many...
+                    log.warn("A connection to the SocketListener was refused; Too many are open.");
+                    channel.close();
+                    continue;
+                }
+                channel.configureBlocking(false);
+                SocketAddress remote = channel.getRemoteAddress();
+                Connection connection = new Connection(
+                    (remote instanceof InetSocketAddress ? ((InetSocketAddress) remote).getAddress().getHostAddress() : String.valueOf(remote)),
+                    ByteBuffer.allocateDirect(Settings.listenerMaxFrameBytes + LENGTH_PREFIX_BYTES)
+                );
+                channel.register(selector, SelectionKey.OP_READ, connection);
+                connections++;
+            }
+        } catch (IOException e) {
+            log.warn("Unable to accept a connection to the SocketListener: ", e);
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Reads what has arrived on a connection and sends the alerts found in it.
+     *
+     * @param key - The key of the connection as {@link SelectionKey}
+     */
+    private void read(SelectionKey key) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        ByteBuffer buffer = connection.buffer;
+        boolean open = true;
+        try {
+            int count = channel.read(buffer);
+            buffer.flip();
+            open = parser.parse(buffer, count < 0, connection.address, received);
+            if (!open) { // Broken framing; nothing after it can be trusted...
+                log.warn(String.format("A frame from '%s' was too long or malformed; Closing its connection.", connection.address));
+            } else if (count < 0) { // Sender is done...
+                open = false;
+            }
+            buffer.compact();
+        } catch (IOException e) {
+            log.debug(String.format("Connection from '%s' failed: %s", connection.address, e.getMessage()));
+            open = false;
+        }
+        
+        sendReceived();
+        if (!open) {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already going away...
+            }
+            connections--;
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Receives the waiting datagrams and sends the alerts found in them.
+     */
+    private void receive() {
+        try {
+            SocketAddress remote;
+            datagramBuffer.clear();
+            while ((remote = udpChannel.receive(datagramBuffer)) != null) {
+                datagramBuffer.flip();
+                String address = (remote instanceof InetSocketAddress ? ((InetSocketAddress) remote).getAddress().getHostAddress() : String.valueOf(remote));
+                if (!parser.parse(datagramBuffer, true, address, received)) { // Rest of the datagram is dropped...
+                    log.warn(String.format("A datagram from '%s' held a frame which was too long or malformed.", address));
+                }
+                datagramBuffer.clear();
+            }
+        } catch (IOException e) {
+            log.warn("Unable to receive a datagram on the SocketListener: ", e);
+        }
+        
+        sendReceived();
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Hands the alerts received so far to the sender as one batch, or drops
+     * them if its queue is full.
+     */
+    private void sendReceived() {
+        if (received.isEmpty()) {
+            
+            return;
+        }
+        
+        if (batches.offer(received)) { // Sender owns it now...
+            received = new ArrayList<>();
+        } else { // Notifier isn't keeping up...
+            dropped += received.size();
+            received.clear();
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Logs how many alerts were dropped since the last time, if any.
+     */
+    private void logDropped() {
+        if (dropped > 0L) {
+            log.warn(String.format("%d Alerts received by the SocketListener were dropped; The Notifier is not keeping up with them.", dropped));
+            dropped = 0L;
+        }
+        nextDropSummaryMillis = System.currentTimeMillis() + DROP_SUMMARY_MILLIS;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Closes the listening sockets and every open connection.
+     */
+    private void close() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (IOException | ClosedSelectorException e) {
+            log.warn("Unable to close the SocketListener cleanly: ", e);
+        }
+        connections = 0;
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * The service which sends the batches of received alerts to the notifier,
+     * in the order they were received. Once stopped, it sends whatever is still
+     * waiting before it ends.
+     *
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private class Sender extends Service {
+        
+        /**
+         * CONSTRUCTOR:<br>
+         */
+        private Sender() {
+            super("SocketListener-Sender");
+        }
+        
+        /*
+         * (non-Javadoc)
+         * @see com.firebirdcss.service.alert_gateway.service.Service#preRun()
+         */
+        @Override
+        protected void preRun() {}
+        
+        /*
+         * (non-Javadoc)
+         * @see com.firebirdcss.service.alert_gateway.service.Service#postRun()
+         */
+        @Override
+        protected void postRun() {
+            Thread.interrupted(); // Left over from being stopped; It would close the journal's channel
+            for (List<Alert> batch = batches.poll(); batch != null; batch = batches.poll()) {
+                notifier.sendAll(batch);
+            }
+        }
+        
+        /*
+         * (non-Javadoc)
+         * @see com.firebirdcss.service.alert_gateway.service.Service#runtime()
+         */
+        @Override
+        protected void runtime() {
+            List<Alert> batch;
+            try {
+                batch = batches.poll(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) { // Being stopped...
+                
+                return;
+            }
+            
+            if (batch != null) {
+                notifier.sendAll(batch);
+            }
+        }
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * The state of a TCP connection.
+     *
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class Connection {
+        private final String address;
+        private final ByteBuffer buffer; // Holds a frame which has only partly arrived
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param address - The address of the sender as {@link String}
+         * @param buffer - The buffer to read into as {@link ByteBuffer}
+         */
+        private Connection(String address, ByteBuffer buffer) {
+            this.address = address;
+            this.buffer = buffer;
+        }
+    }
+}
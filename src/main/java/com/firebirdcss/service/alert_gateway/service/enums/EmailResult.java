@@ -0,0 +1,18 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.service.enums;
+
+/**
+ * The possible outcomes of the Notifier trying to send an email.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public enum EmailResult {
+    SENT, // Taken by the SMTP server
+    TEMPORARY_FAILURE, // May be sent if tried again later
+    PERMANENT_FAILURE; // Will never be sent, such as a rejected recipient or an unusable 'From' address
+}
@@ -0,0 +1,21 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.service.enums;
+
+/**
+ * The possible outcomes of handing an alert to the Notifier.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public enum SendResult {
+    ACCEPTED, // Queued for delivery
+    DISCARDED, // Invalid and dropped
+    SUPPRESSED, // Duplicate within the window; counted but not sent
+    REJECTED, // Over capacity; sender should retry later
+    RATE_LIMITED, // Source is over its rate limit; counted but not sent
+    FAILED; // Could not be made durable
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.firebirdcss.service.alert_gateway.endpoints.enums.MessageSeverity;
+
+/**
+ * This class bounds the number of alerts which may be waiting for delivery.
+ * <p>
+ * Each severity has a high and a low watermark, expressed as percentages of
+ * the capacity. Once the number of waiting alerts reaches the high watermark
+ * of a severity, alerts of that severity are rejected until the number falls 
+ * back below its low watermark. Giving the more severe alerts higher watermarks
+ * keeps room for them while the less severe ones are being shed.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class AdmissionController {
+    private static final int MIN_SEVERITY = MessageSeverity.TEST.getValue().intValue();
+    private static final int MAX_SEVERITY = MessageSeverity.EMERGENCY.getValue().intValue();
+    
+    private final AtomicInteger depth = new AtomicInteger(0);
+    private final int capacity;
+    private final int[] highWatermarks;
+    private final int[] lowWatermarks;
+    private final boolean[] shedding; // Racy by design; at worst blurs the hysteresis a little
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param capacity - The max number of alerts which may be waiting as <code>int</code>
+     * @param highPercents - The high watermark of each severity, from least to most severe, 
+     * as a percentage of the capacity as <code>int[]</code>
+     * @param lowPercents - The low watermark of each severity, from least to most severe, 
+     * as a percentage of the capacity as <code>int[]</code>
+     */
+    public AdmissionController(int capacity, int[] highPercents, int[] lowPercents) {
+        this.capacity = capacity;
+        int levels = MAX_SEVERITY - MIN_SEVERITY + 1;
+        this.highWatermarks = new int[levels];
+        this.lowWatermarks = new int[levels];
+        this.shedding = new boolean[levels];
+        for (int i = 0; i < levels; i++) {
+            highWatermarks[i] = Math.min(capacity, (int) ((long) capacity * highPercents[i] / 100L));
+            lowWatermarks[i] = Math.min(highWatermarks[i], (int) ((long) capacity * lowPercents[i] / 100L));
+        }
+    }
+    
+    /**
+     * Attempts to admit an alert of the given severity. Every admitted alert
+     * must later be given back using {@link #release()}.
+     * 
+     * @param severity - The severity of the alert as <code>int</code>
+     * @return Returns true if admitted or false if rejected as <code>boolean</code>
+     */
+    public boolean tryAdmit(int severity) {
+        int level = level(severity);
+        int current = depth.get();
+        if (shedding[level]) { // Still backing off...
+            if (current > lowWatermarks[level]) {
+                
+                return false;
+            }
+            shedding[level] = false;
+        }
+        
+        while (true) {
+            if (current >= highWatermarks[level]) { // Reached the watermark...
+                shedding[level] = true;
+                
+                return false;
+            }
+            if (depth.compareAndSet(current, current + 1)) { // Admitted...
+                
+                return true;
+            }
+            current = depth.get();
+        }
+    }
+    
+    /**
+     * Admits an alert regardless of the watermarks, such as one recovered
+     * from the alert journal which had been accepted before.
+     */
+    public void forceAdmit() {
+        depth.incrementAndGet();
+    }
+    
+    /**
+     * Gives back the room taken by an admitted alert once it is no longer waiting.
+     */
+    public void release() {
+        depth.decrementAndGet();
+    }
+    
+    /**
+     * @return Returns the number of alerts currently admitted as <code>int</code>
+     */
+    public int getDepth() {
+        
+        return depth.get();
+    }
+    
+    /**
+     * @return Returns the max number of alerts which may be waiting as <code>int</code>
+     */
+    public int getCapacity() {
+        
+        return capacity;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * 
+     * @param severity - A severity as <code>int</code>
+     * @return Returns the watermark index of the severity, clamped to the known severities, as <code>int</code>
+     */
+    private int level(int severity) {
+        
+        return Math.max(MIN_SEVERITY, Math.min(MAX_SEVERITY, severity)) - MIN_SEVERITY;
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
+
+/**
+ * This class encodes {@link AlertRecord}s to and from a compact binary form, 
+ * for when alerts need to be stored outside of the heap.
+ * <p>
+ * Layout: [byte version][byte severity][long timestamp][sourceAddress][sourceName][rawDate][message]<br>
+ * Each string is stored as [int byteLength][UTF-8 bytes], where a length of -1 stands for null.
+ * <p>
+ * Alerts encoded by version 2 have the same layout without the rawDate, and 
+ * decode with it null.
+ * <p>
+ * Alerts encoded by version 1 held the {@link Alert} as it was received: 
+ * [byte version][int severity][sourceAddress][sourceName][date][dateMask][message]<br>
+ * They can still be decoded, in which case the date is parsed using the dateMask.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class AlertCodec {
+    private static final byte VERSION = 3;
+    private static final byte VERSION_NO_RAW_DATE = 2;
+    private static final byte VERSION_ALERT = 1;
+    private static final DateMaskParser LEGACY_DATES = new DateMaskParser(16); // Only for version 1
+    
+    /**
+     * PRIVATE CONSTRUCTOR:<br>
+     * Only static methods are offered by this class.
+     */
+    private AlertCodec() {}
+    
+    /**
+     * STATIC METHOD:<br>
+     * Encodes the given alert.
+     * 
+     * @param alert - The alert to encode as {@link AlertRecord}
+     * @return Returns the encoded alert as <code>byte[]</code>
+     */
+    public static byte[] encode(AlertRecord alert) {
+        byte[] sourceAddress = bytes(alert.getSourceAddress());
+        byte[] sourceName = bytes(alert.getSourceName());
+        byte[] rawDate = bytes(alert.getRawDate());
+        byte[] message = bytes(alert.getMessage());
+        
+        ByteBuffer buffer = ByteBuffer.allocate(
+            1 + 1 + 8 + (4 * 4) 
+            + length(sourceAddress) + length(sourceName) + length(rawDate) + length(message)
+        );
+        buffer.put(VERSION);
+        buffer.put((byte) alert.getSeverity());
+        buffer.putLong(alert.getTimestamp());
+        put(buffer, sourceAddress);
+        put(buffer, sourceName);
+        put(buffer, rawDate);
+        put(buffer, message);
+        
+        return buffer.array();
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Decodes an alert from the given buffer, starting at its current position.
+     * The decoded alert is given a new sequence id.
+     * 
+     * @param buffer - The buffer holding an encoded alert as {@link ByteBuffer}
+     * @return Returns the decoded alert as {@link AlertRecord}
+     * 
+     * @throws IllegalArgumentException Indicates the buffer doesn't hold a valid encoded alert.
+     */
+    public static AlertRecord decode(ByteBuffer buffer) {
+        
+        return decode(buffer, -1L);
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Decodes an alert from the given buffer, starting at its current position.
+     * The decoded alert keeps the given sequence id.
+     * 
+     * @param buffer - The buffer holding an encoded alert as {@link ByteBuffer}
+     * @param sequence - The sequence id of the alert as <code>long</code>, or -1 to give it a new one
+     * @return Returns the decoded alert as {@link AlertRecord}
+     * 
+     * @throws IllegalArgumentException Indicates the buffer doesn't hold a valid encoded alert.
+     */
+    public static AlertRecord decode(ByteBuffer buffer, long sequence) {
+        try {
+            byte version = buffer.get();
+            if (version == VERSION_ALERT) { // Written before alerts were records...
+                
+                return decodeAlert(buffer);
+            }
+            if (version != VERSION && version != VERSION_NO_RAW_DATE) { // Unknown encoding...
+                throw new IllegalArgumentException("Unsupported encoded Alert version of: " + version);
+            }
+            
+            int severity = buffer.get();
+            long timestamp = buffer.getLong();
+            String sourceAddress = get(buffer);
+            String sourceName = get(buffer);
+            String rawDate = (version == VERSION ? get(buffer) : null);
+            String message = get(buffer);
+            
+            return new AlertRecord(sequence, timestamp, severity, sourceAddress, sourceName, rawDate, message);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Encoded Alert is incomplete!", e);
+        }
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Decodes the rest of an alert encoded by version 1, following its version.
+     * 
+     * @param buffer - The buffer holding the encoded alert as {@link ByteBuffer}
+     * @return Returns the decoded alert as {@link AlertRecord}
+     */
+    private static AlertRecord decodeAlert(ByteBuffer buffer) {
+        Alert alert = new Alert();
+        alert.setSeverity(buffer.getInt());
+        alert.setSourceAddress(get(buffer));
+        alert.setSourceName(get(buffer));
+        alert.setDate(get(buffer));
+        alert.setDateMask(get(buffer));
+        alert.setMessage(get(buffer));
+        
+        return AlertRecord.of(alert, LEGACY_DATES);
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * 
+     * @param value - A string to convert as {@link String}
+     * @return Returns the UTF-8 bytes of the value or null as <code>byte[]</code>
+     */
+    private static byte[] bytes(String value) {
+        
+        return (value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * 
+     * @param bytes - The bytes of a string as <code>byte[]</code>
+     * @return Returns the number of bytes the string occupies as <code>int</code>
+     */
+    private static int length(byte[] bytes) {
+        
+        return (bytes == null ? 0 : bytes.length);
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Writes the length prefixed bytes of a string.
+     * 
+     * @param buffer - Where to write as {@link ByteBuffer}
+     * @param bytes - The bytes of the string as <code>byte[]</code>
+     */
+    private static void put(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Reads a string written by {@link #put(ByteBuffer, byte[])}.
+     * 
+     * @param buffer - Where to read from as {@link ByteBuffer}, which may be a direct or mapped buffer
+     * @return Returns the string as {@link String}
+     */
+    private static String get(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) { // Null...
+            
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class detects duplicate alerts within a window of time.
+ * <p>
+ * Alerts with the same sourceName, severity and message share a fingerprint.
+ * The first alert with a given fingerprint opens a window; any more alerts
+ * with that fingerprint which arrive before the window closes are counted as
+ * duplicates instead of being sent. The next alert with that fingerprint to 
+ * arrive after the window has closed is sent, and opens a new window, and it 
+ * carries the count of duplicates from the previous window so the count can 
+ * be reported to the subscribers.
+ * <p>
+ * The number of fingerprints tracked is bounded. Once the bound is reached, the
+ * closed windows are purged to make room, though no more than once a second so
+ * a storm of new fingerprints doesn't scan the whole table for each alert. Until
+ * there is room, new fingerprints are simply not tracked, so their alerts go 
+ * out as usual.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class AlertDeduplicator {
+    public static final int DUPLICATE = -1;
+    
+    private static final long FULL_PURGE_INTERVAL_MILLIS = 1000L; // How often a full table may be scanned for room
+    
+    private final Map<String/*Fingerprint*/, Window> windows = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final int maxEntries;
+    private final AtomicLong nextFullPurgeMillis = new AtomicLong(0L);
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param windowMillis - The length of a window in milliseconds as <code>long</code>, zero disables deduplication
+     * @param maxEntries - The max number of fingerprints to track as <code>int</code>
+     */
+    public AlertDeduplicator(long windowMillis, int maxEntries) {
+        this.windowMillis = windowMillis;
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * Checks whether the given alert is a duplicate of one sent within the window.
+     * 
+     * @param alert - The alert to check as {@link AlertRecord}
+     * 
+     * @return Returns {@link #DUPLICATE} if the alert is a duplicate which should not be sent,
+     * otherwise returns the number of duplicates which were suppressed since the last alert with
+     * the same fingerprint was sent, as <code>int</code>
+     */
+    public int check(AlertRecord alert) {
+        if (windowMillis <= 0L) { // Disabled...
+            
+            return 0;
+        }
+        
+        long now = System.currentTimeMillis();
+        String key = fingerprint(alert);
+        Window current = windows.get(key);
+        if (current != null && now - current.startMillis < windowMillis) { // Within the window...
+            current.duplicates.incrementAndGet();
+            
+            return DUPLICATE;
+        }
+        
+        Window fresh = new Window(now);
+        if (current == null) { // First time seen...
+            if (windows.size() >= maxEntries) { // Make room, if it's been a while since the last try...
+                long next = nextFullPurgeMillis.get();
+                if (now >= next && nextFullPurgeMillis.compareAndSet(next, now + FULL_PURGE_INTERVAL_MILLIS)) { // This thread purges...
+                    purgeExpired(true);
+                }
+                if (windows.size() >= maxEntries) { // Still full; don't track it...
+                    
+                    return 0;
+                }
+            }
+            Window raced = windows.putIfAbsent(key, fresh);
+            if (raced != null) { // Another thread opened the window first...
+                raced.duplicates.incrementAndGet();
+                
+                return DUPLICATE;
+            }
+            
+            return 0;
+        }
+        
+        if (windows.replace(key, current, fresh)) { // Opened the next window...
+            
+            return current.duplicates.get();
+        }
+        Window raced = windows.get(key);
+        if (raced != null) { // Another thread opened the next window first...
+            raced.duplicates.incrementAndGet();
+            
+            return DUPLICATE;
+        }
+        
+        return 0;
+    }
+    
+    /**
+     * Stops tracking the fingerprint of the given alert, such as when the alert
+     * which opened its window could not be accepted after all.
+     * 
+     * @param alert - The alert whose fingerprint to forget as {@link AlertRecord}
+     */
+    public void forget(AlertRecord alert) {
+        if (windowMillis > 0L) {
+            windows.remove(fingerprint(alert));
+        }
+    }
+    
+    /**
+     * Removes the fingerprints whose windows have closed and which have no
+     * duplicates waiting to be reported. This is intended to be called 
+     * periodically, such as when the caller is idle.
+     */
+    public void purgeExpired() {
+        purgeExpired(false);
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Removes the fingerprints whose windows have closed.
+     * 
+     * @param dropUnreported - Whether to also remove windows whose duplicates have not been reported yet as <code>boolean</code>
+     */
+    private void purgeExpired(boolean dropUnreported) {
+        long now = System.currentTimeMillis();
+        windows.values().removeIf((w) -> now - w.startMillis >= windowMillis && (dropUnreported || w.duplicates.get() == 0));
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * 
+     * @param alert - The alert to fingerprint as {@link AlertRecord}
+     * @return Returns the fingerprint of the alert as {@link String}
+     */
+    private static String fingerprint(AlertRecord alert) {
+        
+        return SubscriptionIndex.normalize(alert.getSourceName()) + '\u0000' + alert.getSeverity() + '\u0000' + alert.getMessage();
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * A window which was opened by an alert that was sent.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class Window {
+        private final long startMillis;
+        private final AtomicInteger duplicates = new AtomicInteger(0);
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param startMillis - When the window opened as <code>long</code>
+         */
+        public Window(long startMillis) {
+            this.startMillis = startMillis;
+        }
+    }
+}
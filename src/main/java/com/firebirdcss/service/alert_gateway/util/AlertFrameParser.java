@@ -0,0 +1,213 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
+
+/**
+ * This class parses alerts sent over a raw socket, rather than as JSON
+ * over HTTP, straight out of the buffer they were received into.
+ * <p>
+ * Each alert is a frame, which is either a line ending with '\n' (a '\r'
+ * before it is ignored), or is length prefixed in the same way as syslog's
+ * octet counting: the length of the frame in bytes as decimal digits, a
+ * space, and then the frame itself. The two may be mixed on one connection.
+ * <p>
+ * A frame holds the fields of the alert separated by '|', in either of
+ * these forms:
+ * <pre>
+ * severity|sourceName|message
+ * severity|sourceName|date|dateMask|message
+ * </pre>
+ * The message is always the last field and is everything left in the frame,
+ * but a message holding a '|' must be sent in the long form. Empty fields are
+ * taken as missing. The sourceAddress of the alert is the address of the sender.
+ * <p>
+ * An instance holds a scratch buffer, so it is meant to be used by one thread.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class AlertFrameParser {
+    private static final byte SEPARATOR = '|';
+    private static final int MAX_LENGTH_DIGITS = 10;
+    
+    private final int maxFrameBytes;
+    private final byte[] scratch;
+    private final int[] separators = new int[4]; // At most four are needed
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param maxFrameBytes - The max size of a frame as <code>int</code>
+     */
+    public AlertFrameParser(int maxFrameBytes) {
+        this.maxFrameBytes = maxFrameBytes;
+        this.scratch = new byte[maxFrameBytes];
+    }
+    
+    /**
+     * Parses the complete frames between the position and limit of the given
+     * buffer, moving its position past them. A frame which isn't complete yet
+     * is left in the buffer, unless this is the end of the input, in which case
+     * a line without its '\n' is taken as complete.
+     *
+     * @param buffer - The received bytes as {@link ByteBuffer}
+     * @param endOfInput - True if no more bytes will follow, such as at the end of a datagram, as <code>boolean</code>
+     * @param sourceAddress - The address of the sender as {@link String}
+     * @param alerts - The list to add the parsed alerts to as {@link List} of {@link Alert}s
+     *
+     * @return Returns false if the bytes are not a valid frame, such as a frame longer
+     * than the max, in which case nothing more should be read from the sender,
+     * as <code>boolean</code>
+     */
+    public boolean parse(ByteBuffer buffer, boolean endOfInput, String sourceAddress, List<Alert> alerts) {
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            int limit = buffer.limit();
+            
+            /* Length prefixed frame */
+            int length = 0;
+            int digits = 0;
+            int i = start;
+            while (i < limit && digits <= MAX_LENGTH_DIGITS) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                length = (digits == MAX_LENGTH_DIGITS ? Integer.MAX_VALUE : length * 10 + (b - '0'));
+                digits++;
+                i++;
+            }
+            if (i == limit && digits > 0 && !endOfInput) { // Don't know which kind of frame yet...
+                
+                return (digits <= MAX_LENGTH_DIGITS);
+            }
+            if (digits > 0 && i < limit && buffer.get(i) == ' ') { // Octet counted...
+                if (length > maxFrameBytes || length < 0) { // Too long...
+                    
+                    return false;
+                }
+                int frameStart = i + 1;
+                if (limit - frameStart < length) { // Not all here yet...
+                    
+                    return !endOfInput;
+                }
+                parseFrame(buffer, frameStart, length, sourceAddress, alerts);
+                buffer.position(frameStart + length);
+                continue;
+            }
+            
+            /* Line */
+            int end = start;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            if (end == limit && !endOfInput) { // Not all here yet...
+                
+                return (end - start <= maxFrameBytes);
+            }
+            int frameLength = end - start;
+            if (frameLength > 0 && buffer.get(end - 1) == '\r') {
+                frameLength--;
+            }
+            if (frameLength > maxFrameBytes) { // Too long...
+                
+                return false;
+            }
+            if (frameLength > 0) { // Blank lines are skipped...
+                parseFrame(buffer, start, frameLength, sourceAddress, alerts);
+            }
+            buffer.position(Math.min(end + 1, limit));
+        }
+        
+        return true;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Parses the fields of a single frame into an alert.
+     *
+     * @param buffer - The received bytes as {@link ByteBuffer}
+     * @param start - The index of the frame in the buffer as <code>int</code>
+     * @param length - The length of the frame as <code>int</code>
+     * @param sourceAddress - The address of the sender as {@link String}
+     * @param alerts - The list to add the alert to as {@link List} of {@link Alert}s
+     */
+    private void parseFrame(ByteBuffer buffer, int start, int length, String sourceAddress, List<Alert> alerts) {
+        buffer.get(start, scratch, 0, length);
+        
+        /* Find the separators */
+        int count = 0;
+        for (int i = 0; i < length && count < separators.length; i++) {
+            if (scratch[i] == SEPARATOR) {
+                separators[count++] = i;
+            }
+        }
+        
+        Alert alert = new Alert();
+        alert.setSourceAddress(sourceAddress);
+        if (count < 2) { // Not enough fields; left for the Notifier to discard...
+            alert.setSeverity(null);
+            alerts.add(alert);
+            
+            return;
+        }
+        alert.setSeverity(parseSeverity(0, separators[0]));
+        alert.setSourceName(field(separators[0] + 1, separators[1]));
+        if (count == separators.length) { // Long form...
+            alert.setDate(field(separators[1] + 1, separators[2]));
+            alert.setDateMask(field(separators[2] + 1, separators[3]));
+            alert.setMessage(field(separators[3] + 1, length));
+        } else {
+            alert.setMessage(field(separators[1] + 1, length));
+        }
+        
+        alerts.add(alert);
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     *
+     * @param from - The index of the field in the scratch buffer as <code>int</code>
+     * @param to - The index just past the end of the field as <code>int</code>
+     * @return Returns the field as {@link String}, or null if it's empty
+     */
+    private String field(int from, int to) {
+        
+        return (to > from ? new String(scratch, from, to - from, StandardCharsets.UTF_8) : null);
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     *
+     * @param from - The index of the field in the scratch buffer as <code>int</code>
+     * @param to - The index just past the end of the field as <code>int</code>
+     * @return Returns the severity as {@link Integer}, or null if the field isn't a number
+     */
+    private Integer parseSeverity(int from, int to) {
+        if (to <= from || to - from > 2) { // Not a severity...
+            
+            return null;
+        }
+        
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = scratch[i];
+            if (b < '0' || b > '9') {
+                
+                return null;
+            }
+            value = value * 10 + (b - '0');
+        }
+        
+        return Integer.valueOf(value);
+    }
+}
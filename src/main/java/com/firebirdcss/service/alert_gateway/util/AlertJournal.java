@@ -0,0 +1,409 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+/**
+ * This class is a durable, segmented journal of accepted alerts, as {@link AlertRecord}s.
+ * <p>
+ * Alerts are appended to fixed size, memory mapped segment files. An append only
+ * copies the alert into the mapped segment; making it durable is a separate step, 
+ * {@link #commit(long)}, which is group committed: while one thread forces the 
+ * segment to disk, any other threads committing wait for it and are then covered
+ * by the next single force, so many concurrent appends share the cost of one sync.
+ * <p>
+ * Each record has a state byte which is flipped once the alert has been delivered.
+ * When every record in a full segment has been delivered, the segment is deleted.
+ * On startup the segments are replayed, and alerts which were not yet delivered are
+ * handed back to be queued again. Delivered states are not forced to disk right away, 
+ * so after a crash a few alerts may be delivered a second time, but none are lost.
+ * <p>
+ * Record layout: [int payloadLength][int crc32][byte state][payload]<br>
+ * A payloadLength of zero marks the end of the records in a segment.
+ * <p>
+ * Records are referred to by a <code>long</code> reference made up of the segment's
+ * id in the high 32 bits and the record's offset within the segment in the low 32 bits.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class AlertJournal {
+    private static final Logger log = LogManager.getLogger(AlertJournal.class);
+    
+    private static final String SEGMENT_PREFIX = "alerts-";
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final int HEADER_BYTES = 9;
+    private static final int STATE_OFFSET = 8;
+    private static final byte STATE_PENDING = 0;
+    private static final byte STATE_DELIVERED = 1;
+    
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final Path directory;
+    private final int segmentBytes;
+    
+    private final Object appendLock = new Object();
+    private Segment activeSegment = null;
+    private long lastAppendedRef = -1L;
+    
+    private final Object commitLock = new Object();
+    private long durableRef = -1L;
+    private boolean forcing = false;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param directory - The directory which holds the segment files as {@link String}
+     * @param segmentBytes - The size of each segment file in bytes as <code>int</code>
+     */
+    public AlertJournal(String directory, int segmentBytes) {
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+    }
+    
+    /**
+     * Opens the journal, handing each alert which has not yet been delivered
+     * to the given consumer along with its journal reference. Afterwards a new
+     * segment is started for the alerts which are yet to come.
+     * 
+     * @param consumer - Receives the undelivered {@link AlertRecord}s and their references as {@link BiConsumer}
+     * 
+     * @return Returns the number of undelivered alerts as <code>int</code>
+     * 
+     * @throws IOException Indicates a problem reading or creating the segment files.
+     */
+    public int open(BiConsumer<AlertRecord, Long> consumer) throws IOException {
+        synchronized (appendLock) {
+            Files.createDirectories(directory);
+            
+            /* Find existing segments, oldest first */
+            List<Integer> ids = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    try {
+                        ids.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        log.warn("Ignoring unexpected file in the alert journal directory: " + file);
+                    }
+                }
+            }
+            Collections.sort(ids);
+            
+            /* Replay them */
+            int undelivered = 0;
+            for (Integer id : ids) {
+                Segment segment = new Segment(id.intValue(), segmentFile(id.intValue()), segmentBytes);
+                segments.put(id, segment);
+                undelivered += segment.replay(consumer);
+                segment.seal();
+            }
+            
+            /* Start a fresh segment for new alerts */
+            activeSegment = newSegment(ids.isEmpty() ? 1 : ids.get(ids.size() - 1).intValue() + 1);
+            
+            return undelivered;
+        }
+    }
+    
+    /**
+     * Appends the given alert to the journal. The alert is not durable until
+     * {@link #commit(long)} has been called with the returned reference.
+     * 
+     * @param alert - The alert to append as {@link AlertRecord}
+     * @return Returns the journal reference of the alert as <code>long</code>
+     * 
+     * @throws IOException Indicates a problem with the segment files.
+     */
+    public long append(AlertRecord alert) throws IOException {
+        byte[] payload = AlertCodec.encode(alert);
+        if (HEADER_BYTES + payload.length + 4 > segmentBytes) { // Would never fit...
+            throw new IOException(String.format("An alert of %d bytes is too large for the alert journal!", payload.length));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        
+        synchronized (appendLock) {
+            if (!activeSegment.hasRoomFor(payload.length)) { // Roll to a new segment...
+                Segment full = activeSegment;
+                full.buffer.force();
+                activeSegment = newSegment(full.id + 1);
+                full.seal();
+            }
+            
+            lastAppendedRef = activeSegment.write(payload, (int) crc.getValue());
+            
+            return lastAppendedRef;
+        }
+    }
+    
+    /**
+     * Blocks until the alert with the given reference, along with everything
+     * appended before it, has been forced to disk. Concurrent callers are 
+     * covered by a single force of the segment.
+     * 
+     * @param ref - The reference of an appended alert as <code>long</code>
+     */
+    public void commit(long ref) {
+        boolean interrupted = false;
+        synchronized (commitLock) {
+            while (durableRef < ref) { // Not yet durable...
+                if (!forcing) { // Become the one who forces...
+                    forcing = true;
+                    
+                    break;
+                }
+                try {
+                    commitLock.wait();
+                } catch (InterruptedException e) { // Must not return before durable...
+                    interrupted = true;
+                }
+            }
+            if (interrupted) { // Restore the interrupt for the caller...
+                Thread.currentThread().interrupt();
+            }
+            if (durableRef >= ref) { // Was covered by someone else's force...
+                
+                return;
+            }
+        }
+        
+        /* Force everything appended so far; covers every waiting caller */
+        long target;
+        Segment segment;
+        synchronized (appendLock) {
+            target = lastAppendedRef;
+            segment = activeSegment;
+        }
+        try {
+            segment.buffer.force(); // Prior segments were forced when they were rolled
+        } finally {
+            synchronized (commitLock) {
+                durableRef = Math.max(durableRef, target);
+                forcing = false;
+                commitLock.notifyAll();
+            }
+        }
+    }
+    
+    /**
+     * Marks the alert with the given reference as delivered, which commits the
+     * progress of delivery so the alert won't be replayed on startup.
+     * 
+     * @param ref - The reference of an appended alert as <code>long</code>
+     */
+    public void markDelivered(long ref) {
+        Segment segment = segments.get(Integer.valueOf((int) (ref >>> 32)));
+        if (segment != null) { // Segment still exists...
+            segment.markDelivered((int) ref);
+        }
+    }
+    
+    /**
+     * Forces the active segment to disk, making the delivered states durable. This
+     * is intended to be called periodically, such as when the caller is idle.
+     */
+    public void flush() {
+        Segment segment;
+        synchronized (appendLock) {
+            segment = activeSegment;
+        }
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Creates and registers a new, empty segment.
+     * 
+     * @param id - The id of the new segment as <code>int</code>
+     * @return Returns the new segment as {@link Segment}
+     * 
+     * @throws IOException Indicates the segment file couldn't be created.
+     */
+    private Segment newSegment(int id) throws IOException {
+        Segment segment = new Segment(id, segmentFile(id), segmentBytes);
+        segments.put(Integer.valueOf(id), segment);
+        
+        return segment;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * 
+     * @param id - The id of a segment as <code>int</code>
+     * @return Returns the path of the segment's file as {@link Path}
+     */
+    private Path segmentFile(int id) {
+        
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * A single memory mapped segment file of the journal.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private class Segment {
+        private final int id;
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger pending = new AtomicInteger(0);
+        private final AtomicBoolean deleted = new AtomicBoolean(false);
+        private volatile boolean sealed = false;
+        private int writePosition = 0;
+        
+        /**
+         * CONSTRUCTOR:<br>
+         * Opens or creates the segment file and maps it.
+         *
+         * @param id - The id of the segment as <code>int</code>
+         * @param file - The segment file as {@link Path}
+         * @param size - The size of a new segment file as <code>int</code>
+         * 
+         * @throws IOException Indicates a problem opening or mapping the file.
+         */
+        public Segment(int id, Path file, int size) throws IOException {
+            this.id = id;
+            this.file = file;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long mapSize = Math.max(channel.size(), size);
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, mapSize); // Mapping outlives the channel
+            }
+        }
+        
+        /**
+         * @param payloadLength - The length of a payload as <code>int</code>
+         * @return Returns true if the payload fits, leaving room for the end marker, as <code>boolean</code>
+         */
+        public boolean hasRoomFor(int payloadLength) {
+            
+            return writePosition + HEADER_BYTES + payloadLength + 4 <= buffer.capacity();
+        }
+        
+        /**
+         * Writes a record to the segment. Callers must hold the append lock.
+         * 
+         * @param payload - The payload of the record as <code>byte[]</code>
+         * @param checksum - The checksum of the payload as <code>int</code>
+         * 
+         * @return Returns the reference to the record as <code>long</code>
+         */
+        public long write(byte[] payload, int checksum) {
+            int offset = writePosition;
+            buffer.put(offset + STATE_OFFSET, STATE_PENDING);
+            buffer.putInt(offset + 4, checksum);
+            buffer.put(offset + HEADER_BYTES, payload);
+            buffer.putInt(offset, payload.length); // Written last so a record is never seen half written
+            writePosition = offset + HEADER_BYTES + payload.length;
+            pending.incrementAndGet();
+            
+            return (((long) id) << 32) | (offset & 0xFFFFFFFFL);
+        }
+        
+        /**
+         * Reads back the records of the segment, handing the undelivered ones to the consumer.
+         * 
+         * @param consumer - Receives the undelivered {@link AlertRecord}s and their references as {@link BiConsumer}
+         * @return Returns the number of undelivered alerts as <code>int</code>
+         */
+        public int replay(BiConsumer<AlertRecord, Long> consumer) {
+            int undelivered = 0;
+            int offset = 0;
+            CRC32 crc = new CRC32();
+            while (offset + HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || offset + HEADER_BYTES + length > buffer.capacity()) { // End of records...
+                    
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(offset + HEADER_BYTES, length));
+                if ((int) crc.getValue() != buffer.getInt(offset + 4)) { // Torn write at the end...
+                    log.warn(String.format("Alert journal segment '%s' has a damaged record at offset %d; Ignoring the rest of it.", file, offset));
+                    
+                    break;
+                }
+                
+                if (buffer.get(offset + STATE_OFFSET) == STATE_PENDING) { // Not yet delivered...
+                    try {
+                        AlertRecord alert = AlertCodec.decode(buffer.slice(offset + HEADER_BYTES, length));
+                        pending.incrementAndGet();
+                        undelivered++;
+                        consumer.accept(alert, Long.valueOf((((long) id) << 32) | (offset & 0xFFFFFFFFL)));
+                    } catch (IllegalArgumentException e) {
+                        log.warn(String.format("Alert journal segment '%s' has an unreadable alert at offset %d; It was skipped.", file, offset));
+                    }
+                }
+                offset += HEADER_BYTES + length;
+            }
+            writePosition = offset;
+            
+            return undelivered;
+        }
+        
+        /**
+         * Marks the record at the given offset as delivered.
+         * 
+         * @param offset - The offset of the record as <code>int</code>
+         */
+        public void markDelivered(int offset) {
+            buffer.put(offset + STATE_OFFSET, STATE_DELIVERED);
+            if (pending.decrementAndGet() == 0 && sealed) { // Full and fully delivered...
+                delete();
+            }
+        }
+        
+        /**
+         * Marks this segment as no longer being appended to.
+         */
+        public void seal() {
+            sealed = true;
+            if (pending.get() == 0) { // Nothing left to deliver...
+                delete();
+            }
+        }
+        
+        /**
+         * PRIVATE METHOD:<br>
+         * Deletes the segment file, only once.
+         */
+        private void delete() {
+            if (deleted.compareAndSet(false, true)) {
+                segments.remove(Integer.valueOf(id));
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Unable to delete the fully delivered alert journal segment: " + file, e);
+                }
+            }
+        }
+    }
+}
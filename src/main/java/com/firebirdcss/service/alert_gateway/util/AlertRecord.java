@@ -0,0 +1,189 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.firebirdcss.service.alert_gateway.data.Settings;
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
+
+/**
+ * This class is the compact, immutable form in which an accepted {@link Alert}
+ * is held until it is delivered.
+ * <p>
+ * Alerts pile up by the tens of thousands during a storm, and almost all of
+ * them come from a handful of sources, so the sourceName and sourceAddress are
+ * interned and shared between records. The severity is kept as a <code>byte</code>
+ * and the date, already parsed using the alert's dateMask, as epoch milliseconds;
+ * the raw date string is only kept when it could not be parsed, in which case
+ * the timestamp is when the alert was received and the raw date is what should
+ * be shown for it. The dateMask is not kept at all.
+ * <p>
+ * Each record is given a sequence id when it is created, which increases
+ * monotonically for as long as the application runs.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public final class AlertRecord {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final StringInterner NAMES = new StringInterner(Settings.internedNamesMaxEntries); // Settings are loaded before any alert arrives
+    
+    private final long sequence;
+    private final long timestamp;
+    private final byte severity;
+    private final String sourceAddress;
+    private final String sourceName;
+    private final String rawDate; // Only when the date could not be parsed
+    private final String message;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param timestamp - When the alert occurred in epoch milliseconds as <code>long</code>
+     * @param severity - The severity of the alert as <code>int</code>
+     * @param sourceAddress - The address of the sending device as {@link String}
+     * @param sourceName - The friendly name of the sending device as {@link String}
+     * @param message - The alert message from the device as {@link String}
+     */
+    public AlertRecord(long timestamp, int severity, String sourceAddress, String sourceName, String message) {
+        this(-1L, timestamp, severity, sourceAddress, sourceName, null, message);
+    }
+    
+    /**
+     * CONSTRUCTOR:<br>
+     * Recreates a record which was given its sequence id earlier, such as one
+     * which was held encoded for a while.
+     *
+     * @param sequence - The sequence id the record was given as <code>long</code>
+     * @param timestamp - When the alert occurred in epoch milliseconds as <code>long</code>
+     * @param severity - The severity of the alert as <code>int</code>
+     * @param sourceAddress - The address of the sending device as {@link String}
+     * @param sourceName - The friendly name of the sending device as {@link String}
+     * @param message - The alert message from the device as {@link String}
+     */
+    public AlertRecord(long sequence, long timestamp, int severity, String sourceAddress, String sourceName, String message) {
+        this(sequence, timestamp, severity, sourceAddress, sourceName, null, message);
+    }
+    
+    /**
+     * CONSTRUCTOR:<br>
+     * Creates a record of an alert whose date may not have been parsed.
+     *
+     * @param sequence - The sequence id the record was given as <code>long</code>, or -1 to give it a new one
+     * @param timestamp - When the alert occurred, or was received if its date could not be parsed, 
+     * in epoch milliseconds as <code>long</code>
+     * @param severity - The severity of the alert as <code>int</code>
+     * @param sourceAddress - The address of the sending device as {@link String}
+     * @param sourceName - The friendly name of the sending device as {@link String}
+     * @param rawDate - The date as it was sent, if it could not be parsed, as {@link String}, otherwise null
+     * @param message - The alert message from the device as {@link String}
+     */
+    public AlertRecord(long sequence, long timestamp, int severity, String sourceAddress, String sourceName, String rawDate, String message) {
+        this.sequence = (sequence < 0L ? SEQUENCE.incrementAndGet() : sequence);
+        this.timestamp = timestamp;
+        this.severity = (byte) severity; // Severities are checked before a record is made, so this can't wrap
+        this.sourceAddress = NAMES.intern(sourceAddress);
+        this.sourceName = NAMES.intern(sourceName);
+        this.rawDate = rawDate;
+        this.message = message;
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Converts the given alert into a record.
+     *
+     * @param alert - The alert to convert, which must have a severity, as {@link Alert}
+     * @param timestamp - When the alert occurred in epoch milliseconds, as parsed from
+     * its date, as <code>long</code>
+     *
+     * @return Returns the record as {@link AlertRecord}
+     */
+    public static AlertRecord of(Alert alert, long timestamp) {
+        
+        return new AlertRecord(timestamp, alert.getSeverity().intValue(), alert.getSourceAddress(), alert.getSourceName(), alert.getMessage());
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Converts the given alert into a record, parsing its date using its dateMask.
+     * When the date is missing or can't be parsed the alert is taken to have 
+     * occurred now, and its raw date, if it has one, is kept to be shown instead.
+     *
+     * @param alert - The alert to convert, which must have a severity, as {@link Alert}
+     * @param dates - The parser of its date as {@link DateMaskParser}
+     *
+     * @return Returns the record as {@link AlertRecord}
+     */
+    public static AlertRecord of(Alert alert, DateMaskParser dates) {
+        long timestamp = dates.parse(alert.getDate(), alert.getDateMask());
+        if (timestamp != DateMaskParser.UNPARSED) { // The usual case...
+            
+            return of(alert, timestamp);
+        }
+        
+        String rawDate = (alert.getDate() == null || alert.getDate().isBlank() ? null : alert.getDate());
+        
+        return new AlertRecord(-1L, System.currentTimeMillis(), alert.getSeverity().intValue(), alert.getSourceAddress(), alert.getSourceName(), rawDate, alert.getMessage());
+    }
+    
+    /**
+     * @return Returns the sequence id of the record as <code>long</code>
+     */
+    public long getSequence() {
+        
+        return sequence;
+    }
+    
+    /**
+     * @return Returns when the alert occurred in epoch milliseconds as <code>long</code>
+     */
+    public long getTimestamp() {
+        
+        return timestamp;
+    }
+    
+    /**
+     * @return Returns the severity of the alert as <code>int</code>
+     */
+    public int getSeverity() {
+        
+        return severity;
+    }
+    
+    /**
+     * @return Returns the sourceAddress as {@link String}
+     */
+    public String getSourceAddress() {
+        
+        return sourceAddress;
+    }
+    
+    /**
+     * @return Returns the sourceName as {@link String}
+     */
+    public String getSourceName() {
+        
+        return sourceName;
+    }
+    
+    /**
+     * @return Returns the date as it was sent as {@link String}, or null if it
+     * was parsed into the timestamp or there wasn't one
+     */
+    public String getRawDate() {
+        
+        return rawDate;
+    }
+    
+    /**
+     * @return Returns the message as {@link String}
+     */
+    public String getMessage() {
+        
+        return message;
+    }
+}
@@ -0,0 +1,367 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeBodyPart;
+import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeMultipart;
+
+import com.firebirdcss.service.alert_gateway.endpoints.enums.MessageSeverity;
+
+/**
+ * This class renders alerts, as {@link AlertRecord}s, into email messages.
+ * <p>
+ * It holds the long-lived mail {@link Session} and the 'From' address, and 
+ * compiles the subject, plain text and optional HTML templates once, up front.
+ * Rendering an alert is then a matter of appending the literal parts of a 
+ * template and the alert's values into a buffer which each thread reuses.
+ * <p>
+ * Templates may contain the placeholders: ${sourceName}, ${sourceAddress},
+ * ${date}, ${severity} and ${message}. When an HTML template is given, the 
+ * values are HTML escaped and the message is sent with both a plain text 
+ * and an HTML part. The ${date} is when the alert occurred, as parsed from the
+ * alert's date and dateMask, written using the configured date format; a date 
+ * which could not be parsed is shown as it was sent.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class AlertRenderer {
+    private static final String CHARSET = "UTF-8";
+    private static final int INITIAL_BUFFER_CHARS = 512;
+    
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_CHARS));
+    private final Session session;
+    private final InternetAddress from;
+    private final DateTimeFormatter dateFormat;
+    private final Template subjectTemplate;
+    private final Template textTemplate;
+    private final Template htmlTemplate;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param session - The long-lived mail session as {@link Session}
+     * @param from - The address messages are from as {@link InternetAddress}, may be null if 
+     * the configured address is invalid in which case rendering will fail
+     * @param subjectTemplate - The template of the subject as {@link String}
+     * @param textTemplate - The template of the plain text body as {@link String}
+     * @param htmlTemplate - The template of the HTML body as {@link String}, may be null or 
+     * empty to send plain text only
+     * @param dateFormat - The format the ${date} is written in as {@link DateTimeFormatter}
+     */
+    public AlertRenderer(Session session, InternetAddress from, String subjectTemplate, String textTemplate, String htmlTemplate, DateTimeFormatter dateFormat) {
+        this.session = session;
+        this.from = from;
+        this.dateFormat = (dateFormat.getZone() == null ? dateFormat.withZone(ZoneId.systemDefault()) : dateFormat);
+        this.subjectTemplate = Template.compile(subjectTemplate);
+        this.textTemplate = Template.compile(textTemplate);
+        this.htmlTemplate = (htmlTemplate == null || htmlTemplate.isEmpty() ? null : Template.compile(htmlTemplate));
+    }
+    
+    /**
+     * Renders the given alert into a message to the given recipients.
+     * 
+     * @param alert - The alert to render as {@link AlertRecord}
+     * @param suppressedCount - The number of duplicates suppressed since the alert was last sent as <code>int</code>
+     * @param recipients - The recipients of the message as {@link Address}[]
+     * 
+     * @return Returns the message, ready to send, as {@link Message}
+     * 
+     * @throws MessagingException Indicates the message could not be built.
+     */
+    public Message render(AlertRecord alert, int suppressedCount, Address[] recipients) throws MessagingException {
+        MimeMessage message = newMessage();
+        message.setRecipients(Message.RecipientType.TO, recipients);
+        
+        String date = formatDate(alert);
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        subjectTemplate.appendTo(buffer, alert, date, false);
+        message.setSubject(buffer.toString(), CHARSET);
+        
+        buffer.setLength(0);
+        textTemplate.appendTo(buffer, alert, date, false);
+        appendRepeats(buffer, suppressedCount, false);
+        String text = buffer.toString();
+        
+        String html = null;
+        if (htmlTemplate != null) {
+            buffer.setLength(0);
+            htmlTemplate.appendTo(buffer, alert, date, true);
+            appendRepeats(buffer, suppressedCount, true);
+            html = buffer.toString();
+        }
+        setBody(message, text, html);
+        
+        return message;
+    }
+    
+    /**
+     * Renders the given alerts into a single digest message to the given recipient.
+     * Each alert is rendered using both the subject and the body templates.
+     * 
+     * @param recipient - The recipient of the digest as {@link Address}
+     * @param alerts - The alerts of the digest as {@link List} of {@link AlertRecord}s
+     * @param suppressedCounts - The number of duplicates suppressed for each alert, in the same order, as <code>int[]</code>
+     * 
+     * @return Returns the message, ready to send, as {@link Message}
+     * 
+     * @throws MessagingException Indicates the message could not be built.
+     */
+    public Message renderDigest(Address recipient, List<AlertRecord> alerts, int[] suppressedCounts) throws MessagingException {
+        MimeMessage message = newMessage();
+        message.setRecipients(Message.RecipientType.TO, new Address[] {recipient});
+        message.setSubject(String.format("Alert digest of %d Alerts", alerts.size()), CHARSET);
+        
+        String[] dates = new String[alerts.size()];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = formatDate(alerts.get(i));
+        }
+        
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        for (int i = 0; i < alerts.size(); i++) {
+            subjectTemplate.appendTo(buffer, alerts.get(i), dates[i], false);
+            buffer.append('\n');
+            textTemplate.appendTo(buffer, alerts.get(i), dates[i], false);
+            appendRepeats(buffer, suppressedCounts[i], false);
+            buffer.append("\n\n");
+        }
+        String text = buffer.toString();
+        
+        String html = null;
+        if (htmlTemplate != null) {
+            buffer.setLength(0);
+            for (int i = 0; i < alerts.size(); i++) {
+                buffer.append("<h3>");
+                subjectTemplate.appendTo(buffer, alerts.get(i), dates[i], true);
+                buffer.append("</h3>\n");
+                htmlTemplate.appendTo(buffer, alerts.get(i), dates[i], true);
+                appendRepeats(buffer, suppressedCounts[i], true);
+                buffer.append("\n<hr/>\n");
+            }
+            html = buffer.toString();
+        }
+        setBody(message, text, html);
+        
+        return message;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * 
+     * @return Returns a new message from the 'From' address as {@link MimeMessage}
+     * @throws MessagingException Indicates the 'From' address is invalid.
+     */
+    private MimeMessage newMessage() throws MessagingException {
+        if (from == null) { // Was invalid...
+            throw new MessagingException("The provided 'From' address is invalid! Please correct the 'From' address and bounce the application!");
+        }
+        
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(from);
+        
+        return message;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * 
+     * @param alert - The alert as {@link AlertRecord}
+     * @return Returns the date of the alert to show for ${date}, which is its raw date
+     * when that could not be parsed, as {@link String}
+     */
+    private String formatDate(AlertRecord alert) {
+        
+        return (alert.getRawDate() != null ? alert.getRawDate() : dateFormat.format(Instant.ofEpochMilli(alert.getTimestamp())));
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Sets the body of the message, as plain text alone or along with HTML.
+     * 
+     * @param message - The message as {@link MimeMessage}
+     * @param text - The plain text body as {@link String}
+     * @param html - The HTML body as {@link String}, or null for none
+     * 
+     * @throws MessagingException Indicates the body could not be set.
+     */
+    private static void setBody(MimeMessage message, String text, String html) throws MessagingException {
+        if (html == null) { // Plain text only...
+            message.setText(text, CHARSET);
+            
+            return;
+        }
+        
+        MimeBodyPart textPart = new MimeBodyPart();
+        textPart.setText(text, CHARSET);
+        MimeBodyPart htmlPart = new MimeBodyPart();
+        htmlPart.setContent(html, "text/html; charset=" + CHARSET);
+        
+        MimeMultipart alternatives = new MimeMultipart("alternative");
+        alternatives.addBodyPart(textPart);
+        alternatives.addBodyPart(htmlPart);
+        message.setContent(alternatives);
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Appends a note of how many duplicates were suppressed, if there were any.
+     * 
+     * @param buffer - Where to append as {@link StringBuilder}
+     * @param suppressedCount - The number of duplicates as <code>int</code>
+     * @param html - Whether the buffer holds HTML as <code>boolean</code>
+     */
+    private static void appendRepeats(StringBuilder buffer, int suppressedCount, boolean html) {
+        if (suppressedCount > 0) { // Report the duplicates which were not sent...
+            buffer
+                .append(html ? "<p>" : "\n\n")
+                .append("(This Alert was repeated ")
+                .append(suppressedCount)
+                .append(" more time(s) since it was last sent.)")
+                .append(html ? "</p>" : "")
+            ;
+        }
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * A compiled template; the literal text between the placeholders along with
+     * the field each placeholder stands for.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class Template {
+        private static final String[] PLACEHOLDERS = {"${sourceName}", "${sourceAddress}", "${date}", "${severity}", "${message}"};
+        private static final int SOURCE_NAME = 0;
+        private static final int SOURCE_ADDRESS = 1;
+        private static final int DATE = 2;
+        private static final int SEVERITY = 3;
+        private static final int MESSAGE = 4;
+        
+        private final String[] literals; // One more than there are fields
+        private final int[] fields;
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param literals - The literal parts as {@link String}[]
+         * @param fields - The field of each placeholder as <code>int[]</code>
+         */
+        private Template(String[] literals, int[] fields) {
+            this.literals = literals;
+            this.fields = fields;
+        }
+        
+        /**
+         * PRIVATE STATIC METHOD:<br>
+         * Compiles the given template text.
+         * 
+         * @param template - The template text as {@link String}
+         * @return Returns the compiled template as {@link Template}
+         */
+        private static Template compile(String template) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> fields = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int pos = 0;
+            while (pos < template.length()) {
+                int field = -1;
+                if (template.startsWith("${", pos)) { // Could be a placeholder...
+                    for (int i = 0; i < PLACEHOLDERS.length; i++) {
+                        if (template.startsWith(PLACEHOLDERS[i], pos)) {
+                            field = i;
+                            break;
+                        }
+                    }
+                }
+                
+                if (field < 0) { // Just text...
+                    literal.append(template.charAt(pos++));
+                } else {
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    fields.add(field);
+                    pos += PLACEHOLDERS[field].length();
+                }
+            }
+            literals.add(literal.toString());
+            
+            return new Template(literals.toArray(new String[literals.size()]), fields.stream().mapToInt(Integer::intValue).toArray());
+        }
+        
+        /**
+         * PRIVATE METHOD:<br>
+         * Appends the rendering of the given alert to the buffer.
+         * 
+         * @param buffer - Where to append as {@link StringBuilder}
+         * @param alert - The alert to render as {@link AlertRecord}
+         * @param date - When the alert occurred, already formatted, as {@link String}
+         * @param escapeHtml - Whether to HTML escape the alert's values as <code>boolean</code>
+         */
+        private void appendTo(StringBuilder buffer, AlertRecord alert, String date, boolean escapeHtml) {
+            for (int i = 0; i < fields.length; i++) {
+                buffer.append(literals[i]);
+                String value;
+                switch (fields[i]) {
+                    case SOURCE_NAME: value = alert.getSourceName(); break;
+                    case SOURCE_ADDRESS: value = alert.getSourceAddress(); break;
+                    case DATE: value = date; break;
+                    case SEVERITY: value = MessageSeverity.getName(alert.getSeverity()); break;
+                    default: value = alert.getMessage(); break;
+                }
+                if (escapeHtml) {
+                    appendEscaped(buffer, value);
+                } else {
+                    buffer.append(value);
+                }
+            }
+            buffer.append(literals[fields.length]);
+        }
+        
+        /**
+         * PRIVATE STATIC METHOD:<br>
+         * Appends the given value with the characters special to HTML escaped.
+         * 
+         * @param buffer - Where to append as {@link StringBuilder}
+         * @param value - The value to append as {@link String}
+         */
+        private static void appendEscaped(StringBuilder buffer, String value) {
+            if (value == null) {
+                buffer.append("null");
+                
+                return;
+            }
+            
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '&': buffer.append("&amp;"); break;
+                    case '<': buffer.append("&lt;"); break;
+                    case '>': buffer.append("&gt;"); break;
+                    case '"': buffer.append("&quot;"); break;
+                    case '\'': buffer.append("&#39;"); break;
+                    default: buffer.append(c); break;
+                }
+            }
+        }
+    }
+}
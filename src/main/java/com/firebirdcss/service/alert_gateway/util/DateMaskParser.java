@@ -0,0 +1,196 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
+
+/**
+ * This class parses the date of an {@link Alert} using its dateMask, providing
+ * the moment the alert occurred as epoch milliseconds.
+ * <p>
+ * A dateMask is a {@link DateTimeFormatter} pattern such as 'yyyyMMddHHmmss'.
+ * Senders tend to use the same few masks for every alert, so the compiled
+ * formatters are cached by mask. The cache is bounded; once it is full, masks
+ * it hasn't seen are compiled each time they are used rather than being kept.
+ * <p>
+ * A date which can't be parsed is logged, but only the first time it happens
+ * for each cached mask, so a sender with a wrong mask doesn't flood the log.
+ * Masks which didn't fit in the cache aren't logged at all, as there is nowhere
+ * to remember that they have been.
+ * <p>
+ * Dates without a time are taken to be at midnight, and dates without a zone
+ * or offset are taken to be in the system's default zone.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class DateMaskParser {
+    public static final long UNPARSED = Long.MIN_VALUE; // Returned when the date can't be parsed
+    
+    private static final Logger log = LogManager.getLogger(DateMaskParser.class);
+    private static final DateTimeFormatter INVALID = DateTimeFormatter.BASIC_ISO_DATE; // Stands in for masks that won't compile
+    
+    private final Map<String, Mask> masks = new ConcurrentHashMap<>();
+    private final AtomicBoolean warnedMissingMask = new AtomicBoolean(false);
+    private final int maxEntries;
+    private final ZoneId defaultZone = ZoneId.systemDefault();
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param maxEntries - The max number of compiled masks to cache as <code>int</code>
+     */
+    public DateMaskParser(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * Parses the given date using the given mask.
+     *
+     * @param date - The date to parse as {@link String}
+     * @param mask - The mask describing the format of the date as {@link String}
+     *
+     * @return Returns the date as epoch milliseconds, or {@link #UNPARSED} if the
+     * date or mask is missing or the date doesn't match the mask, as <code>long</code>
+     */
+    public long parse(String date, String mask) {
+        if (date == null || date.isBlank()) { // Nothing to parse...
+            
+            return UNPARSED;
+        }
+        if (mask == null || mask.isBlank()) { // Nothing to parse it with...
+            if (warnedMissingMask.compareAndSet(false, true)) {
+                log.warn(String.format("An Alert had the date '%s' but no dateMask to parse it with; Its date will be shown as it was sent. Further Alerts like it will not be logged.", date));
+            }
+            
+            return UNPARSED;
+        }
+        
+        Mask cached = masks.get(mask);
+        if (cached == null) { // Not cached...
+            cached = new Mask(compile(mask));
+            if (masks.size() < maxEntries) { // Room to keep it...
+                Mask existing = masks.putIfAbsent(mask, cached);
+                if (existing != null) {
+                    cached = existing;
+                }
+            } else { // Nowhere to remember it was logged...
+                cached.warned.set(true);
+            }
+        }
+        
+        if (cached.formatter == INVALID) { // Mask doesn't compile...
+            if (cached.warned.compareAndSet(false, true)) {
+                log.warn(String.format("The dateMask '%s' is not a valid pattern; Dates sent with it will be shown as they were sent. Further Alerts with it will not be logged.", mask));
+            }
+            
+            return UNPARSED;
+        }
+        
+        long parsed = parse(cached.formatter, date.trim());
+        if (parsed == UNPARSED && cached.warned.compareAndSet(false, true)) { // First mismatch of this mask...
+            log.warn(String.format("The date '%s' does not match its dateMask '%s'; It will be shown as it was sent. Further mismatches of this dateMask will not be logged.", date, mask));
+        }
+        
+        return parsed;
+    }
+    
+    /**
+     * @return Returns the number of cached masks as <code>int</code>
+     */
+    public int size() {
+        
+        return masks.size();
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Parses the given date using the given compiled mask.
+     *
+     * @param formatter - The compiled mask as {@link DateTimeFormatter}
+     * @param date - The date to parse as {@link String}
+     * @return Returns the date as epoch milliseconds, or {@link #UNPARSED} if it
+     * doesn't match, as <code>long</code>
+     */
+    private long parse(DateTimeFormatter formatter, String date) {
+        try {
+            TemporalAccessor parsed = formatter.parse(date);
+            if (parsed.isSupported(ChronoField.INSTANT_SECONDS)) { // Has a zone or offset...
+                
+                return Instant.from(parsed).toEpochMilli();
+            }
+            
+            LocalDate day = parsed.query(TemporalQueries.localDate());
+            if (day == null) { // A time alone isn't a moment...
+                
+                return UNPARSED;
+            }
+            LocalTime time = parsed.query(TemporalQueries.localTime());
+            
+            return day.atTime(time == null ? LocalTime.MIDNIGHT : time).atZone(defaultZone).toInstant().toEpochMilli();
+        } catch (DateTimeException e) { // Doesn't match the mask...
+            
+            return UNPARSED;
+        }
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Compiles the given mask.
+     *
+     * @param mask - The mask as {@link String}
+     * @return Returns the formatter as {@link DateTimeFormatter}, or {@link #INVALID}
+     * when the mask is not a valid pattern
+     */
+    private static DateTimeFormatter compile(String mask) {
+        try {
+            
+            return DateTimeFormatter.ofPattern(mask);
+        } catch (IllegalArgumentException e) { // Not a valid pattern...
+            
+            return INVALID;
+        }
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * A compiled mask, and whether a date it couldn't parse has been logged.
+     *
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class Mask {
+        private final DateTimeFormatter formatter;
+        private final AtomicBoolean warned = new AtomicBoolean(false);
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param formatter - The compiled mask as {@link DateTimeFormatter}, or {@link DateMaskParser#INVALID}
+         */
+        private Mask(DateTimeFormatter formatter) {
+            this.formatter = formatter;
+        }
+    }
+}
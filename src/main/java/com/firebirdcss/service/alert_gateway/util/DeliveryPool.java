@@ -0,0 +1,229 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.firebirdcss.service.alert_gateway.endpoints.enums.MessageSeverity;
+
+/**
+ * This class is a pool of delivery workers which is split into two lanes.
+ * <p>
+ * The standard lane is used by alerts of any severity, while the urgent lane
+ * is reserved for alerts with a severity of {@link MessageSeverity#CRITICAL} 
+ * or higher. This way a storm of low severity alerts can occupy every standard
+ * worker and the urgent alerts will still have workers available to them. Urgent
+ * alerts will also make use of an idle standard worker when their own lane is busy.
+ * <p>
+ * Each lane only accepts as much work as it has workers, so work which cannot 
+ * be placed remains with the caller, which is free to offer up something more
+ * important in the meantime.
+ * <p>
+ * The workers are either a fixed pool of platform threads, or, when virtual 
+ * threads are used, a new virtual thread for each delivery. In that case the 
+ * worker counts only bound how many deliveries may be in flight at once, and
+ * since a delivery blocked on the SMTP server doesn't hold on to a platform
+ * thread, they can be set far higher.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class DeliveryPool {
+    private static final Logger log = LogManager.getLogger(DeliveryPool.class);
+    
+    private final ExecutorService standardWorkers;
+    private final ExecutorService urgentWorkers;
+    private final Semaphore standardPermits;
+    private final Semaphore urgentPermits;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     * Creates the pool and its worker threads.
+     *
+     * @param name - The name used as a prefix for the worker thread names as {@link String}
+     * @param standardWorkerCount - The number of workers in the standard lane as <code>int</code>, must be at least 1
+     * @param urgentWorkerCount - The number of workers reserved for urgent alerts as <code>int</code>, may be 0
+     */
+    public DeliveryPool(String name, int standardWorkerCount, int urgentWorkerCount) {
+        this(name, standardWorkerCount, urgentWorkerCount, false);
+    }
+    
+    /**
+     * CONSTRUCTOR:<br>
+     * Creates the pool, with its workers optionally being virtual threads.
+     *
+     * @param name - The name used as a prefix for the worker thread names as {@link String}
+     * @param standardWorkerCount - The number of workers in the standard lane as <code>int</code>, must be at least 1
+     * @param urgentWorkerCount - The number of workers reserved for urgent alerts as <code>int</code>, may be 0
+     * @param virtual - Whether to run each delivery on its own virtual thread, when the running Java 
+     * has them, as <code>boolean</code>
+     */
+    public DeliveryPool(String name, int standardWorkerCount, int urgentWorkerCount, boolean virtual) {
+        ExecutorService standard = (virtual ? VirtualThreads.newPerTaskExecutor(name + "-Delivery-") : null);
+        ExecutorService urgent = (virtual && urgentWorkerCount > 0 ? VirtualThreads.newPerTaskExecutor(name + "-Urgent-") : null);
+        if (virtual && standard == null) { // Not available on this Java...
+            log.warn("Virtual threads are enabled but this Java doesn't have them; Deliveries run on platform threads.");
+        }
+        
+        this.standardWorkers = (standard != null ? standard : Executors.newFixedThreadPool(standardWorkerCount, new WorkerThreadFactory(name + "-Delivery")));
+        this.standardPermits = new Semaphore(standardWorkerCount);
+        this.urgentWorkers = (urgent != null || urgentWorkerCount <= 0 ? urgent : Executors.newFixedThreadPool(urgentWorkerCount, new WorkerThreadFactory(name + "-Urgent")));
+        this.urgentPermits = new Semaphore(urgentWorkerCount);
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Used to determine if the given severity is entitled to the reserved urgent capacity.
+     * 
+     * @param severity - The severity of an alert as <code>int</code>
+     * @return Returns true if urgent otherwise returns false as <code>boolean</code>
+     */
+    public static boolean isUrgent(int severity) {
+        
+        return severity >= MessageSeverity.CRITICAL.getValue().intValue();
+    }
+    
+    /**
+     * Hands the given delivery off to a worker from the lane which is appropriate
+     * for the given severity. If no worker is available the calling thread will
+     * wait up to waitMillis for one to free up.
+     * 
+     * @param severity - The severity of the alert being delivered as <code>int</code>
+     * @param delivery - The delivery work to perform as {@link Runnable}
+     * @param waitMillis - The max number of milliseconds to wait for a worker as <code>long</code>
+     * 
+     * @return Returns true if the delivery was handed off, or false if no worker became 
+     * available in time, as <code>boolean</code>
+     * 
+     * @throws InterruptedException Indicates the calling thread was interrupted while waiting.
+     */
+    public boolean dispatch(int severity, Runnable delivery, long waitMillis) throws InterruptedException {
+        if (isUrgent(severity)) { // Urgent may use either lane...
+            if (urgentWorkers != null && urgentPermits.tryAcquire()) { // Reserved worker is free...
+                
+                return execute(urgentWorkers, urgentPermits, delivery);
+            }
+            if (standardPermits.tryAcquire()) { // Borrow a standard worker...
+                
+                return execute(standardWorkers, standardPermits, delivery);
+            }
+            if (urgentWorkers != null && urgentPermits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) { // Waited for a reserved worker...
+                
+                return execute(urgentWorkers, urgentPermits, delivery);
+            }
+            if (urgentWorkers == null && standardPermits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) { // No reserved lane; waited for a standard one...
+                
+                return execute(standardWorkers, standardPermits, delivery);
+            }
+            
+            return false;
+        }
+        
+        if (standardPermits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) { // Standard worker is free...
+            
+            return execute(standardWorkers, standardPermits, delivery);
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Used to shutdown the worker threads. Deliveries which are already underway 
+     * are given up to awaitMillis to complete.
+     * 
+     * @param awaitMillis - The max number of milliseconds to wait for the workers as <code>long</code>
+     */
+    public void shutdown(long awaitMillis) {
+        standardWorkers.shutdown();
+        if (urgentWorkers != null) {
+            urgentWorkers.shutdown();
+        }
+        try {
+            long deadline = System.currentTimeMillis() + awaitMillis;
+            standardWorkers.awaitTermination(awaitMillis, TimeUnit.MILLISECONDS);
+            if (urgentWorkers != null) {
+                urgentWorkers.awaitTermination(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Executes the delivery on the given workers, returning the already acquired
+     * permit once the delivery completes.
+     * 
+     * @param workers - The workers of the lane as {@link ExecutorService}
+     * @param permits - The permits of the lane as {@link Semaphore}
+     * @param delivery - The delivery work to perform as {@link Runnable}
+     * 
+     * @return Returns true if the work was accepted as <code>boolean</code>
+     */
+    private boolean execute(ExecutorService workers, Semaphore permits, Runnable delivery) {
+        try {
+            workers.execute(() -> {
+                try {
+                    delivery.run();
+                } catch (RuntimeException e) {
+                    log.error("An unexpected exception occurred during an alert delivery: ", e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) { // Pool is shutting down...
+            permits.release();
+            
+            return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * Gives the worker threads of a lane recognizable names.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger(0);
+        private final String prefix;
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param prefix - The thread name prefix as {@link String}
+         */
+        public WorkerThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+        
+        /*
+         * (non-Javadoc)
+         * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+         */
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            
+            return t;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class collects items per recipient so they can be sent as a single
+ * digest rather than one at a time.
+ * <p>
+ * The first item added for a recipient opens a digest which stays open for 
+ * the given window. A digest is handed back to the caller as soon as it 
+ * reaches the max number of items, otherwise it is drained once its window 
+ * has closed.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ * @param <R> The type of the recipients
+ * @param <T> The type of the items being collected
+ */
+public class DigestBuffer<R, T> {
+    private static final long SCAN_INTERVAL_MILLIS = 1000L; // How often drainDue looks for closed windows
+    
+    private final Map<String/*Recipient*/, Digest<R, T>> digests = new ConcurrentHashMap<>();
+    private final int maxItems;
+    private volatile long nextScanMillis = 0L;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param maxItems - The number of items at which a digest is sent without waiting on its window as <code>int</code>
+     */
+    public DigestBuffer(int maxItems) {
+        this.maxItems = maxItems;
+    }
+    
+    /**
+     * Adds an item to the digest of the given recipient, opening a new digest
+     * if the recipient doesn't have one.
+     * 
+     * @param key - Identifies the recipient as {@link String}, compared without regard to case
+     * @param recipient - The recipient of the item as <code>R</code>
+     * @param windowMillis - How long a newly opened digest stays open in milliseconds as <code>long</code>
+     * @param item - The item to add as <code>T</code>
+     * 
+     * @return Returns the digest if it is now full and must be sent by the caller as {@link Digest},
+     * otherwise returns null.
+     */
+    public Digest<R, T> add(String key, R recipient, long windowMillis, T item) {
+        long now = System.currentTimeMillis();
+        Digest<R, T> digest = digests.compute(key.toLowerCase(), (k, d) -> {
+            if (d == null) { // Open a new digest...
+                d = new Digest<>(recipient, now + windowMillis);
+            }
+            d.items.add(item);
+            
+            return d;
+        });
+        
+        if (digest.items.size() >= maxItems && digests.remove(key.toLowerCase(), digest)) { // Full; caller sends it...
+            
+            return digest;
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Removes and returns the digests whose windows have closed. The digests
+     * are only looked through about once a second, so this is cheap to call 
+     * often. This is intended to be called by a single thread.
+     * 
+     * @return Returns the digests which are due to be sent as {@link List} of {@link Digest}s
+     */
+    public List<Digest<R, T>> drainDue() {
+        long now = System.currentTimeMillis();
+        if (now < nextScanMillis || digests.isEmpty()) { // Nothing to look for yet...
+            
+            return Collections.emptyList();
+        }
+        nextScanMillis = now + SCAN_INTERVAL_MILLIS;
+        
+        List<Digest<R, T>> due = new ArrayList<>();
+        digests.forEach((key, digest) -> {
+            if (digest.dueMillis <= now && digests.remove(key, digest)) { // Window has closed...
+                due.add(digest);
+            }
+        });
+        
+        return due;
+    }
+    
+    /**
+     * Removes and returns all of the digests regardless of their windows,
+     * such as when shutting down.
+     * 
+     * @return Returns all of the digests as {@link List} of {@link Digest}s
+     */
+    public List<Digest<R, T>> drainAll() {
+        List<Digest<R, T>> all = new ArrayList<>();
+        digests.forEach((key, digest) -> {
+            if (digests.remove(key, digest)) {
+                all.add(digest);
+            }
+        });
+        
+        return all;
+    }
+    
+    /**
+     * The items collected for a single recipient.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     * @param <R> The type of the recipient
+     * @param <T> The type of the items
+     */
+    public static class Digest<R, T> {
+        private final R recipient;
+        private final long dueMillis;
+        private final List<T> items = new ArrayList<>();
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param recipient - The recipient of the digest as <code>R</code>
+         * @param dueMillis - When the digest's window closes as <code>long</code>
+         */
+        private Digest(R recipient, long dueMillis) {
+            this.recipient = recipient;
+            this.dueMillis = dueMillis;
+        }
+        
+        /**
+         * @return Returns the recipient of the digest as <code>R</code>
+         */
+        public R getRecipient() {
+            
+            return recipient;
+        }
+        
+        /**
+         * @return Returns the items of the digest in the order they were added as {@link List}
+         */
+        public List<T> getItems() {
+            
+            return items;
+        }
+    }
+}
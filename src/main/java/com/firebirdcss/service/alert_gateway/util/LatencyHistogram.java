@@ -0,0 +1,166 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a histogram of latencies, in the style of an HDR histogram,
+ * which any number of threads may record into without locking.
+ * <p>
+ * Latencies are counted in log-linear buckets: each power of two of nanoseconds
+ * is split into {@value #SUB_BUCKETS} equal buckets, so a latency is always
+ * counted in a bucket no wider than about 6% of it, from nanoseconds up to
+ * over an hour, in a fixed array of a few hundred counts. Recording one takes
+ * a couple of bit operations and a single atomic increment.
+ * <p>
+ * Latencies past the range of the buckets are counted in the last bucket.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_VALUE_BITS = 42; // 2^42 nanoseconds is a little over 73 minutes
+    private static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sumNanos = new LongAdder();
+    
+    /**
+     * Records the given latency. This may be called by any thread.
+     *
+     * @param nanos - The latency in nanoseconds as <code>long</code>, negatives are taken as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts.incrementAndGet(Math.min(indexOf(value), BUCKET_COUNT - 1));
+        sumNanos.add(value);
+    }
+    
+    /**
+     * Records the time elapsed since the given start.
+     *
+     * @param startNanos - The start, from {@link System#nanoTime()}, as <code>long</code>
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+    
+    /**
+     * Counts the latencies recorded at or below each of the given bounds. A
+     * bucket is counted at a bound when all of it lies at or below the bound,
+     * so each count may miss latencies within a bucket's width of its bound.
+     *
+     * @param boundsNanos - The bounds in nanoseconds, in ascending order, as <code>long[]</code>
+     * @return Returns the cumulative count at each bound followed by the total
+     * count as <code>long[]</code>, one longer than the bounds
+     */
+    public long[] cumulativeCounts(long[] boundsNanos) {
+        long[] cumulative = new long[boundsNanos.length + 1];
+        int bound = 0;
+        long total = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long upper = upperOf(i);
+            while (bound < boundsNanos.length && upper - 1L > boundsNanos[bound]) { // Bucket lies past this bound...
+                cumulative[bound++] = total;
+            }
+            total += counts.get(i);
+        }
+        while (bound < boundsNanos.length) {
+            cumulative[bound++] = total;
+        }
+        cumulative[boundsNanos.length] = total;
+        
+        return cumulative;
+    }
+    
+    /**
+     * Estimates the latency at the given percentile, as the upper end of the
+     * bucket it falls into.
+     *
+     * @param percentile - The percentile, from 0 to 100, as <code>double</code>
+     * @return Returns the latency in nanoseconds as <code>long</code>, or zero if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0L) { // Nothing recorded...
+            
+            return 0L;
+        }
+        
+        long rank = Math.max(1L, (long) Math.ceil(total * Math.min(Math.max(percentile, 0.0D), 100.0D) / 100.0D));
+        long seen = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) { // Falls into this bucket...
+                
+                return upperOf(i) - 1L;
+            }
+        }
+        
+        return upperOf(BUCKET_COUNT - 1) - 1L;
+    }
+    
+    /**
+     * @return Returns the sum of the latencies recorded, in nanoseconds, as <code>long</code>
+     */
+    public long getSumNanos() {
+        
+        return sumNanos.sum();
+    }
+    
+    /**
+     * @return Returns the sum of the latencies recorded, in seconds, as <code>double</code>
+     */
+    public double getSumSeconds() {
+        
+        return (double) getSumNanos() / TimeUnit.SECONDS.toNanos(1L);
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param value - A latency in nanoseconds, not negative, as <code>long</code>
+     * @return Returns the index of the bucket it is counted in as <code>int</code>,
+     * which may be past the last bucket
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) { // Counted exactly...
+            
+            return (int) value;
+        }
+        
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param index - The index of a bucket as <code>int</code>
+     * @return Returns the least latency past the bucket, in nanoseconds, as <code>long</code>
+     */
+    private static long upperOf(int index) {
+        if (index < SUB_BUCKETS) { // Holds a single value...
+            
+            return index + 1L;
+        }
+        
+        int shift = index / SUB_BUCKETS - 1;
+        
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS + 1) << shift;
+    }
+}
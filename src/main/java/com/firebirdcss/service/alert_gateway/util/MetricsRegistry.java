@@ -0,0 +1,320 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.firebirdcss.service.alert_gateway.endpoints.enums.MessageSeverity;
+
+/**
+ * This class holds the metrics of the gateway and writes them out in the
+ * Prometheus text exposition format (version 0.0.4).
+ * <p>
+ * Metrics are cheap to update from any thread: counts by severity are kept in
+ * {@link LongAdder}s, latencies in {@link LatencyHistogram}s, and values the
+ * gateway already keeps elsewhere are read through a {@link LongSupplier} only
+ * when the metrics are written out. Nothing is locked while updating them.
+ * <p>
+ * All of the metrics must be registered up front, before they are written out.
+ * Metrics registered under the same name are written out as one family, which
+ * lets a family be split by a fixed label such as the result of an alert.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class MetricsRegistry {
+    private static final long[] LATENCY_BOUNDS_NANOS = toNanos(
+        0.001D, 0.0025D, 0.005D, 0.01D, 0.025D, 0.05D, 0.1D, 0.25D, 0.5D,
+        1.0D, 2.5D, 5.0D, 10.0D, 30.0D, 60.0D, 300.0D
+    );
+    private static final String[] LATENCY_BOUND_LABELS = {
+        "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1", "0.25", "0.5",
+        "1", "2.5", "5", "10", "30", "60", "300"
+    };
+    
+    private final Map<String, Family> families = new LinkedHashMap<>();
+    
+    /**
+     * Registers a counter which is kept by severity.
+     *
+     * @param name - The name of the metric as {@link String}
+     * @param help - The description of the metric as {@link String}
+     * @param labels - Labels which set this counter apart from the others of its name,
+     * such as <code>result="accepted"</code>, as {@link String}, or null if none
+     *
+     * @return Returns the counter as {@link SeverityCounter}
+     */
+    public synchronized SeverityCounter severityCounter(String name, String help, String labels) {
+        SeverityCounter counter = new SeverityCounter();
+        family(name, help, "counter").series.add((out) -> counter.write(out, name, labels));
+        
+        return counter;
+    }
+    
+    /**
+     * Registers a gauge which is kept by severity.
+     *
+     * @param name - The name of the metric as {@link String}
+     * @param help - The description of the metric as {@link String}
+     *
+     * @return Returns the gauge as {@link SeverityCounter}
+     */
+    public synchronized SeverityCounter severityGauge(String name, String help) {
+        SeverityCounter gauge = new SeverityCounter();
+        family(name, help, "gauge").series.add((out) -> gauge.write(out, name, null));
+        
+        return gauge;
+    }
+    
+    /**
+     * Registers a counter whose value is kept elsewhere.
+     *
+     * @param name - The name of the metric as {@link String}
+     * @param help - The description of the metric as {@link String}
+     * @param value - Reads the value when the metrics are written out as {@link LongSupplier}
+     */
+    public synchronized void counter(String name, String help, LongSupplier value) {
+        family(name, help, "counter").series.add((out) -> out.append(name).append(' ').append(value.getAsLong()).append('\n'));
+    }
+    
+    /**
+     * Registers a gauge whose value is kept elsewhere.
+     *
+     * @param name - The name of the metric as {@link String}
+     * @param help - The description of the metric as {@link String}
+     * @param value - Reads the value when the metrics are written out as {@link LongSupplier}
+     */
+    public synchronized void gauge(String name, String help, LongSupplier value) {
+        family(name, help, "gauge").series.add((out) -> out.append(name).append(' ').append(value.getAsLong()).append('\n'));
+    }
+    
+    /**
+     * Registers a histogram of latencies, which is written out in seconds.
+     *
+     * @param name - The name of the metric, which should end in <code>_seconds</code>, as {@link String}
+     * @param help - The description of the metric as {@link String}
+     *
+     * @return Returns the histogram as {@link LatencyHistogram}
+     */
+    public synchronized LatencyHistogram histogram(String name, String help) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        family(name, help, "histogram").series.add((out) -> writeHistogram(out, name, histogram));
+        
+        return histogram;
+    }
+    
+    /**
+     * Writes out every metric, in the order they were registered.
+     *
+     * @return Returns the metrics in the Prometheus text exposition format as {@link String}
+     */
+    public synchronized String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            Family family = entry.getValue();
+            out.append("# HELP ").append(entry.getKey()).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(entry.getKey()).append(' ').append(family.type).append('\n');
+            family.series.forEach((series) -> series.write(out));
+        }
+        
+        return out.toString();
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Provides the family of the given name, creating it the first time.
+     *
+     * @param name - The name of the metric as {@link String}
+     * @param help - The description of the metric as {@link String}
+     * @param type - The Prometheus type of the metric as {@link String}
+     *
+     * @return Returns the family as {@link Family}
+     */
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, (n) -> new Family(help, type));
+        if (!family.type.equals(type)) { // Would write out a broken family...
+            throw new IllegalArgumentException("The metric '" + name + "' is already registered as a " + family.type + "!");
+        }
+        
+        return family;
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Writes out the buckets, sum and count of the given histogram.
+     *
+     * @param out - Where to write as {@link StringBuilder}
+     * @param name - The name of the metric as {@link String}
+     * @param histogram - The histogram as {@link LatencyHistogram}
+     */
+    private static void writeHistogram(StringBuilder out, String name, LatencyHistogram histogram) {
+        long[] cumulative = histogram.cumulativeCounts(LATENCY_BOUNDS_NANOS);
+        for (int i = 0; i < LATENCY_BOUND_LABELS.length; i++) {
+            out.append(name).append("_bucket{le=\"").append(LATENCY_BOUND_LABELS[i]).append("\"} ").append(cumulative[i]).append('\n');
+        }
+        long count = cumulative[LATENCY_BOUND_LABELS.length];
+        out.append(name).append("_bucket{le=\"+Inf\"} ").append(count).append('\n');
+        out.append(name).append("_sum ").append(histogram.getSumSeconds()).append('\n');
+        out.append(name).append("_count ").append(count).append('\n');
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param seconds - Durations in seconds as <code>double...</code>
+     * @return Returns the durations in nanoseconds as <code>long[]</code>
+     */
+    private static long[] toNanos(double... seconds) {
+        long[] nanos = new long[seconds.length];
+        for (int i = 0; i < seconds.length; i++) {
+            nanos[i] = Math.round(seconds[i] * TimeUnit.SECONDS.toNanos(1L));
+        }
+        
+        return nanos;
+    }
+    
+    /**
+     * A count kept for each severity, which may be used as a counter or as a
+     * gauge. Severities which aren't known are kept together under a severity
+     * of <code>UNKNOWN</code>.
+     *
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    public static class SeverityCounter {
+        private static final int UNKNOWN_SLOT = 0; // No severity has the value zero
+        private static final int MAX_SEVERITY = MessageSeverity.EMERGENCY.getValue().intValue();
+        
+        private final LongAdder[] counts = new LongAdder[MAX_SEVERITY + 1];
+        
+        /**
+         * PRIVATE CONSTRUCTOR:<br>
+         * Created by registering it with a {@link MetricsRegistry}.
+         */
+        private SeverityCounter() {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+        
+        /**
+         * Adds one to the count of the given severity.
+         *
+         * @param severity - The severity as {@link Integer}, may be null
+         */
+        public void increment(Integer severity) {
+            counts[slotOf(severity)].increment();
+        }
+        
+        /**
+         * Takes one from the count of the given severity; for gauges only.
+         *
+         * @param severity - The severity as {@link Integer}, may be null
+         */
+        public void decrement(Integer severity) {
+            counts[slotOf(severity)].decrement();
+        }
+        
+        /**
+         * @param severity - The severity as {@link Integer}, may be null
+         * @return Returns the count of the given severity as <code>long</code>
+         */
+        public long get(Integer severity) {
+            
+            return counts[slotOf(severity)].sum();
+        }
+        
+        /**
+         * PRIVATE METHOD:<br>
+         * Writes out the count of each known severity, and of the unknown ones
+         * when there are any.
+         *
+         * @param out - Where to write as {@link StringBuilder}
+         * @param name - The name of the metric as {@link String}
+         * @param labels - The other labels as {@link String}, or null if none
+         */
+        private void write(StringBuilder out, String name, String labels) {
+            for (int i = 0; i < counts.length; i++) {
+                String severity = MessageSeverity.getName(Integer.valueOf(i));
+                long count = counts[i].sum();
+                if (severity == null && count == 0L) { // Nothing unknown to report...
+                    continue;
+                }
+                out.append(name).append("{severity=\"").append(severity == null ? "UNKNOWN" : severity).append('"');
+                if (labels != null) {
+                    out.append(',').append(labels);
+                }
+                out.append("} ").append(count).append('\n');
+            }
+        }
+        
+        /**
+         * PRIVATE STATIC METHOD:<br>
+         *
+         * @param severity - The severity as {@link Integer}, may be null
+         * @return Returns the slot its count is kept in as <code>int</code>
+         */
+        private static int slotOf(Integer severity) {
+            if (severity == null || severity.intValue() < 0 || severity.intValue() > MAX_SEVERITY) { // Not known...
+                
+                return UNKNOWN_SLOT;
+            }
+            
+            return severity.intValue();
+        }
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * The metrics written out under one name.
+     *
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class Family {
+        private final String help;
+        private final String type;
+        private final List<Series> series = new ArrayList<>();
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param help - The description of the metric as {@link String}
+         * @param type - The Prometheus type of the metric as {@link String}
+         */
+        private Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * Writes out the samples of one registered metric.
+     *
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private interface Series {
+        
+        /**
+         * @param out - Where to write as {@link StringBuilder}
+         */
+        void write(StringBuilder out);
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Codec;
+import com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Lane;
+
+/**
+ * This class is a lane of a {@link SeverityLaneQueue} which holds its items
+ * encoded in direct memory, outside of the heap.
+ * <p>
+ * The lane is a chain of chunks of direct memory. Items are encoded and appended
+ * to the last chunk as length prefixed records, and a new chunk is chained on
+ * once the last one is full. Only the item at the head of the lane is decoded,
+ * and only once it is looked at, so the heap holds at most one item per lane
+ * no matter how deep the lane gets. A chunk which has been fully taken from is
+ * kept as a spare for the next time one is needed, so a lane which is kept busy
+ * doesn't keep allocating direct memory.
+ * <p>
+ * Adding to the lane is serialized by a lock, but the lock is only held while
+ * copying the encoded record into the chunk. The consumer never takes the lock;
+ * a record becomes visible to it once the chunk's published position is moved
+ * past it.
+ * <p>
+ * Record layout: [int payloadLength][long enqueuedNanos][payload]
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ * @param <T> The type of the items
+ */
+class OffHeapLane<T> implements Lane<T> {
+    private static final int RECORD_HEADER_BYTES = 12;
+    
+    private final int chunkBytes;
+    private final Codec<T> codec;
+    private final Object appendLock = new Object();
+    private final AtomicReference<Chunk> spare = new AtomicReference<>();
+    private Chunk tail; // Guarded by appendLock
+    private Chunk head; // Only touched by the consumer
+    private int readPosition = 0; // Only touched by the consumer
+    private T peeked = null; // The decoded head; only touched by the consumer
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param chunkBytes - The size of the chunks of direct memory as <code>int</code>
+     * @param codec - Encodes and decodes the items as {@link Codec}
+     */
+    OffHeapLane(int chunkBytes, Codec<T> codec) {
+        this.chunkBytes = chunkBytes;
+        this.codec = codec;
+        this.head = new Chunk(chunkBytes);
+        this.tail = head;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Lane#offer(java.lang.Object)
+     */
+    @Override
+    public void offer(T item) {
+        byte[] payload = codec.encode(item);
+        int recordBytes = RECORD_HEADER_BYTES + payload.length;
+        synchronized (appendLock) {
+            Chunk chunk = tail;
+            int position = chunk.published;
+            if (chunk.buffer.capacity() - position < recordBytes) { // Chain on a new chunk...
+                Chunk next = (recordBytes <= chunkBytes ? spare.getAndSet(null) : null);
+                if (next == null) {
+                    next = new Chunk(Math.max(chunkBytes, recordBytes));
+                }
+                chunk.next = next; // The consumer moves on once it has taken what's here
+                tail = next;
+                chunk = next;
+                position = 0;
+            }
+            
+            ByteBuffer buffer = chunk.buffer;
+            buffer.putInt(position, payload.length);
+            buffer.putLong(position + 4, System.nanoTime());
+            buffer.put(position + RECORD_HEADER_BYTES, payload);
+            chunk.published = position + recordBytes; // Visible to the consumer from here on
+        }
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Lane#hasHead()
+     */
+    @Override
+    public boolean hasHead() {
+        
+        return (peeked != null || advance());
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Lane#headEnqueuedNanos()
+     */
+    @Override
+    public long headEnqueuedNanos() {
+        
+        return head.buffer.getLong(readPosition + 4);
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Lane#peek()
+     */
+    @Override
+    public T peek() {
+        if (peeked == null && advance()) { // Decode the head...
+            int length = head.buffer.getInt(readPosition);
+            peeked = codec.decode(head.buffer.slice(readPosition + RECORD_HEADER_BYTES, length));
+        }
+        
+        return peeked;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * @see com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Lane#poll()
+     */
+    @Override
+    public T poll() {
+        T item = peek();
+        if (item != null) {
+            readPosition += RECORD_HEADER_BYTES + head.buffer.getInt(readPosition);
+            peeked = null;
+        }
+        
+        return item;
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Moves past the chunks which have been fully taken from.
+     *
+     * @return Returns true if there is a record at the read position as <code>boolean</code>
+     */
+    private boolean advance() {
+        while (true) {
+            Chunk next = head.next; // Read first; once it is set nothing more is published to the head
+            if (readPosition < head.published) { // There is a record...
+                
+                return true;
+            }
+            if (next == null) { // Empty...
+                
+                return false;
+            }
+            
+            Chunk taken = head;
+            head = next;
+            readPosition = 0;
+            if (taken.buffer.capacity() == chunkBytes) { // Keep it for reuse...
+                taken.next = null;
+                taken.published = 0;
+                spare.set(taken);
+            }
+        }
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * A chunk of direct memory holding records.
+     *
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class Chunk {
+        private final ByteBuffer buffer;
+        private volatile int published = 0; // End of the records visible to the consumer
+        private volatile Chunk next = null;
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param bytes - The size of the chunk as <code>int</code>
+         */
+        private Chunk(int bytes) {
+            this.buffer = ByteBuffer.allocateDirect(bytes);
+        }
+    }
+}
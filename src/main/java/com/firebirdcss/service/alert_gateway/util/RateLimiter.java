@@ -0,0 +1,221 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class limits the rate at which alerts are taken from each key, such as
+ * each sourceName, using a token bucket per key.
+ * <p>
+ * A bucket holds up to 'burst' tokens and is refilled at 'perMinute' tokens a
+ * minute; each alert takes a token, and an alert which finds the bucket empty
+ * is limited. The bucket is kept as a single <code>long</code>, the time at
+ * which it will next be full, which is updated with a compare-and-set, so
+ * checking the limit takes no locks and threads only contend when they check
+ * the same key at the same moment.
+ * <p>
+ * A token taken for an alert which ends up not being accepted for some other
+ * reason may be handed back with {@link #release(String)}.
+ * <p>
+ * Limited alerts are counted per key, so they can be summarized rather than
+ * reported one at a time. The number of keys tracked is bounded. Once the
+ * bound is reached, the full buckets are purged, at most once a second, and
+ * keys which still don't fit share one of a fixed set of overflow buckets,
+ * picked by the hash of the key. Those keys are limited together with the
+ * others in their bucket, and their limited alerts are reported under
+ * {@value #OVERFLOW_KEY}.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class RateLimiter {
+    public static final String OVERFLOW_KEY = "(untracked)";
+    
+    private static final int OVERFLOW_BUCKETS = 64; // Must be a power of two
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1L); // How often a full map may be scanned for room
+    
+    private final Map<String/*Key*/, Bucket> buckets = new ConcurrentHashMap<>();
+    private final long intervalNanos; // Time to earn one token
+    private final long burstNanos; // Time to earn a full bucket, less one token
+    private final int maxEntries;
+    private final LongAdder limited = new LongAdder();
+    private final Bucket[] overflow = new Bucket[OVERFLOW_BUCKETS];
+    private final AtomicLong nextPurgeNanos;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param perMinute - The number of alerts allowed per minute as <code>int</code>, zero disables limiting
+     * @param burst - The number of alerts which may arrive at once as <code>int</code>
+     * @param maxEntries - The max number of keys to track as <code>int</code>
+     */
+    public RateLimiter(int perMinute, int burst, int maxEntries) {
+        this.intervalNanos = (perMinute <= 0 ? 0L : TimeUnit.MINUTES.toNanos(1L) / perMinute);
+        this.burstNanos = intervalNanos * (Math.max(burst, 1) - 1);
+        this.maxEntries = maxEntries;
+        
+        long now = System.nanoTime();
+        for (int i = 0; i < overflow.length; i++) {
+            overflow[i] = new Bucket(now);
+        }
+        this.nextPurgeNanos = new AtomicLong(now);
+    }
+    
+    /**
+     * Takes a token from the bucket of the given key.
+     *
+     * @param key - The key as {@link String}, may be null in which case it isn't limited
+     * @return Returns true if a token was taken, or false if the alert is limited as <code>boolean</code>
+     */
+    public boolean tryAcquire(String key) {
+        if (intervalNanos <= 0L || key == null) { // Not limited...
+            
+            return true;
+        }
+        
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) { // New key...
+            if (buckets.size() >= maxEntries) { // Make room...
+                long next = nextPurgeNanos.get();
+                if (now - next >= 0L && nextPurgeNanos.compareAndSet(next, now + PURGE_INTERVAL_NANOS)) { // This thread purges...
+                    buckets.values().removeIf((b) -> b.fullNanos.get() - now <= 0L && b.limited.get() == 0L);
+                }
+            }
+            if (buckets.size() < maxEntries) { // Room to track it...
+                bucket = buckets.computeIfAbsent(key, (k) -> new Bucket(now));
+            } else { // Shares a bucket...
+                bucket = overflowBucket(key);
+            }
+        }
+        
+        while (true) {
+            long full = bucket.fullNanos.get();
+            long start = (full - now > 0L ? full : now); // A full bucket doesn't hold more than its burst
+            if (start - now > burstNanos) { // Empty...
+                bucket.limited.incrementAndGet();
+                limited.increment();
+                
+                return false;
+            }
+            if (bucket.fullNanos.compareAndSet(full, start + intervalNanos)) { // Took a token...
+                
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Hands back a token which was taken from the bucket of the given key by
+     * {@link #tryAcquire(String)}, for an alert which was not accepted after all.
+     *
+     * @param key - The key as {@link String}, may be null in which case nothing was taken
+     */
+    public void release(String key) {
+        if (intervalNanos <= 0L || key == null) { // Nothing was taken...
+            
+            return;
+        }
+        
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) { // Was taken from a shared bucket...
+            bucket = overflowBucket(key);
+        }
+        bucket.fullNanos.addAndGet(-intervalNanos); // Falling behind now only means the bucket is full
+    }
+    
+    /**
+     * Takes the counts of the alerts limited for each key since the last time
+     * this was called, clearing them. The alerts limited in the overflow buckets
+     * are counted together under {@value #OVERFLOW_KEY}.
+     *
+     * @return Returns the counts by key as {@link Map}, empty if none were limited
+     */
+    public Map<String, Long> drainLimited() {
+        Map<String, Long> counts = new HashMap<>();
+        buckets.forEach((key, bucket) -> {
+            long count = bucket.limited.getAndSet(0L);
+            if (count > 0L) {
+                counts.put(key, count);
+            }
+        });
+        long overflowCount = 0L;
+        for (Bucket bucket : overflow) {
+            overflowCount += bucket.limited.getAndSet(0L);
+        }
+        if (overflowCount > 0L) {
+            counts.merge(OVERFLOW_KEY, overflowCount, Long::sum);
+        }
+        
+        return counts;
+    }
+    
+    /**
+     * @return Returns the total number of alerts limited as <code>long</code>
+     */
+    public long getLimited() {
+        
+        return limited.sum();
+    }
+    
+    /**
+     * @return Returns the number of seconds until a limited key earns its next token,
+     * at most, as <code>int</code>
+     */
+    public int getRetryAfterSeconds() {
+        
+        return (int) Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(intervalNanos + TimeUnit.SECONDS.toNanos(1L) - 1L));
+    }
+    
+    /**
+     * @return Returns true if limiting is enabled as <code>boolean</code>
+     */
+    public boolean isEnabled() {
+        
+        return (intervalNanos > 0L);
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     *
+     * @param key - The key as {@link String}
+     * @return Returns the overflow bucket the key shares as {@link Bucket}
+     */
+    private Bucket overflowBucket(String key) {
+        int hash = key.hashCode();
+        
+        return overflow[(hash ^ (hash >>> 16)) & (OVERFLOW_BUCKETS - 1)];
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * The token bucket of a key.
+     *
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class Bucket {
+        private final AtomicLong fullNanos; // When the bucket will be full again, from System.nanoTime()
+        private final AtomicLong limited = new AtomicLong(0L);
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param nowNanos - The current time from {@link System#nanoTime()} as <code>long</code>
+         */
+        private Bucket(long nowNanos) {
+            this.fullNanos = new AtomicLong(nowNanos);
+        }
+    }
+}
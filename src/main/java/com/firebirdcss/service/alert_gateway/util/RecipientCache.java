@@ -0,0 +1,309 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.mail.internet.InternetAddress;
+
+import com.firebirdcss.service.alert_gateway.endpoints.enums.MessageSeverity;
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+
+/**
+ * This class caches the resolved recipients of alerts by their sourceName 
+ * and severity.
+ * <p>
+ * Resolving the recipients of an alert means looking up its subscriptions,
+ * splitting off the ones that want the alert in a digest, and gathering the 
+ * parsed email addresses of the rest. Most alerts come from a handful of sources
+ * at a few severities, so the result is kept and reused.
+ * <p>
+ * Each entry is tagged with the version of the {@link SubscriptionSnapshot} it
+ * was resolved from, so any change to the subscriptions invalidates every entry
+ * without the cache having to be told; a stale entry is simply resolved again
+ * the next time it is asked for. The first lookup made with a newer snapshot
+ * empties the cache, since none of its entries can be used any more, and
+ * lookups still made with an older snapshot are not cached.
+ * <p>
+ * Once the cache is full, each miss evicts a single entry to make room, so the
+ * cost of a miss stays the same no matter how large the cache is. Only the
+ * known severities are cached; lookups for any other severity are resolved
+ * every time.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class RecipientCache {
+    private static final int MIN_SEVERITY = MessageSeverity.TEST.getValue().intValue();
+    private static final int MAX_SEVERITY = MessageSeverity.EMERGENCY.getValue().intValue();
+    
+    private final Map<Key, Recipients> cache = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong version = new AtomicLong(Long.MIN_VALUE); // Of the newest snapshot seen
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param maxEntries - The max number of sourceName and severity pairs to cache as <code>int</code>
+     */
+    public RecipientCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * Provides the recipients of alerts with the given sourceName and severity.
+     * 
+     * @param snapshot - The current subscriptions as {@link SubscriptionSnapshot}
+     * @param sourceName - The sourceName of the alert as {@link String}
+     * @param severity - The severity of the alert as <code>int</code>
+     * 
+     * @return Returns the recipients as {@link Recipients}
+     */
+    public Recipients resolve(SubscriptionSnapshot snapshot, String sourceName, int severity) {
+        Key key = new Key(SubscriptionIndex.normalize(sourceName), severity);
+        Recipients recipients = cache.get(key);
+        if (recipients != null && recipients.version == snapshot.getVersion()) { // Still current...
+            hits.increment();
+            
+            return recipients;
+        }
+        
+        misses.increment();
+        recipients = build(snapshot, sourceName, severity);
+        if (severity < MIN_SEVERITY || severity > MAX_SEVERITY) { // Not worth keeping...
+            
+            return recipients;
+        }
+        
+        long seen = version.get();
+        if (snapshot.getVersion() < seen) { // Resolved from an older snapshot, so it would only replace a current entry...
+            
+            return recipients;
+        }
+        if (snapshot.getVersion() > seen && version.compareAndSet(seen, snapshot.getVersion())) { // Everything cached is stale...
+            cache.clear();
+        }
+        if (cache.size() >= maxEntries) { // Make room...
+            Iterator<Recipients> entries = cache.values().iterator();
+            if (entries.hasNext()) {
+                entries.next();
+                entries.remove();
+            }
+        }
+        cache.put(key, recipients);
+        
+        return recipients;
+    }
+    
+    /**
+     * @return Returns the number of lookups answered from the cache as <code>long</code>
+     */
+    public long getHits() {
+        
+        return hits.sum();
+    }
+    
+    /**
+     * @return Returns the number of lookups that had to be resolved as <code>long</code>
+     */
+    public long getMisses() {
+        
+        return misses.sum();
+    }
+    
+    /**
+     * @return Returns the number of entries in the cache as <code>int</code>
+     */
+    public int size() {
+        
+        return cache.size();
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Checks whether the given subscription wants alerts of the given severity 
+     * in a digest. CRITICAL and EMERGENCY alerts are never put in a digest.
+     * 
+     * @param sub - The subscription as {@link Subscription}
+     * @param severity - The severity of the alert as <code>int</code>
+     * 
+     * @return Returns true if the alert belongs in a digest as <code>boolean</code>
+     */
+    public static boolean isDigested(Subscription sub, int severity) {
+        
+        return (
+            sub.getDigestSeverity() != null
+            && severity < sub.getDigestSeverity().intValue()
+            && severity < MessageSeverity.CRITICAL.getValue().intValue()
+        );
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Resolves the recipients from the subscriptions.
+     * 
+     * @param snapshot - The current subscriptions as {@link SubscriptionSnapshot}
+     * @param sourceName - The sourceName of the alert as {@link String}
+     * @param severity - The severity of the alert as <code>int</code>
+     * 
+     * @return Returns the recipients as {@link Recipients}
+     */
+    private Recipients build(SubscriptionSnapshot snapshot, String sourceName, int severity) {
+        Subscription[] subs = snapshot.lookup(sourceName, severity);
+        List<InternetAddress> addresses = new ArrayList<>(subs.length);
+        List<Subscription> digested = new ArrayList<>();
+        List<InternetAddress> digestAddresses = new ArrayList<>();
+        for (Subscription sub : subs) {
+            InternetAddress address = snapshot.getAddress(sub);
+            if (address == null) { // Invalid email; was reported when loaded...
+                continue;
+            }
+            if (isDigested(sub, severity)) { // Collected for a digest...
+                digested.add(sub);
+                digestAddresses.add(address);
+            } else {
+                addresses.add(address);
+            }
+        }
+        
+        return new Recipients(
+            snapshot.getVersion(), 
+            addresses.toArray(new InternetAddress[addresses.size()]), 
+            digested.toArray(new Subscription[digested.size()]),
+            digestAddresses.toArray(new InternetAddress[digestAddresses.size()]),
+            subs.length
+        );
+    }
+    
+    /**
+     * The resolved recipients of alerts with a given sourceName and severity.
+     * Instances are shared and must not be modified.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    public static class Recipients {
+        private final long version;
+        private final InternetAddress[] addresses;
+        private final Subscription[] digestSubscriptions;
+        private final InternetAddress[] digestAddresses;
+        private final int subscriptionCount;
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param version - The version of the subscriptions these were resolved from as <code>long</code>
+         * @param addresses - The parsed addresses of the recipients to send to right away as {@link InternetAddress}[]
+         * @param digestSubscriptions - The subscriptions which want the alerts in a digest as {@link Subscription}[]
+         * @param digestAddresses - The parsed addresses of the digestSubscriptions, in the same order, as {@link InternetAddress}[]
+         * @param subscriptionCount - The number of matching subscriptions as <code>int</code>
+         */
+        private Recipients(long version, InternetAddress[] addresses, Subscription[] digestSubscriptions, InternetAddress[] digestAddresses, int subscriptionCount) {
+            this.version = version;
+            this.addresses = addresses;
+            this.digestSubscriptions = digestSubscriptions;
+            this.digestAddresses = digestAddresses;
+            this.subscriptionCount = subscriptionCount;
+        }
+        
+        /**
+         * @return Returns the addresses of the recipients to send to right away as {@link InternetAddress}[],
+         * the returned array must not be modified.
+         */
+        public InternetAddress[] getAddresses() {
+            
+            return addresses;
+        }
+        
+        /**
+         * @return Returns the subscriptions which want the alerts in a digest as {@link Subscription}[],
+         * the returned array must not be modified.
+         */
+        public Subscription[] getDigestSubscriptions() {
+            
+            return digestSubscriptions;
+        }
+        
+        /**
+         * @return Returns the parsed addresses of the digest subscriptions, in the same order, 
+         * as {@link InternetAddress}[], the returned array must not be modified.
+         */
+        public InternetAddress[] getDigestAddresses() {
+            
+            return digestAddresses;
+        }
+        
+        /**
+         * @return Returns the number of matching subscriptions as <code>int</code>
+         */
+        public int getSubscriptionCount() {
+            
+            return subscriptionCount;
+        }
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * The key of a cache entry.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class Key {
+        private final String sourceName;
+        private final int severity;
+        private final int hash;
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param sourceName - The normalized sourceName as {@link String}
+         * @param severity - The severity as <code>int</code>
+         */
+        private Key(String sourceName, int severity) {
+            this.sourceName = sourceName;
+            this.severity = severity;
+            this.hash = 31 * sourceName.hashCode() + severity;
+        }
+        
+        /*
+         * (non-Javadoc)
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            
+            return hash;
+        }
+        
+        /*
+         * (non-Javadoc)
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                
+                return false;
+            }
+            Key other = (Key) obj;
+            
+            return (severity == other.severity && sourceName.equals(other.sourceName));
+        }
+    }
+}
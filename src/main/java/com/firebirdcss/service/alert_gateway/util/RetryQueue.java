@@ -0,0 +1,136 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class holds items which failed and are to be tried again later, each
+ * until its own backoff has passed.
+ * <p>
+ * The backoff doubles with each attempt, starting from the initial backoff,
+ * up to the max backoff. Items may be scheduled by any thread, and are drained
+ * once they are due by a single thread.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ * @param <T> The type of the items being retried
+ */
+public class RetryQueue<T> {
+    private final DelayQueue<Entry<T>> entries = new DelayQueue<>();
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param initialBackoffMillis - How long to wait before the first retry as <code>long</code>
+     * @param maxBackoffMillis - The longest to wait before any retry as <code>long</code>
+     */
+    public RetryQueue(long initialBackoffMillis, long maxBackoffMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoffMillis);
+    }
+    
+    /**
+     * Schedules the given item to be retried once the backoff for the given
+     * attempt has passed.
+     *
+     * @param item - The item as <code>T</code>
+     * @param attempt - The number of times the item has failed so far, from 1, as <code>int</code>
+     *
+     * @return Returns the backoff in milliseconds as <code>long</code>
+     */
+    public long schedule(T item, int attempt) {
+        long backoff = getBackoffMillis(attempt);
+        entries.add(new Entry<>(item, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff)));
+        
+        return backoff;
+    }
+    
+    /**
+     * Removes and returns the items whose backoffs have passed. This is intended
+     * to be called by a single thread.
+     *
+     * @return Returns the items which are due to be retried as {@link List}
+     */
+    public List<T> drainDue() {
+        List<T> due = new ArrayList<>();
+        for (Entry<T> entry = entries.poll(); entry != null; entry = entries.poll()) {
+            due.add(entry.item);
+        }
+        
+        return due;
+    }
+    
+    /**
+     * @return Returns the number of items waiting to be retried as <code>int</code>
+     */
+    public int size() {
+        
+        return entries.size();
+    }
+    
+    /**
+     * @param attempt - The number of times an item has failed so far, from 1, as <code>int</code>
+     * @return Returns how long to wait before retrying it, in milliseconds, as <code>long</code>
+     */
+    public long getBackoffMillis(int attempt) {
+        int doublings = Math.min(Math.max(attempt, 1) - 1, 30); // Well past any sane max backoff
+        
+        return Math.min(maxBackoffMillis, initialBackoffMillis << doublings);
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * An item along with when it is due.
+     *
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     * @param <T> The type of the item
+     */
+    private static class Entry<T> implements Delayed {
+        private final T item;
+        private final long dueNanos;
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param item - The item as <code>T</code>
+         * @param dueNanos - When it is due, from {@link System#nanoTime()}, as <code>long</code>
+         */
+        private Entry(T item, long dueNanos) {
+            this.item = item;
+            this.dueNanos = dueNanos;
+        }
+        
+        /*
+         * (non-Javadoc)
+         * @see java.util.concurrent.Delayed#getDelay(java.util.concurrent.TimeUnit)
+         */
+        @Override
+        public long getDelay(TimeUnit unit) {
+            
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+        
+        /*
+         * (non-Javadoc)
+         * @see java.lang.Comparable#compareTo(java.lang.Object)
+         */
+        @Override
+        public int compareTo(Delayed other) {
+            
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
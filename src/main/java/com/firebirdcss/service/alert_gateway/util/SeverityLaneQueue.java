@@ -0,0 +1,361 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import com.firebirdcss.service.alert_gateway.endpoints.enums.MessageSeverity;
+
+/**
+ * This class is a queue made up of one FIFO lane per {@link MessageSeverity}.
+ * <p>
+ * Any number of threads may add to the queue, and doing so is lock-free and 
+ * takes constant time; each lane is a linked list whose tail is swapped in 
+ * with a single atomic operation. Only a single thread may take from the queue.
+ * <p>
+ * The lanes are taken from in strict priority, most severe first, and within
+ * a lane in the order the items were added. Optionally the head of a lane which
+ * has waited longer than the aging time is taken ahead of the more severe lanes,
+ * so a steady stream of severe items can't starve the others forever.
+ * <p>
+ * Taking from the queue is done in two steps: {@link #selectLane()} picks the lane
+ * to take from next and {@link #peek(int)} shows its head, which is only removed 
+ * by {@link #poll(int)}. This lets the consumer leave an item in place, at the 
+ * head of its lane, when it can't be handled right now.
+ * <p>
+ * The lanes either hold the items on the heap, or, when the queue is created
+ * with a {@link Codec}, hold them encoded in direct memory outside of the heap 
+ * (see {@link OffHeapLane}). Off-heap lanes keep the heap flat no matter how 
+ * deep the queue gets, at the cost of encoding each item when it is added and
+ * decoding it when it reaches the head of its lane.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ * @param <T> The type of the items in the queue
+ */
+public class SeverityLaneQueue<T> {
+    private static final int MIN_SEVERITY = MessageSeverity.TEST.getValue().intValue();
+    private static final int MAX_SEVERITY = MessageSeverity.EMERGENCY.getValue().intValue();
+    
+    private final Lane<T>[] lanes;
+    private final long agingNanos;
+    private volatile Thread waiter = null; // The consumer while it is parked
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param agingMillis - How long the head of a lane may wait before it is taken ahead 
+     * of the more severe lanes as <code>long</code>, zero for strict priority
+     */
+    public SeverityLaneQueue(long agingMillis) {
+        this(agingMillis, 0, null);
+    }
+    
+    /**
+     * CONSTRUCTOR:<br>
+     * Creates a queue whose items are held encoded outside of the heap.
+     *
+     * @param agingMillis - How long the head of a lane may wait before it is taken ahead 
+     * of the more severe lanes as <code>long</code>, zero for strict priority
+     * @param chunkBytes - The size of the blocks of direct memory the lanes are made of as <code>int</code>
+     * @param codec - Encodes and decodes the items as {@link Codec}, or null to hold the items on the heap
+     */
+    @SuppressWarnings("unchecked")
+    public SeverityLaneQueue(long agingMillis, int chunkBytes, Codec<T> codec) {
+        this.agingNanos = TimeUnit.MILLISECONDS.toNanos(agingMillis);
+        this.lanes = new Lane[MAX_SEVERITY - MIN_SEVERITY + 1];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = (codec == null ? new LinkedLane<>() : new OffHeapLane<>(chunkBytes, codec));
+        }
+    }
+    
+    /**
+     * Adds the given item to the end of the lane for the given severity. Severities
+     * outside of the known range go into the nearest lane. This may be called by any
+     * thread.
+     * 
+     * @param severity - The severity of the item as <code>int</code>
+     * @param item - The item to add as <code>T</code>
+     */
+    public void offer(int severity, T item) {
+        int lane = Math.min(Math.max(severity, MIN_SEVERITY), MAX_SEVERITY) - MIN_SEVERITY;
+        lanes[lane].offer(item);
+        
+        Thread consumer = waiter;
+        if (consumer != null) { // Wake it up...
+            LockSupport.unpark(consumer);
+        }
+    }
+    
+    /**
+     * Picks the lane to take from next. This may only be called by the consumer.
+     * 
+     * @return Returns the lane as <code>int</code>, or -1 if the queue is empty
+     */
+    public int selectLane() {
+        int selected = -1;
+        for (int i = lanes.length - 1; i >= 0; i--) {
+            if (lanes[i].hasHead()) { // Most severe lane with something in it...
+                selected = i;
+                break;
+            }
+        }
+        
+        if (agingNanos > 0L && selected > 0) { // Look for an aged head in the less severe lanes...
+            long now = System.nanoTime();
+            long oldestWait = agingNanos;
+            for (int i = selected - 1; i >= 0; i--) {
+                if (lanes[i].hasHead() && now - lanes[i].headEnqueuedNanos() >= oldestWait) { // Has waited long enough...
+                    oldestWait = now - lanes[i].headEnqueuedNanos();
+                    selected = i;
+                }
+            }
+        }
+        
+        return selected;
+    }
+    
+    /**
+     * Shows the head of the given lane without removing it. This may only be 
+     * called by the consumer.
+     * 
+     * @param lane - The lane as <code>int</code>, as returned by {@link #selectLane()}
+     * @return Returns the head of the lane as <code>T</code>, or null if it is empty
+     */
+    public T peek(int lane) {
+        
+        return lanes[lane].peek();
+    }
+    
+    /**
+     * Removes and returns the head of the given lane. This may only be called by the consumer.
+     * 
+     * @param lane - The lane as <code>int</code>, as returned by {@link #selectLane()}
+     * @return Returns the head of the lane as <code>T</code>, or null if it is empty
+     */
+    public T poll(int lane) {
+        
+        return lanes[lane].poll();
+    }
+    
+    /**
+     * Waits for the queue to have something in it. This may only be called by the consumer.
+     * 
+     * @param timeoutMillis - The max time to wait as <code>long</code>
+     * @return Returns true if the queue has something in it as <code>boolean</code>
+     * 
+     * @throws InterruptedException Indicates the consumer was interrupted while waiting.
+     */
+    public boolean await(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        waiter = Thread.currentThread(); // Set before checking so an offer can't slip by...
+        try {
+            while (selectLane() < 0) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) { // Timed out...
+                    
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            waiter = null;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Encodes items to and from bytes, so a queue can hold them outside of the heap.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     * @param <T> The type of the items
+     */
+    public interface Codec<T> {
+        
+        /**
+         * Encodes the given item.
+         * 
+         * @param item - The item to encode as <code>T</code>
+         * @return Returns the encoded item as <code>byte[]</code>
+         */
+        byte[] encode(T item);
+        
+        /**
+         * Decodes an item.
+         * 
+         * @param buffer - Holds exactly the bytes of one encoded item as {@link ByteBuffer}
+         * @return Returns the decoded item as <code>T</code>
+         */
+        T decode(ByteBuffer buffer);
+    }
+    
+    /**
+     * A multi-producer, single-consumer FIFO lane of the queue. Only {@link #offer(Object)}
+     * may be called by any thread; the rest may only be called by the consumer.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     * @param <T> The type of the items
+     */
+    interface Lane<T> {
+        
+        /**
+         * Adds the given item to the end of the lane.
+         * 
+         * @param item - The item to add as <code>T</code>
+         */
+        void offer(T item);
+        
+        /**
+         * @return Returns true if the lane has something in it as <code>boolean</code>
+         */
+        boolean hasHead();
+        
+        /**
+         * @return Returns when the head of the lane was added, from {@link System#nanoTime()}, 
+         * as <code>long</code>; only valid when {@link #hasHead()}
+         */
+        long headEnqueuedNanos();
+        
+        /**
+         * @return Returns the head of the lane as <code>T</code>, or null if it is empty
+         */
+        T peek();
+        
+        /**
+         * Takes the head of the lane.
+         * 
+         * @return Returns the item as <code>T</code>, or null if empty
+         */
+        T poll();
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * A node of a lane's linked list.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     * @param <T> The type of the item
+     */
+    private static class Node<T> {
+        private T item;
+        private final long enqueuedNanos;
+        private volatile Node<T> next = null;
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param item - The item as <code>T</code>
+         * @param enqueuedNanos - When the item was added as <code>long</code>
+         */
+        private Node(T item, long enqueuedNanos) {
+            this.item = item;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * A lock-free multi-producer, single-consumer FIFO linked list. The head is
+     * a node whose item has already been taken, so the list is empty when the 
+     * head has no next node.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     * @param <T> The type of the items
+     */
+    private static class LinkedLane<T> implements Lane<T> {
+        private Node<T> head; // Only touched by the consumer
+        private final AtomicReference<Node<T>> tail;
+        
+        /**
+         * CONSTRUCTOR:<br>
+         */
+        private LinkedLane() {
+            Node<T> stub = new Node<>(null, 0L);
+            this.head = stub;
+            this.tail = new AtomicReference<>(stub);
+        }
+        
+        /*
+         * (non-Javadoc)
+         * @see com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Lane#offer(java.lang.Object)
+         */
+        @Override
+        public void offer(T item) {
+            Node<T> node = new Node<>(item, System.nanoTime());
+            Node<T> previous = tail.getAndSet(node);
+            previous.next = node; // Visible to the consumer from here on
+        }
+        
+        /*
+         * (non-Javadoc)
+         * @see com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Lane#hasHead()
+         */
+        @Override
+        public boolean hasHead() {
+            
+            return (head.next != null);
+        }
+        
+        /*
+         * (non-Javadoc)
+         * @see com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Lane#headEnqueuedNanos()
+         */
+        @Override
+        public long headEnqueuedNanos() {
+            
+            return head.next.enqueuedNanos;
+        }
+        
+        /*
+         * (non-Javadoc)
+         * @see com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Lane#peek()
+         */
+        @Override
+        public T peek() {
+            Node<T> next = head.next;
+            
+            return (next == null ? null : next.item);
+        }
+        
+        /*
+         * (non-Javadoc)
+         * @see com.firebirdcss.service.alert_gateway.util.SeverityLaneQueue.Lane#poll()
+         */
+        @Override
+        public T poll() {
+            Node<T> next = head.next;
+            if (next == null) { // Empty...
+                
+                return null;
+            }
+            
+            T item = next.item;
+            next.item = null; // Becomes the new head; don't hold on to the item
+            head = next;
+            
+            return item;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+/**
+ * This class is a pool of connected and authenticated SMTP {@link Transport}s.
+ * <p>
+ * Opening a {@link Transport} involves a TCP connection, a SSL handshake and
+ * authentication, which costs more than sending a message over it. This pool
+ * keeps transports open between sends so that they can be shared by the 
+ * delivery threads. A transport is validated with a NOOP before it is reused
+ * when it has been idle for a while, and it is retired after it has sent a 
+ * given number of messages or has been idle for too long.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class SmtpTransportPool {
+    private static final Logger log = LogManager.getLogger(SmtpTransportPool.class);
+    
+    private static final long VALIDATE_AFTER_MILLIS = 2000L; // Idle time after which a NOOP is done before reuse
+    
+    private final BlockingDeque<PooledTransport> idleTransports = new LinkedBlockingDeque<>();
+    
+    private final Session session;
+    private final String user;
+    private final String password;
+    private final int maxIdle;
+    private final int maxMessages;
+    private final long idleTimeoutMillis;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     * Used to provide the pool with the information it needs to open transports.
+     *
+     * @param session - The mail session used to create the transports, its properties specify 
+     * the SMTP server to connect to, as {@link Session}
+     * @param user - The SMTP user as {@link String}
+     * @param password - The SMTP password as {@link String}
+     * @param maxIdle - The max number of open transports kept in the pool as <code>int</code>
+     * @param maxMessages - The number of messages after which a transport is retired as <code>int</code>
+     * @param idleTimeoutMillis - The number of idle milliseconds after which a transport is retired as <code>long</code>
+     */
+    public SmtpTransportPool(Session session, String user, String password, int maxIdle, int maxMessages, long idleTimeoutMillis) {
+        this.session = session;
+        this.user = user;
+        this.password = password;
+        this.maxIdle = maxIdle;
+        this.maxMessages = maxMessages;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+    
+    /**
+     * Sends the given message using a pooled transport. If a pooled transport
+     * turns out to have been dropped by the server the message is retried 
+     * once on a freshly opened transport.
+     * 
+     * @param message - The message to send as {@link Message}
+     * 
+     * @throws MessagingException Indicates the message could not be sent.
+     */
+    public void send(Message message) throws MessagingException {
+        message.saveChanges(); // Transport.send() does this for us, sendMessage() does not...
+        
+        PooledTransport pooled = borrow();
+        try {
+            pooled.send(message);
+        } catch (MessagingException e) {
+            pooled.close();
+            if (!pooled.isFresh() && !(e instanceof SendFailedException)) { // May have been closed server side while pooled...
+                log.debug("A pooled SMTP transport failed; Retrying on a new one: " + e.getMessage());
+                pooled = open();
+                try {
+                    pooled.send(message);
+                } catch (MessagingException e2) {
+                    pooled.close();
+                    
+                    throw e2;
+                }
+            } else {
+                
+                throw e;
+            }
+        }
+        
+        release(pooled);
+    }
+    
+    /**
+     * Closes transports which have been idle for longer than the idle timeout.
+     * This is intended to be called periodically, such as when the caller is idle.
+     */
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        int count = idleTransports.size();
+        for (int i = 0; i < count; i++) {
+            PooledTransport pooled = idleTransports.pollLast(); // Oldest are at the back...
+            if (pooled == null) { // Emptied by a borrower...
+                
+                break;
+            }
+            if (now - pooled.lastUsedMillis >= idleTimeoutMillis) { // Idle too long...
+                pooled.close();
+            } else { // Still good; put back and stop, the rest are newer...
+                idleTransports.offerLast(pooled);
+                
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Closes all of the idle transports in the pool.
+     */
+    public void close() {
+        PooledTransport pooled;
+        while ((pooled = idleTransports.pollFirst()) != null) {
+            pooled.close();
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Takes a reusable transport from the pool or opens a new one if none
+     * are available.
+     * 
+     * @return Returns a connected transport as {@link PooledTransport}
+     * 
+     * @throws MessagingException Indicates a new transport could not be opened.
+     */
+    private PooledTransport borrow() throws MessagingException {
+        long now = System.currentTimeMillis();
+        PooledTransport pooled;
+        while ((pooled = idleTransports.pollFirst()) != null) { // Most recently used first...
+            if (
+                pooled.messagesSent < maxMessages
+                && now - pooled.lastUsedMillis < idleTimeoutMillis
+                && (now - pooled.lastUsedMillis < VALIDATE_AFTER_MILLIS || pooled.transport.isConnected() /*Sends a NOOP*/)
+            ) { // Transport is reusable...
+                
+                return pooled;
+            }
+            pooled.close();
+        }
+        
+        return open();
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Returns a transport to the pool, or closes it if it has reached its
+     * message limit or the pool is already full.
+     * 
+     * @param pooled - The transport to return as {@link PooledTransport}
+     */
+    private void release(PooledTransport pooled) {
+        if (pooled.messagesSent >= maxMessages || idleTransports.size() >= maxIdle || !idleTransports.offerFirst(pooled)) { // Retire it...
+            pooled.close();
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Opens and authenticates a new transport.
+     * 
+     * @return Returns the new transport as {@link PooledTransport}
+     * 
+     * @throws MessagingException Indicates a problem connecting to the SMTP server.
+     */
+    private PooledTransport open() throws MessagingException {
+        Transport transport = session.getTransport("smtp");
+        transport.connect(user, password);
+        
+        return new PooledTransport(transport);
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * Holds a {@link Transport} along with the information used to decide
+     * when it should be retired.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class PooledTransport {
+        private final Transport transport;
+        private int messagesSent = 0;
+        private long lastUsedMillis = System.currentTimeMillis();
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param transport - A connected transport as {@link Transport}
+         */
+        public PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+        
+        /**
+         * Sends the message over this transport.
+         * 
+         * @param message - The message to send as {@link Message}
+         * 
+         * @throws MessagingException Indicates a problem sending the message.
+         */
+        public void send(Message message) throws MessagingException {
+            transport.sendMessage(message, message.getAllRecipients());
+            messagesSent++;
+            lastUsedMillis = System.currentTimeMillis();
+        }
+        
+        /**
+         * @return Returns true if this transport hasn't been used yet as <code>boolean</code>
+         */
+        public boolean isFresh() {
+            
+            return messagesSent == 0;
+        }
+        
+        /**
+         * Closes the transport, ignoring any problems doing so.
+         */
+        public void close() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                // Nothing more can be done with it...
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class provides a single shared instance of each distinct {@link String}
+ * it is given, so that many objects holding equal values hold only one copy.
+ * <p>
+ * Unlike {@link String#intern()} it is bounded; once it holds its max number
+ * of values, values it hasn't seen are handed back as they are rather than
+ * being kept.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class StringInterner {
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param maxEntries - The max number of distinct values to keep as <code>int</code>
+     */
+    public StringInterner(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * Provides the shared instance of the given value.
+     *
+     * @param value - The value as {@link String}, may be null
+     * @return Returns the shared instance, or the value itself when there is no
+     * room to share it, as {@link String}
+     */
+    public String intern(String value) {
+        if (value == null) {
+            
+            return null;
+        }
+        
+        String shared = values.get(value);
+        if (shared == null) { // Not seen before...
+            if (values.size() >= maxEntries) { // No room to keep it...
+                
+                return value;
+            }
+            shared = values.putIfAbsent(value, value);
+            if (shared == null) { // This one is now shared...
+                shared = value;
+            }
+        }
+        
+        return shared;
+    }
+    
+    /**
+     * @return Returns the number of values being shared as <code>int</code>
+     */
+    public int size() {
+        
+        return values.size();
+    }
+}
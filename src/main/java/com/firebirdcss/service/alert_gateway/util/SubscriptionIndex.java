@@ -0,0 +1,182 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+
+/**
+ * This class is an immutable inverted index of {@link Subscription}s.
+ * <p>
+ * The index is keyed by the normalized sourceName, and for each sourceName
+ * it holds an array of the subscriptions for each severity whose bit is set 
+ * in their severityMask. This allows the subscribers of an alert to be found 
+ * with a single lookup, rather than by testing every known subscription.
+ * <p>
+ * Changes produce a new index which shares the entries of every sourceName
+ * that didn't change, so the index can be safely read by any number of threads
+ * without locking.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class SubscriptionIndex {
+    public static final SubscriptionIndex EMPTY = new SubscriptionIndex(Collections.emptyMap());
+    
+    private static final int SEVERITY_SLOTS = Integer.SIZE - 1; // Severities 0 thru 30 each have a bit in the mask
+    private static final Subscription[] NONE = new Subscription[0];
+    
+    private final Map<String/*SourceName*/, Entry> index;
+    
+    /**
+     * PRIVATE CONSTRUCTOR:<br>
+     *
+     * @param index - The entries keyed by normalized sourceName as {@link Map}, which must not be changed afterwards
+     */
+    private SubscriptionIndex(Map<String, Entry> index) {
+        this.index = index;
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Normalizes a sourceName the same way as it is normalized in a
+     * {@link Subscription}'s id.
+     * 
+     * @param sourceName - The sourceName to normalize as {@link String}
+     * @return Returns the normalized sourceName as {@link String}
+     */
+    public static String normalize(String sourceName) {
+        
+        return (sourceName == null ? "null" : sourceName.toLowerCase());
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Builds an index of the given subscriptions.
+     * 
+     * @param subscriptions - The subscriptions to index as {@link Collection} of {@link Subscription}s
+     * @return Returns the index as {@link SubscriptionIndex}
+     */
+    public static SubscriptionIndex build(Collection<Subscription> subscriptions) {
+        Map<String, List<Subscription>> bySource = new HashMap<>();
+        for (Subscription sub : subscriptions) {
+            bySource.computeIfAbsent(normalize(sub.getSourceName()), (k) -> new ArrayList<>()).add(sub);
+        }
+        
+        Map<String, Entry> entries = new HashMap<>();
+        bySource.forEach((sourceName, sourceSubs) -> entries.put(sourceName, new Entry(sourceSubs)));
+        
+        return new SubscriptionIndex(entries);
+    }
+    
+    /**
+     * Looks up the subscriptions of the given sourceName which are subscribed 
+     * to the given severity.
+     * 
+     * @param sourceName - The sourceName of an alert as {@link String}
+     * @param severity - The severity of an alert as <code>int</code>
+     * 
+     * @return Returns the matching subscriptions as an array of {@link Subscription}, 
+     * the returned array must not be modified.
+     */
+    public Subscription[] lookup(String sourceName, int severity) {
+        if (severity < 0 || severity >= SEVERITY_SLOTS) { // Has no bit in the mask...
+            
+            return NONE;
+        }
+        
+        Entry entry = index.get(normalize(sourceName));
+        
+        return (entry == null ? NONE : entry.bySeverity[severity]);
+    }
+    
+    /**
+     * Provides all of the subscriptions of the given sourceName.
+     * 
+     * @param sourceName - The sourceName as {@link String}
+     * @return Returns the subscriptions as an array of {@link Subscription}, 
+     * the returned array must not be modified.
+     */
+    public Subscription[] getAll(String sourceName) {
+        Entry entry = index.get(normalize(sourceName));
+        
+        return (entry == null ? NONE : entry.all);
+    }
+    
+    /**
+     * Provides a new index where the entries of the given sourceNames are replaced,
+     * and all other entries are shared with this index.
+     * 
+     * @param changes - All of the subscriptions of each changed sourceName, keyed by the 
+     * normalized sourceName, as {@link Map}; a sourceName with no subscriptions is removed
+     * 
+     * @return Returns the new index as {@link SubscriptionIndex}
+     */
+    public SubscriptionIndex with(Map<String, ? extends Collection<Subscription>> changes) {
+        Map<String, Entry> entries = new HashMap<>(index);
+        changes.forEach((sourceName, sourceSubs) -> {
+            if (sourceSubs == null || sourceSubs.isEmpty()) { // Nothing left to index...
+                entries.remove(sourceName);
+            } else {
+                entries.put(sourceName, new Entry(sourceSubs));
+            }
+        });
+        
+        return new SubscriptionIndex(entries);
+    }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * The subscriptions of a single sourceName, as a whole and by severity.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class Entry {
+        private final Subscription[] all;
+        private final Subscription[][] bySeverity;
+        
+        /**
+         * CONSTRUCTOR:<br>
+         * Builds the per-severity arrays for the subscriptions of a single sourceName.
+         *
+         * @param subscriptions - The subscriptions of the sourceName as {@link Collection} of {@link Subscription}s
+         */
+        private Entry(Collection<Subscription> subscriptions) {
+            List<List<Subscription>> lists = new ArrayList<>(SEVERITY_SLOTS);
+            for (int i = 0; i < SEVERITY_SLOTS; i++) {
+                lists.add(null);
+            }
+            
+            for (Subscription sub : subscriptions) {
+                int mask = (sub.getSeverityMask() == null ? 0 : sub.getSeverityMask().intValue());
+                for (int severity = 0; severity < SEVERITY_SLOTS; severity++) {
+                    if ((mask & (1 << severity)) != 0) { // Subscribed to severity...
+                        if (lists.get(severity) == null) {
+                            lists.set(severity, new ArrayList<>());
+                        }
+                        lists.get(severity).add(sub);
+                    }
+                }
+            }
+            
+            this.all = subscriptions.toArray(NONE);
+            this.bySeverity = new Subscription[SEVERITY_SLOTS][];
+            for (int severity = 0; severity < SEVERITY_SLOTS; severity++) {
+                List<Subscription> list = lists.get(severity);
+                bySeverity[severity] = (list == null ? NONE : list.toArray(NONE));
+            }
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+
+/**
+ * This class is an append-only journal of changes made to {@link Subscription}s.
+ * <p>
+ * Each change is appended to the journal as a single record and forced to disk,
+ * so the cost of persisting a change is proportional to the change rather than 
+ * to the number of subscriptions. Every record carries a checksum so a record 
+ * which was only partially written, such as during a crash, is detected and 
+ * discarded when the journal is replayed. A batch of changes may be appended
+ * together, in which case they are forced to disk at once.
+ * <p>
+ * Records hold the full state of the subscription they are for, which makes them
+ * safe to replay more than once on top of a snapshot. 
+ * <p>
+ * Record layout: [int payloadLength][int crc32][payload]<br>
+ * Payload layout: [byte operation][email][sourceName][int severityMask]<br>
+ * A digest put also carries: [int digestSeverity][int digestWindowSeconds], where -1 stands for null
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class SubscriptionJournal {
+    private static final Logger log = LogManager.getLogger(SubscriptionJournal.class);
+    
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_PUT_DIGEST = 3;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_PAYLOAD_BYTES = 1024 * 1024; // Anything larger is corruption
+    
+    private final Path journalPath;
+    private FileChannel channel = null;
+    private int recordCount = 0;
+    
+    /**
+     * CONSTRUCTOR:<br>
+     *
+     * @param journalFile - The path of the journal file as {@link String}
+     */
+    public SubscriptionJournal(String journalFile) {
+        this.journalPath = Paths.get(journalFile);
+    }
+    
+    /**
+     * Replays the records of the journal onto the given subscriptions and 
+     * opens the journal for appending. If the journal ends with a damaged or
+     * partial record, the journal is truncated just before it.
+     * 
+     * @param subscriptions - The subscriptions keyed by id to apply the journal to as {@link Map}
+     * 
+     * @return Returns the number of records which were replayed as <code>int</code>
+     * 
+     * @throws IOException Indicates a problem reading or opening the journal.
+     */
+    public synchronized int replay(Map<String, Subscription> subscriptions) throws IOException {
+        close();
+        channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        
+        long validBytes = 0L;
+        int replayed = 0;
+        channel.position(0L);
+        InputStream nonClosing = Channels.newInputStream(channel);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(nonClosing));
+        CRC32 crc = new CRC32();
+        try {
+            while (true) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || length > MAX_PAYLOAD_BYTES) { // Corrupt length...
+                    
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) { // Corrupt payload...
+                    
+                    break;
+                }
+                
+                apply(payload, subscriptions);
+                validBytes += HEADER_BYTES + length;
+                replayed++;
+            }
+        } catch (EOFException e) {
+            // End of the journal, possibly with a partial record...
+        }
+        
+        if (validBytes < channel.size()) { // Discard the damaged tail...
+            log.warn(String.format("Subscription journal '%s' had a damaged tail of %d bytes which was discarded.", journalPath, channel.size() - validBytes));
+            channel.truncate(validBytes);
+            channel.force(true);
+        }
+        channel.position(validBytes);
+        recordCount = replayed;
+        
+        return replayed;
+    }
+    
+    /**
+     * Appends the given subscription change to the journal and forces it to disk.
+     * A subscription with a severityMask of zero is recorded as a removal.
+     * 
+     * @param subscription - The incoming subscription change as {@link Subscription}
+     * 
+     * @throws IOException Indicates a problem writing to the journal.
+     */
+    public synchronized void append(Subscription subscription) throws IOException {
+        appendAll(Collections.singletonList(subscription));
+    }
+    
+    /**
+     * Appends the given subscription changes to the journal, in order, and then
+     * forces them all to disk at once. Should the write fail part way, whatever
+     * was written of the changes is cut off again, so a later append can't end
+     * up behind a partial record which would hide it on replay.
+     * 
+     * @param subscriptions - The incoming subscription changes as {@link Collection} of {@link Subscription}s
+     * 
+     * @throws IOException Indicates a problem writing to the journal.
+     */
+    public synchronized void appendAll(Collection<Subscription> subscriptions) throws IOException {
+        ByteArrayOutputStream records = new ByteArrayOutputStream(64 * subscriptions.size());
+        for (Subscription subscription : subscriptions) {
+            byte[] payload = encode(subscription);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(payload.length).putInt((int) crc.getValue());
+            records.write(header.array());
+            records.write(payload);
+        }
+        
+        ByteBuffer buffer = ByteBuffer.wrap(records.toByteArray());
+        long start = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            try {
+                channel.truncate(start);
+                channel.position(start);
+            } catch (IOException e2) { // Journal is unusable; replay will cut the tail off...
+                e.addSuppressed(e2);
+            }
+            
+            throw e;
+        }
+        recordCount += subscriptions.size();
+    }
+    
+    /**
+     * Empties the journal. This is to be done once everything in the journal
+     * has been captured by a snapshot.
+     * 
+     * @throws IOException Indicates a problem truncating the journal.
+     */
+    public synchronized void reset() throws IOException {
+        channel.truncate(0L);
+        channel.position(0L);
+        channel.force(true);
+        recordCount = 0;
+    }
+    
+    /**
+     * @return Returns the number of records in the journal as <code>int</code>
+     */
+    public synchronized int getRecordCount() {
+        
+        return recordCount;
+    }
+    
+    /**
+     * Closes the journal if it is open.
+     * 
+     * @throws IOException Indicates a problem closing the journal file.
+     */
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Encodes a single record's payload.
+     * 
+     * @param subscription - The subscription change as {@link Subscription}
+     * @return Returns the payload as <code>byte[]</code>
+     * 
+     * @throws IOException Indicates the payload could not be encoded.
+     */
+    private static byte[] encode(Subscription subscription) throws IOException {
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bOut);
+        boolean remove = (subscription.getSeverityMask() == null || subscription.getSeverityMask().intValue() == 0);
+        boolean digest = (!remove && subscription.getDigestSeverity() != null);
+        out.writeByte(remove ? OP_REMOVE : (digest ? OP_PUT_DIGEST : OP_PUT));
+        writeString(out, subscription.getEmail());
+        writeString(out, subscription.getSourceName());
+        out.writeInt(remove ? 0 : subscription.getSeverityMask().intValue());
+        if (digest) {
+            out.writeInt(subscription.getDigestSeverity().intValue());
+            out.writeInt(subscription.getDigestWindowSeconds() == null ? -1 : subscription.getDigestWindowSeconds().intValue());
+        }
+        out.flush();
+        
+        return bOut.toByteArray();
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Applies a single record's payload to the subscriptions.
+     * 
+     * @param payload - The record payload as <code>byte[]</code>
+     * @param subscriptions - The subscriptions keyed by id as {@link Map}
+     * 
+     * @throws IOException Indicates the payload could not be decoded.
+     */
+    private void apply(byte[] payload, Map<String, Subscription> subscriptions) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        Subscription sub = new Subscription();
+        sub.setEmail(readString(in));
+        sub.setSourceName(readString(in));
+        sub.setSeverityMask(in.readInt());
+        if (op == OP_PUT_DIGEST) {
+            sub.setDigestSeverity(in.readInt());
+            int window = in.readInt();
+            sub.setDigestWindowSeconds(window < 0 ? null : Integer.valueOf(window));
+        }
+        
+        if (op == OP_REMOVE) {
+            subscriptions.remove(sub.getId());
+        } else {
+            subscriptions.put(sub.getId(), sub);
+        }
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Writes a nullable {@link String}.
+     * 
+     * @param out - The stream to write to as {@link DataOutputStream}
+     * @param value - The value to write as {@link String}
+     * 
+     * @throws IOException Indicates a problem writing.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Reads a nullable {@link String}.
+     * 
+     * @param in - The stream to read from as {@link DataInputStream}
+     * @return Returns the value which was read as {@link String}
+     * 
+     * @throws IOException Indicates a problem reading.
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        
+        return (in.readBoolean() ? in.readUTF() : null);
+    }
+}
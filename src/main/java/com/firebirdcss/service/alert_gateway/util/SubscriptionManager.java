@@ -4,18 +4,29 @@
 package com.firebirdcss.service.alert_gateway.util;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
-import com.firebirdcss.service.alert_gateway.data.Settings;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
 import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
 import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+import com.firebirdcss.service.alert_gateway.exceptions.InvalidSubscriptionException;
 import com.firebirdcss.service.alert_gateway.exceptions.SubscriptionManagementException;
 
 /**
@@ -25,6 +36,17 @@ import com.firebirdcss.service.alert_gateway.exceptions.SubscriptionManagementEx
  * surrounding the alert subscriptions so that the external code can easily
  * interact with the underline subscriptions easily without worrying about 
  * the details.
+ * <p>
+ * Changes are persisted by appending them to a {@link SubscriptionJournal}. Once
+ * the journal has grown past a threshold, it is compacted by writing a snapshot
+ * of all subscriptions to the save file, using the {@link SubscriptionStore} format,
+ * and then emptying the journal. On load the snapshot is read and then the journal 
+ * is replayed on top of it.
+ * <p>
+ * The subscriptions are published as an immutable {@link SubscriptionSnapshot}
+ * through an {@link AtomicReference}, so readers never block or see a partial
+ * change. Writers queue their changes, and whichever writer gets to apply them
+ * journals everything queued so far in one go and swaps in a single new version.
  * 
  * @author Scott Griffis
  * <p>
@@ -32,21 +54,36 @@ import com.firebirdcss.service.alert_gateway.exceptions.SubscriptionManagementEx
  *
  */
 public class SubscriptionManager {
-    private final HashMap<String, Subscription> subscriptions = new HashMap<>();
+    private static final Logger log = LogManager.getLogger(SubscriptionManager.class);
+    
+    private final AtomicReference<SubscriptionSnapshot> snapshot = new AtomicReference<>(SubscriptionSnapshot.of(Collections.emptyList()));
+    private final Queue<PendingUpdate> pendingUpdates = new ConcurrentLinkedQueue<>();
+    private final Object writeLock = new Object();
     private final String saveFile;
+    private final String legacyFile;
+    private final SubscriptionJournal journal;
+    private final int compactThreshold;
     
     /**
      * CONSTRUCTOR:<br>
      * Used to provide required information to the class upon
      * its instantiation. 
      *
-     * @param saveFile - The path to the file where subscription information will
+     * @param saveFile - The path to the file where the snapshot of subscription information will
      * be saved and loaded from as {@link String}
+     * @param legacyFile - The path to the file where subscription information was saved by older versions
+     * of the application, it is imported once if there is no snapshot yet, as {@link String}
+     * @param journalFile - The path to the file where changes to subscriptions are journaled as {@link String}
+     * @param compactThreshold - The number of journaled changes after which the journal is compacted 
+     * into a new snapshot as <code>int</code>
      * 
      * @throws SubscriptionManagementException Indicates a problem with loading Subscriptions from disk.
      */
-    public SubscriptionManager(String saveFile) throws SubscriptionManagementException {
+    public SubscriptionManager(String saveFile, String legacyFile, String journalFile, int compactThreshold) throws SubscriptionManagementException {
         this.saveFile = saveFile;
+        this.legacyFile = legacyFile;
+        this.journal = new SubscriptionJournal(journalFile);
+        this.compactThreshold = compactThreshold;
         loadSubscriptions();
     }
     
@@ -59,20 +96,55 @@ public class SubscriptionManager {
      * of the existing one. If the incoming one isn't subscribed to anything then
      * the existing managed one is deleted. In each scenario the incoming subscription
      * is the record of truth.
+     * <p>
+     * The email address of a subscription being added or updated is parsed and
+     * validated here, once, and the parsed address is what alerts are sent to.
      * 
      * @param subscription - The incoming subscription modifications as {@link Subscription}
      * 
      * @throws SubscriptionManagementException Indicates a problem with persisting Subscriptions to disk. 
+     * @throws InvalidSubscriptionException Indicates the subscription is not valid and was not applied.
      */
-    public synchronized void update(Subscription subscription) throws SubscriptionManagementException {
-        synchronized(subscriptions) {
-            if (subscription.getSeverityMask().intValue() == 0) { // Perform removal...
-                this.subscriptions.remove(subscription.getId());
-            } else { // Add/Update subscription...
-                this.subscriptions.put(subscription.getId(), subscription);
+    public void update(Subscription subscription) throws SubscriptionManagementException, InvalidSubscriptionException {
+        updateAll(Collections.singletonList(subscription));
+    }
+    
+    /**
+     * This method is used to invoke a batch of updates to managed subscriptions.
+     * Each update is applied in order just as it would be by {@link #update(Subscription)},
+     * but the whole batch is journaled at once and becomes visible as a single new
+     * version of the subscriptions. Should any of them be invalid, none are applied.
+     * 
+     * @param subscriptions - The incoming subscription modifications as {@link List} of {@link Subscription}s
+     * 
+     * @throws SubscriptionManagementException Indicates a problem with persisting Subscriptions to disk. 
+     * @throws InvalidSubscriptionException Indicates a subscription is not valid and none were applied.
+     */
+    public void updateAll(List<Subscription> subscriptions) throws SubscriptionManagementException, InvalidSubscriptionException {
+        Map<String, InternetAddress> addresses = new HashMap<>();
+        for (Subscription sub : subscriptions) {
+            if (sub.getSeverityMask() == null) { // Can't tell what is wanted...
+                throw new InvalidSubscriptionException("A severityMask is required; Use zero to remove a subscription.");
             }
-            
-            persistSubscriptions();
+            if (sub.getSeverityMask().intValue() != 0) { // Being added or updated...
+                try {
+                    addresses.put(sub.getId(), SubscriptionSnapshot.parseAddress(sub.getEmail()));
+                } catch (AddressException e) {
+                    throw new InvalidSubscriptionException(String.format("The email address '%s' is not valid: %s", sub.getEmail(), e.getMessage()), e);
+                }
+            }
+        }
+        
+        PendingUpdate pending = new PendingUpdate(subscriptions, addresses);
+        pendingUpdates.add(pending);
+        synchronized (writeLock) {
+            if (!pending.applied) { // Nobody has applied it yet...
+                applyPendingUpdates();
+            }
+        }
+        
+        if (pending.failure != null) {
+            throw pending.failure;
         }
     }
     
@@ -84,17 +156,37 @@ public class SubscriptionManager {
      * @return Returns a {@link List} containing the emails as {@link String}
      */
     public List<String/*Email*/> getSubscribers(Alert alert) {
-        return subscriptions.entrySet().stream().filter(
-            (e) -> {
-                return 
-                    e.getKey().endsWith(":" + alert.getSourceName().toLowerCase()) 
-                    && (
-                        ((int) Math.pow(2D, alert.getSeverity().doubleValue()) 
-                            & e.getValue().getSeverityMask().intValue()) != 0
-                        )
-                ;
-            }
-        ).map((e) -> e.getValue().getEmail()).collect(Collectors.toList());
+        Subscription[] subs = snapshot.get().lookup(alert.getSourceName(), alert.getSeverity().intValue());
+        List<String> emails = new ArrayList<>(subs.length);
+        for (Subscription sub : subs) {
+            emails.add(sub.getEmail());
+        }
+        
+        return emails;
+    }
+    
+    /**
+     * Provides the {@link Subscription}s which are subscribed to receive 
+     * alerts for the given {@link Alert}.
+     * 
+     * @param alert - An alert to look up subscriptions for as {@link Alert}
+     * @return Returns the subscriptions as an array of {@link Subscription}s, the
+     * returned array must not be modified.
+     */
+    public Subscription[] getSubscriptions(Alert alert) {
+        
+        return snapshot.get().lookup(alert.getSourceName(), alert.getSeverity().intValue());
+    }
+    
+    /**
+     * Provides the current version of all subscriptions. The snapshot never 
+     * changes, so it may be held on to for as long as is needed.
+     * 
+     * @return Returns the current subscriptions as {@link SubscriptionSnapshot}
+     */
+    public SubscriptionSnapshot getSnapshot() {
+        
+        return snapshot.get();
     }
     
     /**
@@ -109,69 +201,144 @@ public class SubscriptionManager {
      * @return Returns the results as a {@link List} of {@link Subscription}s
      */
     public List<Subscription> query(String email, String sourceName) {
-        return subscriptions.entrySet().stream()
+        return snapshot.get().getSubscriptions().stream()
                 .filter(
-                    (e) -> {
+                    (sub) -> {
                         return (
-                            (email != null ? e.getValue().getEmail().equalsIgnoreCase(email) : true)
-                            && (sourceName != null ? e.getValue().getSourceName().equalsIgnoreCase(sourceName) : true)
+                            (email != null ? sub.getEmail().equalsIgnoreCase(email) : true)
+                            && (sourceName != null ? sub.getSourceName().equalsIgnoreCase(sourceName) : true)
                         );
                     }
                 )
-                .map(e -> e.getValue())
                 .collect(Collectors.toList())
         ;
     }
     
     /**
      * PRIVATE METHOD:
-     * Used to load the subscriptions from a file.
+     * Used to load the subscriptions from the snapshot file and then replay
+     * the journal on top of them. If there is no snapshot but there is a legacy
+     * file, the legacy file is imported into a new snapshot and then renamed so
+     * it won't be imported again.
      * 
      * @throws SubscriptionManagementException Indicates a problem with recalling persisted Subscriptions from disk. 
      */
     private void loadSubscriptions() throws SubscriptionManagementException {
+        HashMap<String, Subscription> subscriptions = new HashMap<>();
         File file = new File(this.saveFile);
-        if (file.exists()) { // File doesn't yet exist; create it...
+        File legacy = (this.legacyFile == null ? null : new File(this.legacyFile));
+        if (file.exists()) { // Snapshot exists...
             if (file.canRead()) { // File is readable; attempt to load...
-                try (FileInputStream fIs = new FileInputStream(file); ObjectInputStream in = new ObjectInputStream(fIs);) {
-                    Object oIn = in.readObject();
-                    if (oIn != null && oIn instanceof HashMap) {
-                        subscriptions.clear();
-                        ((HashMap<?,?>) oIn).values().forEach((o) -> {
-                            if (o instanceof Subscription) {
-                                subscriptions.put(((Subscription) o).getId(), ((Subscription) o));
-                            }
-                        });
-                    }
+                try {
+                    SubscriptionStore.read(this.saveFile, (sub) -> subscriptions.put(sub.getId(), sub));
                 } catch (IOException e) {
-                    throw new SubscriptionManagementException("Application might not have required access to manage Subscriptions file!", e);
-                } catch (ClassNotFoundException e) { // Don't know what we are reading in...
-                    throw new SubscriptionManagementException("Could not properly deserialize Subscription data; File may be corrupt!", e);
+                    throw new SubscriptionManagementException("Unable to load the Subscriptions snapshot; File may be corrupt or inaccessible!", e);
                 }
             } else { // File has a problem...
                 throw new SubscriptionManagementException("Application might not have required access to manage Subscriptions file!");
             }
+        } else if (legacy != null && legacy.exists()) { // Legacy file needs importing...
+            try {
+                int count = SubscriptionStore.readLegacy(this.legacyFile, (sub) -> subscriptions.put(sub.getId(), sub));
+                SubscriptionStore.write(this.saveFile, subscriptions.values());
+                Files.move(legacy.toPath(), Paths.get(this.legacyFile + ".imported"), StandardCopyOption.REPLACE_EXISTING);
+                log.info(String.format("Imported %d Subscriptions from the legacy file: '%s'", count, this.legacyFile));
+            } catch (IOException e) {
+                throw new SubscriptionManagementException("Application might not have required access to manage Subscriptions file!", e);
+            } catch (ClassNotFoundException e) { // Don't know what we are reading in...
+                throw new SubscriptionManagementException("Could not properly deserialize Subscription data; File may be corrupt!", e);
+            }
         }
+        
+        /* Bring the snapshot up to date with the journal */
+        try {
+            int replayed = journal.replay(subscriptions);
+            log.info(String.format("Loaded %d Subscriptions; %d changes were replayed from the journal.", subscriptions.size(), replayed));
+        } catch (IOException e) {
+            throw new SubscriptionManagementException("Application might not have required access to manage Subscriptions journal!", e);
+        }
+        
+        snapshot.set(SubscriptionSnapshot.of(subscriptions.values()));
     }
     
     /**
      * PRIVATE METHOD:<br>
-     * Used to persist subscriptions to disk.
+     * Applies every queued update; The caller must hold the writeLock. The changes 
+     * are written ahead to the journal, and only take effect once they are on disk,
+     * at which point the next version of the subscriptions is swapped in.
+     */
+    private void applyPendingUpdates() {
+        List<PendingUpdate> batch = new ArrayList<>();
+        List<Subscription> changes = new ArrayList<>();
+        Map<String, InternetAddress> addresses = new HashMap<>();
+        for (PendingUpdate pending = pendingUpdates.poll(); pending != null; pending = pendingUpdates.poll()) {
+            batch.add(pending);
+            changes.addAll(pending.subscriptions);
+            addresses.putAll(pending.addresses);
+        }
+        
+        try {
+            journal.appendAll(changes);
+            snapshot.set(snapshot.get().apply(changes, addresses));
+        } catch (IOException e) {
+            SubscriptionManagementException failure = new SubscriptionManagementException("Application might not have required access to manage Subscriptions journal!", e);
+            batch.forEach((pending) -> pending.failure = failure);
+        }
+        batch.forEach((pending) -> pending.applied = true);
+        
+        if (journal.getRecordCount() >= compactThreshold) { // Time to compact...
+            try {
+                persistSubscriptions();
+            } catch (SubscriptionManagementException e) { // Changes are safe in the journal, so just report it...
+                log.error("Unable to compact the Subscriptions journal into a new snapshot; Will try again on next update:", e);
+            }
+        }
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Used to persist a snapshot of the subscriptions to disk and then empty
+     * the journal. The {@link SubscriptionStore} always leaves a complete 
+     * snapshot on disk. Should a crash occur before the journal is emptied, 
+     * the journal is simply replayed onto the new snapshot.
      * 
      * @throws SubscriptionManagementException Indicates a problem when persisting the Subscriptions to disk.
      */
     private void persistSubscriptions() throws SubscriptionManagementException {
-        File file = new File(Settings.NOTIFIER_SUBSCRIPTIONS_FILE);
-        if (file.exists()) { // Existing file should be removed...
-            file.delete();
-        }
         try {
-            file.createNewFile();
-            try (FileOutputStream fOut = new FileOutputStream(file); ObjectOutputStream out = new ObjectOutputStream(fOut);) {
-                out.writeObject(subscriptions);
-            }
+            SubscriptionStore.write(this.saveFile, snapshot.get().getSubscriptions());
+            
+            journal.reset();
         } catch (IOException e) {
             throw new SubscriptionManagementException("Application might not have required access to manage Subscriptions file!", e);
         }
     }
+    
+    /**
+     * PRIVATE CLASS:<br>
+     * A batch of changes which is waiting to be applied. Its fields are only 
+     * touched while holding the writeLock.
+     * 
+     * @author Scott Griffis
+     * <p>
+     * Date: 10/18/2026
+     *
+     */
+    private static class PendingUpdate {
+        private final List<Subscription> subscriptions;
+        private final Map<String, InternetAddress> addresses;
+        private boolean applied = false;
+        private SubscriptionManagementException failure = null;
+        
+        /**
+         * CONSTRUCTOR:<br>
+         *
+         * @param subscriptions - The changes as {@link List} of {@link Subscription}s
+         * @param addresses - The parsed email addresses of the changes keyed by id as {@link Map}
+         */
+        private PendingUpdate(List<Subscription> subscriptions, Map<String, InternetAddress> addresses) {
+            this.subscriptions = subscriptions;
+            this.addresses = addresses;
+        }
+    }
 }
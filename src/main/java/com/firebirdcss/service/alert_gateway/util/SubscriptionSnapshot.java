@@ -0,0 +1,194 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+
+/**
+ * This class is an immutable version of all known {@link Subscription}s along
+ * with their {@link SubscriptionIndex} and their already parsed email addresses.
+ * <p>
+ * A snapshot is never changed once it is published. Changes are applied by
+ * building the next version of the snapshot, which can then be swapped in 
+ * for the current one, so readers never block and never see a partial change.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class SubscriptionSnapshot {
+    private static final Logger log = LogManager.getLogger(SubscriptionSnapshot.class);
+    
+    private final long version;
+    private final Map<String/*Id*/, Subscription> subscriptions;
+    private final Map<String/*Id*/, InternetAddress> addresses;
+    private final SubscriptionIndex index;
+    
+    /**
+     * PRIVATE CONSTRUCTOR:<br>
+     *
+     * @param version - The version of the snapshot as <code>long</code>
+     * @param subscriptions - The subscriptions keyed by id as {@link Map}, which must not be changed afterwards
+     * @param addresses - The parsed email addresses keyed by id as {@link Map}, which must not be changed afterwards
+     * @param index - The index of the subscriptions as {@link SubscriptionIndex}
+     */
+    private SubscriptionSnapshot(long version, Map<String, Subscription> subscriptions, Map<String, InternetAddress> addresses, SubscriptionIndex index) {
+        this.version = version;
+        this.subscriptions = Collections.unmodifiableMap(subscriptions);
+        this.addresses = addresses;
+        this.index = index;
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Creates the first version of a snapshot holding the given subscriptions.
+     * Subscriptions whose email address can't be parsed, such as ones saved by
+     * older versions of the application, are kept but will not be sent to.
+     * 
+     * @param subscriptions - The subscriptions as {@link Collection} of {@link Subscription}s
+     * @return Returns the snapshot as {@link SubscriptionSnapshot}
+     */
+    public static SubscriptionSnapshot of(Collection<Subscription> subscriptions) {
+        Map<String, Subscription> byId = new HashMap<>();
+        Map<String, InternetAddress> addresses = new HashMap<>();
+        subscriptions.forEach((sub) -> {
+            byId.put(sub.getId(), sub);
+            try {
+                addresses.put(sub.getId(), parseAddress(sub.getEmail()));
+            } catch (AddressException e) {
+                log.warn(String.format("Invalid subscriber email of '%s' will be skipped!", sub.getEmail()));
+            }
+        });
+        
+        return new SubscriptionSnapshot(1L, byId, addresses, SubscriptionIndex.build(byId.values()));
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Parses and strictly validates an email address.
+     * 
+     * @param email - The email address as {@link String}
+     * @return Returns the parsed address as {@link InternetAddress}
+     * 
+     * @throws AddressException Indicates the email address is not valid.
+     */
+    public static InternetAddress parseAddress(String email) throws AddressException {
+        if (email == null) {
+            throw new AddressException("An email address is required");
+        }
+        
+        InternetAddress address = new InternetAddress(email, true);
+        address.validate();
+        
+        return address;
+    }
+    
+    /**
+     * Builds the next version of this snapshot with the given changes applied in 
+     * order. A change with a severityMask of zero removes the subscription, any 
+     * other change adds or replaces it. This snapshot is left as it was.
+     * 
+     * @param changes - The changes to apply as {@link Collection} of {@link Subscription}s
+     * @param parsedAddresses - The parsed email addresses of the changes which add or
+     * replace a subscription, keyed by id, as {@link Map}
+     * 
+     * @return Returns the next version as {@link SubscriptionSnapshot}
+     */
+    public SubscriptionSnapshot apply(Collection<Subscription> changes, Map<String, InternetAddress> parsedAddresses) {
+        Map<String, Subscription> byId = new HashMap<>(subscriptions);
+        Map<String, InternetAddress> addressesById = new HashMap<>(addresses);
+        Map<String/*SourceName*/, Map<String, Subscription>> changedSources = new HashMap<>();
+        for (Subscription change : changes) {
+            Map<String, Subscription> sourceSubs = changedSources.computeIfAbsent(
+                SubscriptionIndex.normalize(change.getSourceName()), 
+                (sourceName) -> {
+                    Map<String, Subscription> current = new LinkedHashMap<>();
+                    for (Subscription sub : index.getAll(sourceName)) {
+                        current.put(sub.getId(), sub);
+                    }
+                    
+                    return current;
+                }
+            );
+            
+            if (change.getSeverityMask() == null || change.getSeverityMask().intValue() == 0) { // Perform removal...
+                byId.remove(change.getId());
+                addressesById.remove(change.getId());
+                sourceSubs.remove(change.getId());
+            } else { // Add/Update subscription...
+                byId.put(change.getId(), change);
+                addressesById.put(change.getId(), parsedAddresses.get(change.getId()));
+                sourceSubs.put(change.getId(), change);
+            }
+        }
+        
+        Map<String, Collection<Subscription>> sourceChanges = new HashMap<>();
+        changedSources.forEach((sourceName, sourceSubs) -> sourceChanges.put(sourceName, sourceSubs.values()));
+        
+        return new SubscriptionSnapshot(version + 1L, byId, addressesById, index.with(sourceChanges));
+    }
+    
+    /**
+     * @return Returns the version of the snapshot, which grows with each change, as <code>long</code>
+     */
+    public long getVersion() {
+        
+        return version;
+    }
+    
+    /**
+     * @return Returns all of the subscriptions as an unmodifiable {@link Collection} of {@link Subscription}s
+     */
+    public Collection<Subscription> getSubscriptions() {
+        
+        return subscriptions.values();
+    }
+    
+    /**
+     * @return Returns the number of subscriptions as <code>int</code>
+     */
+    public int size() {
+        
+        return subscriptions.size();
+    }
+    
+    /**
+     * Provides the parsed email address of the given subscription.
+     * 
+     * @param sub - A subscription of this snapshot as {@link Subscription}
+     * @return Returns the address as {@link InternetAddress}, or null if the email address is not valid
+     */
+    public InternetAddress getAddress(Subscription sub) {
+        
+        return addresses.get(sub.getId());
+    }
+    
+    /**
+     * Looks up the subscriptions of the given sourceName which are subscribed 
+     * to the given severity.
+     * 
+     * @param sourceName - The sourceName of an alert as {@link String}
+     * @param severity - The severity of an alert as <code>int</code>
+     * 
+     * @return Returns the matching subscriptions as an array of {@link Subscription}, 
+     * the returned array must not be modified.
+     */
+    public Subscription[] lookup(String sourceName, int severity) {
+        
+        return index.lookup(sourceName, severity);
+    }
+}
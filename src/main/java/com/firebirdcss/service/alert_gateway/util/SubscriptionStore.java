@@ -0,0 +1,296 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+
+/**
+ * This class reads and writes snapshots of {@link Subscription}s using a
+ * compact, versioned binary format.
+ * <p>
+ * The emails and sourceNames are dictionary encoded, so each distinct value is
+ * stored only once no matter how many subscriptions use it. Each subscription is
+ * then stored as a pair of dictionary references and its severityMask, all as
+ * variable length integers. Snapshots are read through a memory mapped 
+ * {@link FileChannel}, and are decoded straight into {@link Subscription}s 
+ * without any Java deserialization.
+ * <p>
+ * File layout: [int magic][short version][int bodyLength][int crc32][body]<br>
+ * Body layout: [varint stringCount][strings...][varint subscriptionCount][subscriptions...]<br>
+ * String layout: [varint byteLength][UTF-8 bytes]<br>
+ * Subscription layout: [varint emailRef][varint sourceNameRef][varint severityMask][varint digestSeverity][varint digestWindowSeconds]<br>
+ * A reference of zero stands for null; otherwise it is the 1-based position of the string.
+ * The digest values are stored plus one, so that zero stands for null as well. Snapshots of
+ * version 1 don't have the digest values.
+ * 
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class SubscriptionStore {
+    private static final int MAGIC = 0x41475353; // 'AGSS'
+    private static final short VERSION = 2;
+    private static final short VERSION_WITHOUT_DIGEST = 1;
+    private static final int HEADER_BYTES = 14;
+    
+    /**
+     * PRIVATE CONSTRUCTOR:<br>
+     * Only static methods are offered by this class.
+     */
+    private SubscriptionStore() {}
+    
+    /**
+     * STATIC METHOD:<br>
+     * Reads the subscriptions from the given snapshot file, handing each one
+     * to the given consumer.
+     * 
+     * @param file - The path of the snapshot file as {@link String}
+     * @param consumer - Receives each {@link Subscription} as {@link Consumer}
+     * 
+     * @return Returns the number of subscriptions read as <code>int</code>
+     * 
+     * @throws IOException Indicates the file couldn't be read or is not a valid snapshot.
+     */
+    public static int read(String file, Consumer<Subscription> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+            try {
+                if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) { // Not a snapshot...
+                    throw new IOException(String.format("The file '%s' is not a Subscription snapshot!", file));
+                }
+                short version = buffer.getShort();
+                if (version != VERSION && version != VERSION_WITHOUT_DIGEST) { // Written by a newer version...
+                    throw new IOException(String.format("The Subscription snapshot '%s' has an unsupported version of: %d", file, version));
+                }
+                int bodyLength = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (bodyLength < 0 || bodyLength != buffer.remaining()) { // Truncated or padded...
+                    throw new IOException(String.format("The Subscription snapshot '%s' is incomplete!", file));
+                }
+                
+                CRC32 crc = new CRC32();
+                crc.update(buffer.duplicate());
+                if ((int) crc.getValue() != checksum) { // Damaged...
+                    throw new IOException(String.format("The Subscription snapshot '%s' failed its checksum!", file));
+                }
+                
+                /* Decode the dictionary */
+                String[] dictionary = new String[readVarInt(buffer) + 1]; // Slot zero is null
+                for (int i = 1; i < dictionary.length; i++) {
+                    int length = readVarInt(buffer);
+                    dictionary[i] = StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), length)).toString();
+                    buffer.position(buffer.position() + length);
+                }
+                
+                /* Decode the subscriptions */
+                int count = readVarInt(buffer);
+                for (int i = 0; i < count; i++) {
+                    Subscription sub = new Subscription();
+                    sub.setEmail(dictionary[readVarInt(buffer)]);
+                    sub.setSourceName(dictionary[readVarInt(buffer)]);
+                    sub.setSeverityMask(readVarInt(buffer));
+                    if (version != VERSION_WITHOUT_DIGEST) {
+                        sub.setDigestSeverity(readNullableVarInt(buffer));
+                        sub.setDigestWindowSeconds(readNullableVarInt(buffer));
+                    }
+                    consumer.accept(sub);
+                }
+                
+                return count;
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException(String.format("The Subscription snapshot '%s' is corrupt!", file), e);
+            }
+        }
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Writes the given subscriptions to the given snapshot file. The snapshot
+     * is written to a temporary file first which then atomically replaces the
+     * existing snapshot, so there is always a complete snapshot on disk.
+     * 
+     * @param file - The path of the snapshot file as {@link String}
+     * @param subscriptions - The subscriptions to write as {@link Collection} of {@link Subscription}s
+     * 
+     * @throws IOException Indicates a problem writing the file.
+     */
+    public static void write(String file, Collection<Subscription> subscriptions) throws IOException {
+        /* Build the dictionary and encode the body */
+        Map<String, Integer> dictionary = new HashMap<>();
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        ByteArrayOutputStream records = new ByteArrayOutputStream(subscriptions.size() * 6);
+        for (Subscription sub : subscriptions) {
+            writeVarInt(records, reference(sub.getEmail(), dictionary, strings));
+            writeVarInt(records, reference(sub.getSourceName(), dictionary, strings));
+            writeVarInt(records, (sub.getSeverityMask() == null ? 0 : sub.getSeverityMask().intValue()));
+            writeNullableVarInt(records, sub.getDigestSeverity());
+            writeNullableVarInt(records, sub.getDigestWindowSeconds());
+        }
+        
+        ByteArrayOutputStream body = new ByteArrayOutputStream(strings.size() + records.size() + 10);
+        writeVarInt(body, dictionary.size());
+        strings.writeTo(body);
+        writeVarInt(body, subscriptions.size());
+        records.writeTo(body);
+        byte[] bodyBytes = body.toByteArray();
+        
+        CRC32 crc = new CRC32();
+        crc.update(bodyBytes);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort(VERSION).putInt(bodyBytes.length).putInt((int) crc.getValue());
+        
+        /* Write and swap in the new snapshot */
+        Path target = Paths.get(file);
+        Path temp = Paths.get(file + ".tmp");
+        try (FileOutputStream fOut = new FileOutputStream(temp.toFile())) {
+            fOut.write(header.array());
+            fOut.write(bodyBytes);
+            fOut.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Reads the subscriptions from a legacy snapshot file, which holds a Java 
+     * serialized {@link HashMap} of {@link Subscription}s.
+     * 
+     * @param file - The path of the legacy file as {@link String}
+     * @param consumer - Receives each {@link Subscription} as {@link Consumer}
+     * 
+     * @return Returns the number of subscriptions read as <code>int</code>
+     * 
+     * @throws IOException Indicates the file couldn't be read.
+     * @throws ClassNotFoundException Indicates the file holds something unexpected.
+     */
+    public static int readLegacy(String file, Consumer<Subscription> consumer) throws IOException, ClassNotFoundException {
+        int count = 0;
+        try (FileInputStream fIs = new FileInputStream(file); ObjectInputStream in = new ObjectInputStream(fIs);) {
+            Object oIn = in.readObject();
+            if (oIn != null && oIn instanceof HashMap) {
+                for (Object o : ((HashMap<?,?>) oIn).values()) {
+                    if (o instanceof Subscription) {
+                        consumer.accept((Subscription) o);
+                        count++;
+                    }
+                }
+            }
+        }
+        
+        return count;
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Provides the dictionary reference of the given value, adding the value to the
+     * dictionary if it isn't already present.
+     * 
+     * @param value - The value to reference as {@link String}
+     * @param dictionary - The references of the known values as {@link Map}
+     * @param strings - The encoded dictionary strings as {@link ByteArrayOutputStream}
+     * 
+     * @return Returns the reference as <code>int</code>
+     */
+    private static int reference(String value, Map<String, Integer> dictionary, ByteArrayOutputStream strings) {
+        if (value == null) {
+            
+            return 0;
+        }
+        
+        Integer ref = dictionary.get(value);
+        if (ref == null) { // New value...
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(strings, bytes.length);
+            strings.write(bytes, 0, bytes.length);
+            ref = dictionary.size() + 1;
+            dictionary.put(value, ref);
+        }
+        
+        return ref.intValue();
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Writes an <code>int</code> as an unsigned variable length integer, using 
+     * 7 bits per byte with the high bit set when more bytes follow.
+     * 
+     * @param out - Where to write as {@link ByteArrayOutputStream}
+     * @param value - The value to write as <code>int</code>
+     */
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Writes a nullable, non-negative {@link Integer} as a variable length integer
+     * of the value plus one, or zero for null.
+     * 
+     * @param out - Where to write as {@link ByteArrayOutputStream}
+     * @param value - The value to write as {@link Integer}
+     */
+    private static void writeNullableVarInt(ByteArrayOutputStream out, Integer value) {
+        writeVarInt(out, (value == null || value.intValue() < 0 ? 0 : value.intValue() + 1));
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Reads a value written by {@link #writeNullableVarInt(ByteArrayOutputStream, Integer)}.
+     * 
+     * @param buffer - Where to read from as {@link ByteBuffer}
+     * @return Returns the value as {@link Integer}, may be null
+     */
+    private static Integer readNullableVarInt(ByteBuffer buffer) {
+        int value = readVarInt(buffer);
+        
+        return (value == 0 ? null : Integer.valueOf(value - 1));
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Reads an unsigned variable length integer written by {@link #writeVarInt(ByteArrayOutputStream, int)}.
+     * 
+     * @param buffer - Where to read from as {@link ByteBuffer}
+     * @return Returns the value as <code>int</code>
+     */
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) { // Last byte...
+                
+                return value;
+            }
+        }
+        
+        throw new IllegalArgumentException("Malformed variable length integer!");
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+/**
+ * This class provides executors which run each task on its own virtual thread.
+ * <p>
+ * The application is built for Java 17, which doesn't have virtual threads,
+ * so they are reached through reflection. When the application is run on
+ * Java 21 or newer they are available; otherwise {@link #isAvailable()} is false
+ * and callers are expected to fall back to platform threads.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class VirtualThreads {
+    private static final Logger log = LogManager.getLogger(VirtualThreads.class);
+    
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builderClass.getMethod("name", String.class, long.class);
+            builderFactory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ReflectiveOperationException e) { // Older than Java 21...
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+    
+    /**
+     * PRIVATE CONSTRUCTOR:<br>
+     * Only static methods are offered by this class.
+     */
+    private VirtualThreads() {}
+    
+    /**
+     * STATIC METHOD:<br>
+     *
+     * @return Returns true if the running Java has virtual threads as <code>boolean</code>
+     */
+    public static boolean isAvailable() {
+        
+        return (OF_VIRTUAL != null);
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Creates an executor which starts a new virtual thread for each task.
+     *
+     * @param prefix - The prefix of the thread names, which are numbered from zero, as {@link String}
+     * @return Returns the executor as {@link ExecutorService}, or null if virtual
+     * threads are not available
+     */
+    public static ExecutorService newPerTaskExecutor(String prefix) {
+        if (!isAvailable()) {
+            
+            return null;
+        }
+        
+        try {
+            Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+            ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Unable to create a virtual thread executor; Falling back to platform threads: ", e);
+            
+            return null;
+        }
+    }
+}
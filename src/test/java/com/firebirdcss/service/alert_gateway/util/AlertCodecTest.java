@@ -0,0 +1,167 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests the encoding of alerts by the {@link AlertCodec}, and the decoding of
+ * alerts encoded by each of its earlier versions.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class AlertCodecTest {
+    private static final long TIMESTAMP = LocalDateTime.of(2026, 10, 18, 9, 30).toInstant(ZoneOffset.UTC).toEpochMilli();
+    
+    @Test
+    public void decodesWhatItEncodes() {
+        AlertRecord alert = new AlertRecord(TIMESTAMP, 4, "10.0.0.1", "router", "Link down on port 12 \u2713");
+        AlertRecord decoded = AlertCodec.decode(ByteBuffer.wrap(AlertCodec.encode(alert)), alert.getSequence());
+        
+        assertEquals(alert.getSequence(), decoded.getSequence());
+        assertEquals(TIMESTAMP, decoded.getTimestamp());
+        assertEquals(4, decoded.getSeverity());
+        assertEquals("10.0.0.1", decoded.getSourceAddress());
+        assertEquals("router", decoded.getSourceName());
+        assertNull(decoded.getRawDate());
+        assertEquals("Link down on port 12 \u2713", decoded.getMessage());
+    }
+    
+    @Test
+    public void keepsTheRawDateAndNulls() {
+        AlertRecord alert = new AlertRecord(-1L, TIMESTAMP, 1, null, "router", "18/10 9:30", null);
+        AlertRecord decoded = AlertCodec.decode(ByteBuffer.wrap(AlertCodec.encode(alert)));
+        
+        assertEquals("18/10 9:30", decoded.getRawDate());
+        assertNull(decoded.getSourceAddress());
+        assertNull(decoded.getMessage());
+        assertTrue("Gets a new sequence id", decoded.getSequence() > alert.getSequence());
+    }
+    
+    @Test
+    public void decodesFromTheCurrentPositionAndLeavesTheRest() {
+        byte[] first = AlertCodec.encode(new AlertRecord(TIMESTAMP, 2, "10.0.0.1", "router", "first"));
+        byte[] second = AlertCodec.encode(new AlertRecord(TIMESTAMP, 3, "10.0.0.2", "switch", "second"));
+        ByteBuffer buffer = ByteBuffer.allocate(first.length + second.length).put(first).put(second).flip();
+        
+        assertEquals("first", AlertCodec.decode(buffer).getMessage());
+        assertEquals(second.length, buffer.remaining());
+        assertEquals("second", AlertCodec.decode(buffer).getMessage());
+        assertFalse(buffer.hasRemaining());
+    }
+    
+    @Test
+    public void decodesVersion2WithoutARawDate() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(2);
+            out.writeByte(5);
+            out.writeLong(TIMESTAMP);
+            writeString(out, "10.0.0.1");
+            writeString(out, "router");
+            writeString(out, "Power lost");
+        }
+        AlertRecord decoded = AlertCodec.decode(ByteBuffer.wrap(bytes.toByteArray()), 42L);
+        
+        assertEquals(42L, decoded.getSequence());
+        assertEquals(TIMESTAMP, decoded.getTimestamp());
+        assertEquals(5, decoded.getSeverity());
+        assertEquals("router", decoded.getSourceName());
+        assertNull(decoded.getRawDate());
+        assertEquals("Power lost", decoded.getMessage());
+    }
+    
+    @Test
+    public void decodesVersion1ParsingItsDate() throws IOException {
+        AlertRecord decoded = AlertCodec.decode(ByteBuffer.wrap(version1("20261018093000+0000", "yyyyMMddHHmmssXX")));
+        
+        assertEquals(TIMESTAMP, decoded.getTimestamp());
+        assertEquals(3, decoded.getSeverity());
+        assertEquals("10.0.0.1", decoded.getSourceAddress());
+        assertEquals("router", decoded.getSourceName());
+        assertNull(decoded.getRawDate());
+        assertEquals("Disk full", decoded.getMessage());
+    }
+    
+    @Test
+    public void decodesVersion1KeepingADateItCannotParse() throws IOException {
+        long before = System.currentTimeMillis();
+        AlertRecord decoded = AlertCodec.decode(ByteBuffer.wrap(version1("18/10 9:30", "yyyyMMdd")));
+        
+        assertEquals("18/10 9:30", decoded.getRawDate());
+        assertTrue("Taken to have occurred when decoded", decoded.getTimestamp() >= before);
+        assertEquals("Disk full", decoded.getMessage());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnUnknownVersion() {
+        byte[] encoded = AlertCodec.encode(new AlertRecord(TIMESTAMP, 4, "10.0.0.1", "router", "message"));
+        encoded[0] = 9;
+        AlertCodec.decode(ByteBuffer.wrap(encoded));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnIncompleteAlert() {
+        byte[] encoded = AlertCodec.encode(new AlertRecord(TIMESTAMP, 4, "10.0.0.1", "router", "message"));
+        AlertCodec.decode(ByteBuffer.wrap(Arrays.copyOf(encoded, encoded.length - 3)));
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Encodes an alert the way version 1 did, as the {@link com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert}
+     * was received.
+     *
+     * @param date - The date of the alert as {@link String}
+     * @param dateMask - The dateMask of the alert as {@link String}
+     * @return Returns the encoded alert as <code>byte[]</code>
+     *
+     * @throws IOException Indicates the alert could not be written.
+     */
+    private static byte[] version1(String date, String dateMask) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(1);
+            out.writeInt(3);
+            writeString(out, "10.0.0.1");
+            writeString(out, "router");
+            writeString(out, date);
+            writeString(out, dateMask);
+            writeString(out, "Disk full");
+        }
+        
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Writes a string as the codec does, as [int byteLength][UTF-8 bytes].
+     *
+     * @param out - Where to write as {@link DataOutputStream}
+     * @param value - The string as {@link String}
+     *
+     * @throws IOException Indicates the string could not be written.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
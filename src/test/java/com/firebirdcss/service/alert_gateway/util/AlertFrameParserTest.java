@@ -0,0 +1,212 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Alert;
+
+/**
+ * Tests the {@link AlertFrameParser} with lines, octet counted frames, frames
+ * which arrive in pieces and frames which are too long.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class AlertFrameParserTest {
+    private static final int MAX_FRAME_BYTES = 64;
+    private static final String ADDRESS = "10.0.0.1";
+    
+    private final AlertFrameParser parser = new AlertFrameParser(MAX_FRAME_BYTES);
+    private final List<Alert> alerts = new ArrayList<>();
+    
+    @Test
+    public void parsesALine() {
+        assertTrue(parse("4|Core-Router|Link down on port 12\n", false));
+        
+        assertEquals(1, alerts.size());
+        Alert alert = alerts.get(0);
+        assertEquals(Integer.valueOf(4), alert.getSeverity());
+        assertEquals("Core-Router", alert.getSourceName());
+        assertEquals("Link down on port 12", alert.getMessage());
+        assertEquals(ADDRESS, alert.getSourceAddress());
+        assertNull(alert.getDate());
+        assertNull(alert.getDateMask());
+    }
+    
+    @Test
+    public void dropsTheCarriageReturnOfACrlfLine() {
+        assertTrue(parse("3|Backup-Server|Disk is full\r\n2|Backup-Server|Disk is fine\r\n", false));
+        
+        assertEquals(2, alerts.size());
+        assertEquals("Disk is full", alerts.get(0).getMessage());
+        assertEquals("Disk is fine", alerts.get(1).getMessage());
+    }
+    
+    @Test
+    public void parsesTheLongForm() {
+        assertTrue(parse("3|Backup-Server|20261018093000|yyyyMMddHHmmss|Disk|90%\n", false));
+        
+        Alert alert = alerts.get(0);
+        assertEquals(Integer.valueOf(3), alert.getSeverity());
+        assertEquals("Backup-Server", alert.getSourceName());
+        assertEquals("20261018093000", alert.getDate());
+        assertEquals("yyyyMMddHHmmss", alert.getDateMask());
+        assertEquals("Disk|90%", alert.getMessage());
+    }
+    
+    @Test
+    public void parsesOctetCountedFrames() {
+        assertTrue(parse("23 4|Core-Router|Link down12 1|Edge|Test\n5|Edge|Line", true));
+        
+        assertEquals(3, alerts.size());
+        assertEquals("Link down", alerts.get(0).getMessage());
+        assertEquals("Test\n", alerts.get(1).getMessage()); // Counted frames keep everything in them
+        assertEquals(Integer.valueOf(5), alerts.get(2).getSeverity());
+        assertEquals("Line", alerts.get(2).getMessage());
+    }
+    
+    @Test
+    public void leavesAPartialLineInTheBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        buffer.put(bytes("4|router|first\n4|router|sec")).flip();
+        
+        assertTrue(parser.parse(buffer, false, ADDRESS, alerts));
+        assertEquals(1, alerts.size());
+        assertEquals("4|router|sec".length(), buffer.remaining());
+        
+        buffer.compact().put(bytes("ond\n")).flip();
+        assertTrue(parser.parse(buffer, false, ADDRESS, alerts));
+        assertEquals(2, alerts.size());
+        assertEquals("second", alerts.get(1).getMessage());
+        assertFalse(buffer.hasRemaining());
+    }
+    
+    @Test
+    public void leavesAPartialOctetCountedFrameInTheBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        buffer.put(bytes("2")).flip();
+        
+        assertTrue("Only digits so far; can't tell the kind of frame", parser.parse(buffer, false, ADDRESS, alerts));
+        assertEquals(1, buffer.remaining());
+        
+        buffer.compact().put(bytes("3 4|Core-Router|Link")).flip();
+        assertTrue(parser.parse(buffer, false, ADDRESS, alerts));
+        assertTrue(alerts.isEmpty());
+        
+        buffer.compact().put(bytes(" down")).flip();
+        assertTrue(parser.parse(buffer, false, ADDRESS, alerts));
+        assertEquals(1, alerts.size());
+        assertEquals("Link down", alerts.get(0).getMessage());
+    }
+    
+    @Test
+    public void parsesAStreamArrivingOneByteAtATime() {
+        String stream = "4|a|one\r\n9 3|b|two\r\n\n5|c|x|y|three\n";
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        for (byte b : bytes(stream)) {
+            buffer.put(b).flip();
+            assertTrue(parser.parse(buffer, false, ADDRESS, alerts));
+            buffer.compact();
+        }
+        
+        assertEquals(3, alerts.size());
+        assertEquals("one", alerts.get(0).getMessage());
+        assertEquals("two\r\n", alerts.get(1).getMessage());
+        assertEquals("three", alerts.get(2).getMessage());
+        assertEquals("x", alerts.get(2).getDate());
+    }
+    
+    @Test
+    public void takesALastLineWithoutANewlineAtTheEndOfInput() {
+        assertTrue(parse("4|router|no newline", true));
+        
+        assertEquals(1, alerts.size());
+        assertEquals("no newline", alerts.get(0).getMessage());
+    }
+    
+    @Test
+    public void failsOnAnOctetCountedFrameCutShortByTheEndOfInput() {
+        assertFalse(parse("30 4|router|short", true));
+        assertTrue(alerts.isEmpty());
+    }
+    
+    @Test
+    public void failsOnAnOversizedLine() {
+        String tooLong = "4|router|" + "x".repeat(MAX_FRAME_BYTES);
+        
+        assertFalse(parse(tooLong + "\n", false));
+        assertTrue(alerts.isEmpty());
+    }
+    
+    @Test
+    public void failsOnAnOversizedLineBeforeItsNewlineArrives() {
+        assertFalse(parse("4|router|" + "x".repeat(MAX_FRAME_BYTES), false));
+        assertTrue(alerts.isEmpty());
+    }
+    
+    @Test
+    public void acceptsALineOfExactlyTheMaxWithItsCarriageReturn() {
+        String line = "4|router|" + "x".repeat(MAX_FRAME_BYTES - "4|router|".length());
+        
+        assertTrue(parse(line + "\r\n", false));
+        assertEquals(1, alerts.size());
+    }
+    
+    @Test
+    public void failsOnAnOversizedOctetCount() {
+        assertFalse(parse((MAX_FRAME_BYTES + 1) + " 4|router|message", false));
+        assertFalse(parse("99999999999 4|router|message", false));
+        assertTrue(alerts.isEmpty());
+    }
+    
+    @Test
+    public void leavesMalformedFramesForTheNotifierToDiscard() {
+        assertTrue(parse("\n\r\nnot an alert\nX|router|bad severity\n4||\n", false));
+        
+        assertEquals(3, alerts.size());
+        assertNull("Too few fields", alerts.get(0).getSeverity());
+        assertNull("Severity is not a number", alerts.get(1).getSeverity());
+        assertEquals("router", alerts.get(1).getSourceName());
+        assertEquals(Integer.valueOf(4), alerts.get(2).getSeverity());
+        assertNull("Empty fields are missing", alerts.get(2).getSourceName());
+        assertNull("Empty fields are missing", alerts.get(2).getMessage());
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     * Parses the given text as one read, adding what is found to {@link #alerts}.
+     *
+     * @param text - The received text as {@link String}
+     * @param endOfInput - True if no more bytes will follow as <code>boolean</code>
+     * @return Returns the result of the parse as <code>boolean</code>
+     */
+    private boolean parse(String text, boolean endOfInput) {
+        
+        return parser.parse(ByteBuffer.wrap(bytes(text)), endOfInput, ADDRESS, alerts);
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param text - The text as {@link String}
+     * @return Returns the text in UTF-8 as <code>byte[]</code>
+     */
+    private static byte[] bytes(String text) {
+        
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the replay of the {@link AlertJournal} and the deletion of its
+ * segments once every alert in them has been delivered.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class AlertJournalTest {
+    private static final int SMALL_SEGMENT_BYTES = 256; // Holds a few alerts
+    
+    private Path dir;
+    
+    @Before
+    public void setUp() throws IOException {
+        dir = TempDirectory.create("alert-journal-test");
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        TempDirectory.delete(dir);
+    }
+    
+    @Test
+    public void replaysOnlyUndeliveredAlerts() throws IOException {
+        AlertJournal journal = new AlertJournal(dir.toString(), 64 * 1024);
+        assertEquals(0, journal.open((alert, ref) -> {}));
+        long first = journal.append(record(4, "first"));
+        long second = journal.append(record(2, "second"));
+        long third = journal.append(record(5, "third"));
+        journal.commit(third);
+        journal.markDelivered(second);
+        journal.flush();
+        
+        List<AlertRecord> replayed = new ArrayList<>();
+        List<Long> refs = new ArrayList<>();
+        AlertJournal reopened = new AlertJournal(dir.toString(), 64 * 1024);
+        assertEquals(2, reopened.open((alert, ref) -> {
+            replayed.add(alert);
+            refs.add(ref);
+        }));
+        assertEquals("first", replayed.get(0).getMessage());
+        assertEquals(4, replayed.get(0).getSeverity());
+        assertEquals("router", replayed.get(0).getSourceName());
+        assertEquals("third", replayed.get(1).getMessage());
+        assertEquals(5, replayed.get(1).getSeverity());
+        assertEquals(Long.valueOf(first), refs.get(0));
+        assertEquals(Long.valueOf(third), refs.get(1));
+    }
+    
+    @Test
+    public void deletesSegmentsOnceDelivered() throws IOException {
+        AlertJournal journal = new AlertJournal(dir.toString(), SMALL_SEGMENT_BYTES);
+        journal.open((alert, ref) -> {});
+        List<Long> refs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            refs.add(Long.valueOf(journal.append(record(3, "alert " + i))));
+        }
+        journal.commit(refs.get(refs.size() - 1).longValue());
+        assertTrue("Expected the alerts to span several segments", segmentFiles().size() > 2);
+        
+        for (Long ref : refs) {
+            journal.markDelivered(ref.longValue());
+        }
+        assertEquals("Only the active segment should be left", 1, segmentFiles().size());
+        
+        journal.flush();
+        AlertJournal reopened = new AlertJournal(dir.toString(), SMALL_SEGMENT_BYTES);
+        assertEquals(0, reopened.open((alert, ref) -> {}));
+        assertEquals("The old active segment is deleted once replayed", 1, segmentFiles().size());
+    }
+    
+    @Test
+    public void keepsSegmentsWithUndeliveredAlerts() throws IOException {
+        AlertJournal journal = new AlertJournal(dir.toString(), SMALL_SEGMENT_BYTES);
+        journal.open((alert, ref) -> {});
+        List<Long> refs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            refs.add(Long.valueOf(journal.append(record(3, "alert " + i))));
+        }
+        journal.commit(refs.get(refs.size() - 1).longValue());
+        for (int i = 1; i < refs.size(); i++) { // All but the very first
+            journal.markDelivered(refs.get(i).longValue());
+        }
+        List<Path> files = segmentFiles();
+        assertEquals("The first segment and the active one should be left", 2, files.size());
+        
+        journal.flush();
+        List<AlertRecord> replayed = new ArrayList<>();
+        AlertJournal reopened = new AlertJournal(dir.toString(), SMALL_SEGMENT_BYTES);
+        assertEquals(1, reopened.open((alert, ref) -> replayed.add(alert)));
+        assertEquals("alert 0", replayed.get(0).getMessage());
+    }
+    
+    @Test
+    public void ignoresTheRestOfASegmentAfterADamagedRecord() throws IOException {
+        AlertJournal journal = new AlertJournal(dir.toString(), 64 * 1024);
+        journal.open((alert, ref) -> {});
+        journal.append(record(1, "kept"));
+        long damaged = journal.append(record(1, "damaged"));
+        long after = journal.append(record(1, "after"));
+        journal.commit(after);
+        
+        /* Flip a byte in the payload of the second record, past its header */
+        try (RandomAccessFile raf = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            long position = (int) damaged + 9L + 2L;
+            raf.seek(position);
+            int b = raf.read();
+            raf.seek(position);
+            raf.write(b ^ 0xFF);
+        }
+        
+        List<AlertRecord> replayed = new ArrayList<>();
+        AlertJournal reopened = new AlertJournal(dir.toString(), 64 * 1024);
+        assertEquals(1, reopened.open((alert, ref) -> replayed.add(alert)));
+        assertEquals("kept", replayed.get(0).getMessage());
+    }
+    
+    @Test(expected = IOException.class)
+    public void rejectsAlertsTooLargeForASegment() throws IOException {
+        AlertJournal journal = new AlertJournal(dir.toString(), SMALL_SEGMENT_BYTES);
+        journal.open((alert, ref) -> {});
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < SMALL_SEGMENT_BYTES; i++) {
+            message.append('x');
+        }
+        journal.append(record(1, message.toString()));
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param severity - The severity of the alert as <code>int</code>
+     * @param message - The message of the alert as {@link String}
+     * @return Returns a record of an alert from 'router' as {@link AlertRecord}
+     */
+    private static AlertRecord record(int severity, String message) {
+        
+        return new AlertRecord(System.currentTimeMillis(), severity, "10.0.0.1", "router", message);
+    }
+    
+    /**
+     * PRIVATE METHOD:<br>
+     *
+     * @return Returns the segment files in the journal directory, oldest first, as {@link List}
+     *
+     * @throws IOException Indicates the directory could not be listed.
+     */
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            
+            return files.filter((f) -> f.getFileName().toString().endsWith(".segment")).sorted().collect(Collectors.toList());
+        }
+    }
+}
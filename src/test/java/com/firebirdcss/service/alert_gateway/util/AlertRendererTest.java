@@ -0,0 +1,133 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Properties;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Multipart;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the rendering of alerts into messages by the {@link AlertRenderer},
+ * in particular the HTML escaping of the alert's values.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class AlertRendererTest {
+    private static final String SUBJECT = "${severity} from ${sourceName}";
+    private static final String TEXT = "${date} ${sourceAddress}: ${message}";
+    private static final String HTML = "<p><b>${sourceName}</b> ${message}</p>";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneOffset.UTC);
+    private static final long TIMESTAMP = LocalDateTime.of(2026, 10, 18, 9, 30).toInstant(ZoneOffset.UTC).toEpochMilli();
+    
+    private final Session session = Session.getInstance(new Properties());
+    private InternetAddress from;
+    private Address[] to;
+    
+    @Before
+    public void setUp() throws MessagingException {
+        from = new InternetAddress("gateway@example.com");
+        to = new Address[] {new InternetAddress("admin@example.com")};
+    }
+    
+    @Test
+    public void escapesTheValuesInTheHtml() throws MessagingException, IOException {
+        AlertRenderer renderer = new AlertRenderer(session, from, SUBJECT, TEXT, HTML, DATE_FORMAT);
+        Message message = renderer.render(record("R&D <lab>", "<script>alert('x')</script> \"now\""), 0, to);
+        
+        Multipart parts = (Multipart) message.getContent();
+        assertEquals(2, parts.getCount());
+        assertEquals(
+            "<p><b>R&amp;D &lt;lab&gt;</b> &lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt; &quot;now&quot;</p>",
+            parts.getBodyPart(1).getContent()
+        );
+    }
+    
+    @Test
+    public void leavesThePlainTextAndSubjectAsSent() throws MessagingException, IOException {
+        AlertRenderer renderer = new AlertRenderer(session, from, SUBJECT, TEXT, HTML, DATE_FORMAT);
+        Message message = renderer.render(record("R&D <lab>", "<b>bold</b> & 'quoted'"), 0, to);
+        
+        assertEquals("CRITICAL from R&D <lab>", ((MimeMessage) message).getSubject());
+        Multipart parts = (Multipart) message.getContent();
+        assertEquals("2026-10-18 09:30 10.0.0.1: <b>bold</b> & 'quoted'", parts.getBodyPart(0).getContent());
+    }
+    
+    @Test
+    public void sendsPlainTextAloneWithoutAnHtmlTemplate() throws MessagingException, IOException {
+        AlertRenderer renderer = new AlertRenderer(session, from, SUBJECT, TEXT, "", DATE_FORMAT);
+        Message message = renderer.render(record("router", "<link down>"), 0, to);
+        
+        assertEquals("2026-10-18 09:30 10.0.0.1: <link down>", message.getContent());
+    }
+    
+    @Test
+    public void escapesTheRawDateOfAnAlertWhoseDateWasNotParsed() throws MessagingException, IOException {
+        AlertRenderer renderer = new AlertRenderer(session, from, SUBJECT, TEXT, "<i>${date}</i>", DATE_FORMAT);
+        AlertRecord alert = new AlertRecord(-1L, TIMESTAMP, 4, "10.0.0.1", "router", "18/10 <9:30>", "Link down");
+        Message message = renderer.render(alert, 0, to);
+        
+        Multipart parts = (Multipart) message.getContent();
+        assertEquals("18/10 <9:30> 10.0.0.1: Link down", parts.getBodyPart(0).getContent());
+        assertEquals("<i>18/10 &lt;9:30&gt;</i>", parts.getBodyPart(1).getContent());
+    }
+    
+    @Test
+    public void notesTheSuppressedDuplicates() throws MessagingException, IOException {
+        AlertRenderer renderer = new AlertRenderer(session, from, SUBJECT, TEXT, HTML, DATE_FORMAT);
+        Message message = renderer.render(record("router", "Link down"), 3, to);
+        
+        Multipart parts = (Multipart) message.getContent();
+        assertTrue(((String) parts.getBodyPart(0).getContent()).endsWith("\n\n(This Alert was repeated 3 more time(s) since it was last sent.)"));
+        assertTrue(((String) parts.getBodyPart(1).getContent()).endsWith("<p>(This Alert was repeated 3 more time(s) since it was last sent.)</p>"));
+    }
+    
+    @Test
+    public void escapesTheSubjectsInTheHtmlOfADigest() throws MessagingException, IOException {
+        AlertRenderer renderer = new AlertRenderer(session, from, SUBJECT, TEXT, HTML, DATE_FORMAT);
+        Message message = renderer.renderDigest(to[0], Arrays.asList(record("a<b", "first"), record("c&d", "second")), new int[] {0, 0});
+        
+        assertEquals("Alert digest of 2 Alerts", ((MimeMessage) message).getSubject());
+        String html = (String) ((Multipart) message.getContent()).getBodyPart(1).getContent();
+        assertTrue(html.contains("<h3>CRITICAL from a&lt;b</h3>"));
+        assertTrue(html.contains("<h3>CRITICAL from c&amp;d</h3>"));
+    }
+    
+    @Test(expected = MessagingException.class)
+    public void failsWithoutAFromAddress() throws MessagingException {
+        AlertRenderer renderer = new AlertRenderer(session, null, SUBJECT, TEXT, HTML, DATE_FORMAT);
+        renderer.render(record("router", "Link down"), 0, to);
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param sourceName - The sourceName of the alert as {@link String}
+     * @param message - The message of the alert as {@link String}
+     * @return Returns a CRITICAL alert from '10.0.0.1' as {@link AlertRecord}
+     */
+    private static AlertRecord record(String sourceName, String message) {
+        
+        return new AlertRecord(TIMESTAMP, 4, "10.0.0.1", sourceName, message);
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.Test;
+
+/**
+ * Tests the parsing of alert dates by the {@link DateMaskParser}, the dates
+ * and masks it can't parse, and the bound on the masks it caches.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class DateMaskParserTest {
+    private final DateMaskParser parser = new DateMaskParser(10);
+    
+    @Test
+    public void parsesADateWithAnOffset() {
+        long expected = LocalDateTime.of(2026, 10, 18, 9, 30, 15).toInstant(ZoneOffset.ofHours(-5)).toEpochMilli();
+        
+        assertEquals(expected, parser.parse("20261018093015-0500", "yyyyMMddHHmmssXX"));
+    }
+    
+    @Test
+    public void takesADateWithoutAZoneToBeInTheDefaultZone() {
+        long expected = LocalDateTime.of(2026, 10, 18, 9, 30, 15).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        
+        assertEquals(expected, parser.parse("20261018093015", "yyyyMMddHHmmss"));
+        assertEquals("Surrounding whitespace is ignored", expected, parser.parse(" 20261018093015 ", "yyyyMMddHHmmss"));
+    }
+    
+    @Test
+    public void takesADateWithoutATimeToBeAtMidnight() {
+        long expected = LocalDateTime.of(2026, 10, 18, 0, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        
+        assertEquals(expected, parser.parse("2026-10-18", "yyyy-MM-dd"));
+    }
+    
+    @Test
+    public void doesNotParseATimeAlone() {
+        assertEquals(DateMaskParser.UNPARSED, parser.parse("09:30", "HH:mm"));
+    }
+    
+    @Test
+    public void doesNotParseAMissingDateOrMask() {
+        assertEquals(DateMaskParser.UNPARSED, parser.parse(null, "yyyyMMdd"));
+        assertEquals(DateMaskParser.UNPARSED, parser.parse(" ", "yyyyMMdd"));
+        assertEquals(DateMaskParser.UNPARSED, parser.parse("20261018", null));
+        assertEquals(DateMaskParser.UNPARSED, parser.parse("20261018", ""));
+        assertEquals(0, parser.size());
+    }
+    
+    @Test
+    public void doesNotParseADateWhichDoesNotMatchItsMask() {
+        assertEquals(DateMaskParser.UNPARSED, parser.parse("10/18/2026", "yyyyMMdd"));
+        assertEquals(DateMaskParser.UNPARSED, parser.parse("20261318", "yyyyMMdd"));
+        assertEquals("The mask still works for dates which match",
+            LocalDateTime.of(2026, 10, 18, 0, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+            parser.parse("20261018", "yyyyMMdd")
+        );
+    }
+    
+    @Test
+    public void doesNotParseWithAnInvalidMask() {
+        assertEquals(DateMaskParser.UNPARSED, parser.parse("20261018", "yyyy{MMdd"));
+        assertEquals(DateMaskParser.UNPARSED, parser.parse("20261018", "yyyy{MMdd"));
+        assertEquals("Invalid masks are cached too", 1, parser.size());
+    }
+    
+    @Test
+    public void cachesNoMoreThanTheMaxMasks() {
+        DateMaskParser bounded = new DateMaskParser(2);
+        bounded.parse("2026", "yyyy");
+        bounded.parse("202610", "yyyyMM");
+        bounded.parse("2026", "yyyy");
+        assertEquals(2, bounded.size());
+        
+        long expected = LocalDateTime.of(2026, 10, 18, 0, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        assertEquals("Masks which don't fit are still used", expected, bounded.parse("20261018", "yyyyMMdd"));
+        assertEquals(2, bounded.size());
+    }
+}
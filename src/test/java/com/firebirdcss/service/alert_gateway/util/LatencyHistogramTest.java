@@ -0,0 +1,131 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the buckets of the {@link LatencyHistogram} at the edges of each power
+ * of two and of its range, and the cumulative counts written out from them.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class LatencyHistogramTest {
+    private static final long MAX_VALUE = 1L << 42; // Past the range of the buckets
+    
+    @Test
+    public void countsSmallLatenciesExactly() {
+        assertEquals(0L, percentile100(0L));
+        assertEquals(1L, percentile100(1L));
+        assertEquals(15L, percentile100(15L));
+    }
+    
+    @Test
+    public void countsTheFirstPowersOfTwoExactly() {
+        assertEquals(16L, percentile100(16L));
+        assertEquals(17L, percentile100(17L));
+        assertEquals(31L, percentile100(31L));
+    }
+    
+    @Test
+    public void widensTheBucketsPastThirtyTwo() {
+        assertEquals(33L, percentile100(32L)); // 32 and 33 share a bucket
+        assertEquals(33L, percentile100(33L));
+        assertEquals(35L, percentile100(34L));
+        assertEquals(63L, percentile100(62L));
+        assertEquals(67L, percentile100(64L));
+    }
+    
+    @Test
+    public void keepsEachBucketWithinASixteenthOfItsLatencies() {
+        for (long value = 16L; value < MAX_VALUE; value = value * 3L / 2L) {
+            long upper = percentile100(value);
+            assertTrue("Upper end of the bucket of " + value, upper >= value && upper - value <= value / 16L);
+        }
+    }
+    
+    @Test
+    public void countsLatenciesPastTheRangeInTheLastBucket() {
+        assertEquals(MAX_VALUE - 1L, percentile100(MAX_VALUE - 1L));
+        assertEquals(MAX_VALUE - 1L, percentile100(MAX_VALUE));
+        assertEquals(MAX_VALUE - 1L, percentile100(Long.MAX_VALUE));
+    }
+    
+    @Test
+    public void takesNegativeLatenciesAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5L);
+        
+        assertEquals(0L, histogram.getValueAtPercentile(100.0D));
+        assertEquals(0L, histogram.getSumNanos());
+    }
+    
+    @Test
+    public void estimatesPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals("Nothing recorded", 0L, histogram.getValueAtPercentile(50.0D));
+        for (long value = 1L; value <= 10L; value++) {
+            histogram.record(value);
+        }
+        
+        assertEquals(1L, histogram.getValueAtPercentile(0.0D));
+        assertEquals(5L, histogram.getValueAtPercentile(50.0D));
+        assertEquals(9L, histogram.getValueAtPercentile(90.0D));
+        assertEquals(10L, histogram.getValueAtPercentile(100.0D));
+        assertEquals(55L, histogram.getSumNanos());
+    }
+    
+    @Test
+    public void countsABucketAtABoundOnlyOnceAllOfItIsAtOrBelowIt() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(15L);
+        histogram.record(16L);
+        histogram.record(31L);
+        histogram.record(32L);
+        
+        assertArrayEquals(
+            new long[] {1L, 2L, 3L, 3L, 4L, 4L},
+            histogram.cumulativeCounts(new long[] {15L, 16L, 31L, 32L, 33L})
+        );
+    }
+    
+    @Test
+    public void countsEverythingAtTheLastBoundAndTheTotal() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10L);
+        histogram.record(MAX_VALUE);
+        
+        assertArrayEquals(new long[] {0L, 1L, 1L, 2L}, histogram.cumulativeCounts(new long[] {9L, 10L, 1_000L}));
+        assertArrayEquals("Only the total without bounds", new long[] {2L}, histogram.cumulativeCounts(new long[0]));
+    }
+    
+    @Test
+    public void sumsInSeconds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_500_000_000L);
+        histogram.record(500_000_000L);
+        
+        assertEquals(2.0D, histogram.getSumSeconds(), 0.0D);
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param value - The latency to record as <code>long</code>
+     * @return Returns the upper end of the bucket the latency alone was counted in as <code>long</code>
+     */
+    private static long percentile100(long value) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(value);
+        
+        return histogram.getValueAtPercentile(100.0D);
+    }
+}
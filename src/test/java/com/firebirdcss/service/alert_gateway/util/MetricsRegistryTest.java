@@ -0,0 +1,152 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.firebirdcss.service.alert_gateway.util.MetricsRegistry.SeverityCounter;
+
+/**
+ * Tests the Prometheus text exposition format written out by the
+ * {@link MetricsRegistry}.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class MetricsRegistryTest {
+    
+    @Test
+    public void writesCountersAndGaugesKeptElsewhere() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong depth = new AtomicLong(3L);
+        registry.counter("alerts_dropped_total", "Alerts dropped.", () -> 7L);
+        registry.gauge("queue_depth", "Alerts waiting.", depth::get);
+        depth.set(5L); // Read when written out
+        
+        assertEquals(
+            "# HELP alerts_dropped_total Alerts dropped.\n"
+            + "# TYPE alerts_dropped_total counter\n"
+            + "alerts_dropped_total 7\n"
+            + "# HELP queue_depth Alerts waiting.\n"
+            + "# TYPE queue_depth gauge\n"
+            + "queue_depth 5\n",
+            registry.scrape()
+        );
+    }
+    
+    @Test
+    public void writesASeriesForEachSeverityUnderOneFamily() {
+        MetricsRegistry registry = new MetricsRegistry();
+        SeverityCounter accepted = registry.severityCounter("alerts_total", "Alerts received.", "result=\"accepted\"");
+        SeverityCounter rejected = registry.severityCounter("alerts_total", "Alerts received.", "result=\"rejected\"");
+        accepted.increment(Integer.valueOf(4));
+        accepted.increment(Integer.valueOf(4));
+        rejected.increment(Integer.valueOf(1));
+        
+        assertEquals(
+            "# HELP alerts_total Alerts received.\n"
+            + "# TYPE alerts_total counter\n"
+            + "alerts_total{severity=\"TEST\",result=\"accepted\"} 0\n"
+            + "alerts_total{severity=\"INFORMATIONAL\",result=\"accepted\"} 0\n"
+            + "alerts_total{severity=\"WARNING\",result=\"accepted\"} 0\n"
+            + "alerts_total{severity=\"CRITICAL\",result=\"accepted\"} 2\n"
+            + "alerts_total{severity=\"EMERGENCY\",result=\"accepted\"} 0\n"
+            + "alerts_total{severity=\"TEST\",result=\"rejected\"} 1\n"
+            + "alerts_total{severity=\"INFORMATIONAL\",result=\"rejected\"} 0\n"
+            + "alerts_total{severity=\"WARNING\",result=\"rejected\"} 0\n"
+            + "alerts_total{severity=\"CRITICAL\",result=\"rejected\"} 0\n"
+            + "alerts_total{severity=\"EMERGENCY\",result=\"rejected\"} 0\n",
+            registry.scrape()
+        );
+    }
+    
+    @Test
+    public void writesUnknownSeveritiesOnlyOnceThereAreAny() {
+        MetricsRegistry registry = new MetricsRegistry();
+        SeverityCounter inFlight = registry.severityGauge("alerts_in_flight", "Alerts being sent.");
+        assertFalse(registry.scrape().contains("UNKNOWN"));
+        
+        inFlight.increment(null);
+        inFlight.increment(Integer.valueOf(9));
+        inFlight.increment(Integer.valueOf(-1));
+        inFlight.increment(Integer.valueOf(5));
+        inFlight.decrement(Integer.valueOf(5));
+        
+        String scrape = registry.scrape();
+        assertTrue(scrape.startsWith("# HELP alerts_in_flight Alerts being sent.\n# TYPE alerts_in_flight gauge\n"));
+        assertTrue(scrape.contains("alerts_in_flight{severity=\"UNKNOWN\"} 3\n"));
+        assertTrue(scrape.contains("alerts_in_flight{severity=\"EMERGENCY\"} 0\n"));
+        assertEquals(3L, inFlight.get(null));
+    }
+    
+    @Test
+    public void writesTheCumulativeBucketsOfAHistogram() {
+        MetricsRegistry registry = new MetricsRegistry();
+        LatencyHistogram histogram = registry.histogram("delivery_seconds", "Time to deliver.");
+        histogram.record(400_000L); // 0.0004 seconds
+        histogram.record(20_000_000L); // 0.02 seconds
+        histogram.record(400_000_000_000L); // 400 seconds, past every bound
+        
+        assertEquals(
+            "# HELP delivery_seconds Time to deliver.\n"
+            + "# TYPE delivery_seconds histogram\n"
+            + "delivery_seconds_bucket{le=\"0.001\"} 1\n"
+            + "delivery_seconds_bucket{le=\"0.0025\"} 1\n"
+            + "delivery_seconds_bucket{le=\"0.005\"} 1\n"
+            + "delivery_seconds_bucket{le=\"0.01\"} 1\n"
+            + "delivery_seconds_bucket{le=\"0.025\"} 2\n"
+            + "delivery_seconds_bucket{le=\"0.05\"} 2\n"
+            + "delivery_seconds_bucket{le=\"0.1\"} 2\n"
+            + "delivery_seconds_bucket{le=\"0.25\"} 2\n"
+            + "delivery_seconds_bucket{le=\"0.5\"} 2\n"
+            + "delivery_seconds_bucket{le=\"1\"} 2\n"
+            + "delivery_seconds_bucket{le=\"2.5\"} 2\n"
+            + "delivery_seconds_bucket{le=\"5\"} 2\n"
+            + "delivery_seconds_bucket{le=\"10\"} 2\n"
+            + "delivery_seconds_bucket{le=\"30\"} 2\n"
+            + "delivery_seconds_bucket{le=\"60\"} 2\n"
+            + "delivery_seconds_bucket{le=\"300\"} 2\n"
+            + "delivery_seconds_bucket{le=\"+Inf\"} 3\n"
+            + "delivery_seconds_sum 400.0204\n"
+            + "delivery_seconds_count 3\n",
+            registry.scrape()
+        );
+    }
+    
+    @Test
+    public void writesAnEmptyHistogram() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.histogram("delivery_seconds", "Time to deliver.");
+        
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("delivery_seconds_bucket{le=\"0.001\"} 0\n"));
+        assertTrue(scrape.contains("delivery_seconds_bucket{le=\"+Inf\"} 0\n"));
+        assertTrue(scrape.endsWith("delivery_seconds_sum 0.0\ndelivery_seconds_count 0\n"));
+    }
+    
+    @Test
+    public void writesFamiliesInTheOrderTheyWereRegistered() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.gauge("b_gauge", "Second.", () -> 1L);
+        registry.counter("a_total", "First.", () -> 1L);
+        
+        String scrape = registry.scrape();
+        assertTrue(scrape.indexOf("b_gauge") < scrape.indexOf("a_total"));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsANameRegisteredAsAnotherType() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("alerts_total", "Alerts received.", () -> 1L);
+        registry.gauge("alerts_total", "Alerts received.", () -> 1L);
+    }
+}
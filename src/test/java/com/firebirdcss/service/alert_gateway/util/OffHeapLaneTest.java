@@ -0,0 +1,241 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link OffHeapLane}, in particular items which cross from one
+ * chunk to the next and the reuse of the chunks which have been taken from.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class OffHeapLaneTest {
+    private static final int CHUNK_BYTES = 64; // Holds three of the small items
+    private static final SeverityLaneQueue.Codec<String> STRINGS = new SeverityLaneQueue.Codec<String>() {
+        @Override
+        public byte[] encode(String item) {
+            
+            return item.getBytes(StandardCharsets.UTF_8);
+        }
+        
+        @Override
+        public String decode(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+    
+    @Test
+    public void keepsTheOrderAcrossChunks() {
+        OffHeapLane<String> lane = new OffHeapLane<>(CHUNK_BYTES, STRINGS);
+        for (int i = 0; i < 100; i++) {
+            lane.offer(String.format("item-%03d", i));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(lane.hasHead());
+            assertEquals(String.format("item-%03d", i), lane.poll());
+        }
+        assertFalse(lane.hasHead());
+        assertNull(lane.peek());
+        assertNull(lane.poll());
+    }
+    
+    @Test
+    public void fillsAChunkExactly() {
+        OffHeapLane<String> lane = new OffHeapLane<>(CHUNK_BYTES, STRINGS);
+        String exact = repeat('x', CHUNK_BYTES - 12); // Header plus payload is the whole chunk
+        lane.offer(exact);
+        lane.offer("next");
+        
+        assertEquals(exact, lane.poll());
+        assertEquals("next", lane.poll());
+        assertFalse(lane.hasHead());
+    }
+    
+    @Test
+    public void givesAnOversizedItemAChunkOfItsOwn() {
+        OffHeapLane<String> lane = new OffHeapLane<>(CHUNK_BYTES, STRINGS);
+        String large = repeat('y', CHUNK_BYTES * 3);
+        lane.offer("before");
+        lane.offer(large);
+        lane.offer("after");
+        
+        assertEquals("before", lane.poll());
+        assertEquals(large, lane.poll());
+        assertEquals("after", lane.poll());
+        assertFalse(lane.hasHead());
+    }
+    
+    @Test
+    public void peekDecodesTheHeadWithoutTakingIt() {
+        OffHeapLane<String> lane = new OffHeapLane<>(CHUNK_BYTES, STRINGS);
+        lane.offer("first");
+        lane.offer("second");
+        
+        assertEquals("first", lane.peek());
+        assertEquals("first", lane.peek());
+        assertEquals("first", lane.poll());
+        assertEquals("second", lane.peek());
+    }
+    
+    @Test
+    public void recordsWhenEachItemWasOffered() {
+        OffHeapLane<String> lane = new OffHeapLane<>(CHUNK_BYTES, STRINGS);
+        long before = System.nanoTime();
+        lane.offer("timed");
+        long after = System.nanoTime();
+        
+        assertTrue(lane.hasHead());
+        long enqueued = lane.headEnqueuedNanos();
+        assertTrue(enqueued - before >= 0L);
+        assertTrue(after - enqueued >= 0L);
+    }
+    
+    @Test
+    public void reusesATakenChunkAsTheNextChunk() throws ReflectiveOperationException {
+        OffHeapLane<String> lane = new OffHeapLane<>(CHUNK_BYTES, STRINGS);
+        Object first = field(lane, "head");
+        for (int i = 0; i < 4; i++) { // Three fill the first chunk, the fourth starts the second
+            lane.offer("item-" + i);
+        }
+        assertNotNull(field(lane, "tail"));
+        for (int i = 0; i < 3; i++) {
+            assertEquals("item-" + i, lane.poll());
+        }
+        assertTrue(lane.hasHead()); // Moves on to the second chunk
+        
+        AtomicReference<?> spare = (AtomicReference<?>) field(lane, "spare");
+        assertSame("The taken chunk should be kept as the spare", first, spare.get());
+        
+        for (int i = 4; i < 7; i++) { // Fills the second chunk and needs a third
+            lane.offer("item-" + i);
+        }
+        assertSame("The spare should have been chained on", first, field(lane, "tail"));
+        assertNull(spare.get());
+        for (int i = 3; i < 7; i++) {
+            assertEquals("item-" + i, lane.poll());
+        }
+        assertFalse(lane.hasHead());
+    }
+    
+    @Test
+    public void doesNotKeepAnOversizedChunkAsTheSpare() throws ReflectiveOperationException {
+        OffHeapLane<String> lane = new OffHeapLane<>(CHUNK_BYTES, STRINGS);
+        Object first = field(lane, "head");
+        String large = repeat('z', CHUNK_BYTES * 2); // Its chunk is filled by it exactly
+        lane.offer(large);
+        lane.offer("after");
+        
+        assertEquals(large, lane.poll()); // Moves past the first chunk, which becomes the spare
+        assertEquals("after", lane.poll()); // Moves past the oversized chunk
+        assertSame("The oversized chunk should not replace the spare", first, ((AtomicReference<?>) field(lane, "spare")).get());
+        assertEquals(CHUNK_BYTES, ((ByteBuffer) field(first, "buffer")).capacity());
+    }
+    
+    @Test
+    public void staysInOrderWhileChunksAreRecycled() {
+        OffHeapLane<String> lane = new OffHeapLane<>(CHUNK_BYTES, STRINGS);
+        int offered = 0;
+        int taken = 0;
+        for (int round = 0; round < 2000; round++) {
+            for (int i = 0; i < 5; i++) {
+                lane.offer("item-" + offered++);
+            }
+            for (int i = 0; i < 4; i++) {
+                assertEquals("item-" + taken++, lane.poll());
+            }
+        }
+        while (lane.hasHead()) {
+            assertEquals("item-" + taken++, lane.poll());
+        }
+        assertEquals(offered, taken);
+    }
+    
+    @Test
+    public void takesFromManyProducersInTheirOwnOrder() throws InterruptedException {
+        OffHeapLane<String> lane = new OffHeapLane<>(CHUNK_BYTES, STRINGS);
+        int producers = 4;
+        int perProducer = 20000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    lane.offer(producer + ":" + i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        
+        int[] nextExpected = new int[producers];
+        int taken = 0;
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (taken < producers * perProducer && System.nanoTime() - deadline < 0L) {
+            String item = lane.poll();
+            if (item == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int colon = item.indexOf(':');
+            int producer = Integer.parseInt(item.substring(0, colon));
+            assertEquals(nextExpected[producer]++, Integer.parseInt(item.substring(colon + 1)));
+            taken++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(producers * perProducer, taken);
+        assertFalse(lane.hasHead());
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Reads a private field, to see which chunks the lane is holding on to.
+     *
+     * @param target - The object to read from as {@link Object}
+     * @param name - The name of the field as {@link String}
+     * @return Returns the value of the field as {@link Object}
+     *
+     * @throws ReflectiveOperationException Indicates the field doesn't exist.
+     */
+    private static Object field(Object target, String name) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        
+        return field.get(target);
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param c - The character to repeat as <code>char</code>
+     * @param count - How many times to repeat it as <code>int</code>
+     * @return Returns the repeated character as {@link String}
+     */
+    private static String repeat(char c, int count) {
+        
+        return String.valueOf(c).repeat(count);
+    }
+}
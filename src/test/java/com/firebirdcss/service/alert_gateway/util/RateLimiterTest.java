@@ -0,0 +1,161 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests the token buckets of the {@link RateLimiter}, the handing back of
+ * tokens and the sharing of the overflow buckets once the bound is reached.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class RateLimiterTest {
+    private static final int ONE_A_MINUTE = 1; // Nothing refills while a test runs
+    
+    @Test
+    public void limitsNothingWhenDisabled() {
+        RateLimiter limiter = new RateLimiter(0, 1, 10);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire("router"));
+        }
+        
+        assertFalse(limiter.isEnabled());
+        assertEquals(0L, limiter.getLimited());
+    }
+    
+    @Test
+    public void limitsNothingWithoutAKey() {
+        RateLimiter limiter = new RateLimiter(ONE_A_MINUTE, 1, 10);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire(null));
+        }
+        
+        assertTrue(limiter.isEnabled());
+        assertEquals(0L, limiter.getLimited());
+    }
+    
+    @Test
+    public void allowsTheBurstThenLimits() {
+        RateLimiter limiter = new RateLimiter(ONE_A_MINUTE, 3, 10);
+        assertTrue(limiter.tryAcquire("router"));
+        assertTrue(limiter.tryAcquire("router"));
+        assertTrue(limiter.tryAcquire("router"));
+        
+        assertFalse(limiter.tryAcquire("router"));
+        assertFalse(limiter.tryAcquire("router"));
+        assertEquals(2L, limiter.getLimited());
+    }
+    
+    @Test
+    public void limitsEachKeyOnItsOwn() {
+        RateLimiter limiter = new RateLimiter(ONE_A_MINUTE, 1, 10);
+        assertTrue(limiter.tryAcquire("router"));
+        assertFalse(limiter.tryAcquire("router"));
+        
+        assertTrue(limiter.tryAcquire("switch"));
+        assertFalse(limiter.tryAcquire("switch"));
+    }
+    
+    @Test
+    public void refillsOverTime() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(6000, 1, 10); // A token every 10 milliseconds
+        assertTrue(limiter.tryAcquire("router"));
+        assertFalse(limiter.tryAcquire("router"));
+        TimeUnit.MILLISECONDS.sleep(50L);
+        
+        assertTrue(limiter.tryAcquire("router"));
+    }
+    
+    @Test
+    public void takesBackAReleasedToken() {
+        RateLimiter limiter = new RateLimiter(ONE_A_MINUTE, 2, 10);
+        assertTrue(limiter.tryAcquire("router"));
+        assertTrue(limiter.tryAcquire("router"));
+        limiter.release("router");
+        
+        assertTrue(limiter.tryAcquire("router"));
+        assertFalse(limiter.tryAcquire("router"));
+    }
+    
+    @Test
+    public void doesNotHoldMoreThanTheBurstAfterARelease() {
+        RateLimiter limiter = new RateLimiter(ONE_A_MINUTE, 1, 10);
+        limiter.release("router"); // Nothing was taken
+        
+        assertTrue(limiter.tryAcquire("router"));
+        assertFalse(limiter.tryAcquire("router"));
+    }
+    
+    @Test
+    public void drainsTheLimitedCountsByKey() {
+        RateLimiter limiter = new RateLimiter(ONE_A_MINUTE, 1, 10);
+        limiter.tryAcquire("router");
+        limiter.tryAcquire("router");
+        limiter.tryAcquire("router");
+        limiter.tryAcquire("switch");
+        limiter.tryAcquire("switch");
+        limiter.tryAcquire("server");
+        
+        Map<String, Long> counts = limiter.drainLimited();
+        assertEquals(2, counts.size());
+        assertEquals(Long.valueOf(2L), counts.get("router"));
+        assertEquals(Long.valueOf(1L), counts.get("switch"));
+        assertTrue("The counts are cleared once drained", limiter.drainLimited().isEmpty());
+        assertEquals(3L, limiter.getLimited());
+    }
+    
+    @Test
+    public void sharesAnOverflowBucketOnceTheBoundIsReached() {
+        RateLimiter limiter = new RateLimiter(ONE_A_MINUTE, 1, 1);
+        assertTrue(limiter.tryAcquire("router")); // Tracked, and not full so it isn't purged
+        assertFalse(limiter.tryAcquire("router"));
+        assertTrue(limiter.tryAcquire("switch")); // Untracked
+        assertFalse(limiter.tryAcquire("switch"));
+        
+        Map<String, Long> counts = limiter.drainLimited();
+        assertEquals(2, counts.size());
+        assertEquals(Long.valueOf(1L), counts.get("router"));
+        assertEquals(Long.valueOf(1L), counts.get(RateLimiter.OVERFLOW_KEY));
+    }
+    
+    @Test
+    public void takesBackATokenReleasedToAnOverflowBucket() {
+        RateLimiter limiter = new RateLimiter(ONE_A_MINUTE, 1, 1);
+        limiter.tryAcquire("router");
+        assertTrue(limiter.tryAcquire("switch"));
+        limiter.release("switch");
+        
+        assertTrue(limiter.tryAcquire("switch"));
+        assertFalse(limiter.tryAcquire("switch"));
+    }
+    
+    @Test
+    public void purgesFullBucketsToMakeRoom() {
+        RateLimiter limiter = new RateLimiter(ONE_A_MINUTE, 2, 1);
+        limiter.tryAcquire("router");
+        limiter.release("router"); // Full again, and never limited
+        assertTrue(limiter.tryAcquire("switch")); // Takes the place of 'router'
+        assertTrue(limiter.tryAcquire("switch"));
+        assertFalse(limiter.tryAcquire("switch"));
+        
+        assertEquals(Long.valueOf(1L), limiter.drainLimited().get("switch"));
+    }
+    
+    @Test
+    public void waitsForTheNextTokenBeforeRetrying() {
+        assertEquals(60, new RateLimiter(ONE_A_MINUTE, 1, 10).getRetryAfterSeconds());
+        assertEquals(1, new RateLimiter(600, 1, 10).getRetryAfterSeconds());
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+
+import org.junit.Test;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+import com.firebirdcss.service.alert_gateway.util.RecipientCache.Recipients;
+
+/**
+ * Tests the reuse of the resolved recipients by the {@link RecipientCache},
+ * the eviction of entries once it is full and the dropping of entries resolved
+ * from an older {@link SubscriptionSnapshot}.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class RecipientCacheTest {
+    private static final int ALL_SEVERITIES = 0b111110;
+    
+    private final SubscriptionSnapshot snapshot = SubscriptionSnapshot.of(Arrays.asList(
+        subscription("a@example.com", "router", null),
+        subscription("b@example.com", "router", Integer.valueOf(3)), // Digest of TEST and INFORMATIONAL
+        subscription("c@example.com", "switch", null)
+    ));
+    
+    @Test
+    public void splitsOffTheDigestedRecipients() {
+        RecipientCache cache = new RecipientCache(10);
+        
+        Recipients informational = cache.resolve(snapshot, "router", 2);
+        assertEquals(2, informational.getSubscriptionCount());
+        assertEquals(1, informational.getAddresses().length);
+        assertEquals(1, informational.getDigestSubscriptions().length);
+        assertEquals("b@example.com", informational.getDigestSubscriptions()[0].getEmail());
+        assertEquals(1, informational.getDigestAddresses().length);
+        
+        Recipients warning = cache.resolve(snapshot, "router", 3);
+        assertEquals(2, warning.getAddresses().length);
+        assertEquals(0, warning.getDigestSubscriptions().length);
+    }
+    
+    @Test
+    public void reusesAnEntryForTheSameSourceAndSeverity() {
+        RecipientCache cache = new RecipientCache(10);
+        Recipients first = cache.resolve(snapshot, "router", 4);
+        
+        assertSame(first, cache.resolve(snapshot, "router", 4));
+        assertSame("The sourceName is matched without regard to case", first, cache.resolve(snapshot, "ROUTER", 4));
+        assertNotSame(first, cache.resolve(snapshot, "router", 5));
+        assertEquals(2L, cache.getHits());
+        assertEquals(2L, cache.getMisses());
+        assertEquals(2, cache.size());
+    }
+    
+    @Test
+    public void evictsAnEntryOnceFull() {
+        RecipientCache cache = new RecipientCache(2);
+        cache.resolve(snapshot, "router", 1);
+        cache.resolve(snapshot, "router", 2);
+        cache.resolve(snapshot, "router", 3);
+        assertEquals(2, cache.size());
+        
+        for (int severity = 1; severity <= 5; severity++) {
+            cache.resolve(snapshot, "switch", severity);
+        }
+        assertEquals(2, cache.size());
+        assertEquals(0L, cache.getHits());
+    }
+    
+    @Test
+    public void resolvesAgainFromANewerSnapshot() {
+        RecipientCache cache = new RecipientCache(10);
+        Recipients before = cache.resolve(snapshot, "router", 4);
+        cache.resolve(snapshot, "switch", 4);
+        assertEquals(2, cache.size());
+        
+        SubscriptionSnapshot next = added(snapshot, subscription("d@example.com", "router", null));
+        Recipients after = cache.resolve(next, "router", 4);
+        assertNotSame(before, after);
+        assertEquals(3, after.getSubscriptionCount());
+        assertEquals("The stale entries are dropped", 1, cache.size());
+        assertSame(after, cache.resolve(next, "router", 4));
+    }
+    
+    @Test
+    public void doesNotResolveAgainFromAnOlderSnapshot() {
+        RecipientCache cache = new RecipientCache(10);
+        SubscriptionSnapshot next = added(snapshot, subscription("d@example.com", "router", null));
+        Recipients current = cache.resolve(next, "router", 4);
+        
+        Recipients stale = cache.resolve(snapshot, "router", 4); // From a lookup which started before the change
+        assertEquals(2, stale.getSubscriptionCount());
+        assertSame("An older snapshot doesn't empty the cache", current, cache.resolve(next, "router", 4));
+    }
+    
+    @Test
+    public void doesNotCacheUnknownSeverities() {
+        RecipientCache cache = new RecipientCache(10);
+        Recipients first = cache.resolve(snapshot, "router", 0);
+        
+        assertNotSame(first, cache.resolve(snapshot, "router", 0));
+        assertEquals(0, cache.resolve(snapshot, "router", 30).getSubscriptionCount());
+        assertEquals(0, cache.size());
+        assertEquals(3L, cache.getMisses());
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param email - The email address as {@link String}
+     * @param sourceName - The sourceName as {@link String}
+     * @param digestSeverity - The digestSeverity as {@link Integer}, may be null
+     * @return Returns a subscription to every severity as {@link Subscription}
+     */
+    private static Subscription subscription(String email, String sourceName, Integer digestSeverity) {
+        Subscription sub = new Subscription(email, sourceName, null, Integer.valueOf(ALL_SEVERITIES));
+        sub.setDigestSeverity(digestSeverity);
+        
+        return sub;
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param snapshot - The snapshot to change as {@link SubscriptionSnapshot}
+     * @param sub - The subscription to add as {@link Subscription}
+     * @return Returns the next version of the snapshot, with the subscription added, as {@link SubscriptionSnapshot}
+     */
+    private static SubscriptionSnapshot added(SubscriptionSnapshot snapshot, Subscription sub) {
+        Map<String, InternetAddress> addresses = new HashMap<>();
+        try {
+            addresses.put(sub.getId(), SubscriptionSnapshot.parseAddress(sub.getEmail()));
+        } catch (AddressException e) {
+            throw new IllegalArgumentException(e);
+        }
+        
+        return snapshot.apply(Arrays.asList(sub), addresses);
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests the priority and aging of the {@link SeverityLaneQueue}, with the lanes
+ * both on the heap and off of it.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class SeverityLaneQueueTest {
+    private static final SeverityLaneQueue.Codec<String> STRINGS = new SeverityLaneQueue.Codec<String>() {
+        @Override
+        public byte[] encode(String item) {
+            
+            return item.getBytes(StandardCharsets.UTF_8);
+        }
+        
+        @Override
+        public String decode(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+    
+    @Test
+    public void takesTheMostSevereFirst() {
+        for (SeverityLaneQueue<String> queue : queues(0L)) {
+            queue.offer(1, "test");
+            queue.offer(3, "warning");
+            queue.offer(5, "emergency 1");
+            queue.offer(2, "informational");
+            queue.offer(5, "emergency 2");
+            queue.offer(4, "critical");
+            
+            assertEquals("emergency 1", take(queue));
+            assertEquals("emergency 2", take(queue));
+            assertEquals("critical", take(queue));
+            assertEquals("warning", take(queue));
+            assertEquals("informational", take(queue));
+            assertEquals("test", take(queue));
+            assertEquals(-1, queue.selectLane());
+        }
+    }
+    
+    @Test
+    public void keepsTheOrderWithinALane() {
+        for (SeverityLaneQueue<String> queue : queues(0L)) {
+            for (int i = 0; i < 100; i++) {
+                queue.offer(3, "alert " + i);
+            }
+            for (int i = 0; i < 100; i++) {
+                assertEquals("alert " + i, take(queue));
+            }
+        }
+    }
+    
+    @Test
+    public void putsUnknownSeveritiesInTheNearestLane() {
+        for (SeverityLaneQueue<String> queue : queues(0L)) {
+            queue.offer(0, "too low");
+            queue.offer(9, "too high");
+            queue.offer(5, "emergency");
+            
+            assertEquals(4, queue.selectLane());
+            assertEquals("too high", take(queue));
+            assertEquals("emergency", take(queue));
+            assertEquals(0, queue.selectLane());
+            assertEquals("too low", take(queue));
+        }
+    }
+    
+    @Test
+    public void peekLeavesTheHeadInPlace() {
+        for (SeverityLaneQueue<String> queue : queues(0L)) {
+            queue.offer(2, "first");
+            queue.offer(2, "second");
+            int lane = queue.selectLane();
+            
+            assertEquals("first", queue.peek(lane));
+            assertEquals("first", queue.peek(lane));
+            assertEquals("first", queue.poll(lane));
+            assertEquals("second", queue.peek(lane));
+            assertEquals("second", queue.poll(lane));
+            assertNull(queue.peek(lane));
+            assertNull(queue.poll(lane));
+        }
+    }
+    
+    @Test
+    public void strictPriorityStarvesTheOldestWithoutAging() throws InterruptedException {
+        for (SeverityLaneQueue<String> queue : queues(0L)) {
+            queue.offer(1, "old");
+            TimeUnit.MILLISECONDS.sleep(50L);
+            queue.offer(5, "new");
+            
+            assertEquals("new", take(queue));
+            assertEquals("old", take(queue));
+        }
+    }
+    
+    @Test
+    public void takesAnAgedHeadAheadOfTheMoreSevere() throws InterruptedException {
+        for (SeverityLaneQueue<String> queue : queues(20L)) {
+            queue.offer(1, "old");
+            TimeUnit.MILLISECONDS.sleep(50L);
+            queue.offer(5, "new");
+            
+            assertEquals("old", take(queue));
+            assertEquals("new", take(queue));
+        }
+    }
+    
+    @Test
+    public void leavesAHeadWhichHasNotAgedYet() {
+        for (SeverityLaneQueue<String> queue : queues(TimeUnit.MINUTES.toMillis(10L))) {
+            queue.offer(1, "young");
+            queue.offer(5, "severe");
+            
+            assertEquals("severe", take(queue));
+            assertEquals("young", take(queue));
+        }
+    }
+    
+    @Test
+    public void takesTheLongestWaitingOfTheAgedHeads() throws InterruptedException {
+        for (SeverityLaneQueue<String> queue : queues(20L)) {
+            queue.offer(3, "older");
+            TimeUnit.MILLISECONDS.sleep(10L);
+            queue.offer(1, "old");
+            TimeUnit.MILLISECONDS.sleep(50L);
+            queue.offer(5, "new");
+            
+            assertEquals("older", take(queue));
+            assertEquals("old", take(queue));
+            assertEquals("new", take(queue));
+        }
+    }
+    
+    @Test
+    public void awaitTimesOutWhenEmpty() throws InterruptedException {
+        SeverityLaneQueue<String> queue = new SeverityLaneQueue<>(0L);
+        long start = System.nanoTime();
+        
+        assertFalse(queue.await(50L));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50L));
+    }
+    
+    @Test
+    public void awaitWakesUpOnOffer() throws InterruptedException {
+        SeverityLaneQueue<String> queue = new SeverityLaneQueue<>(0L);
+        Thread producer = new Thread(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(50L);
+            } catch (InterruptedException e) {
+                // Offer right away...
+            }
+            queue.offer(3, "wake up");
+        });
+        producer.start();
+        long start = System.nanoTime();
+        
+        assertTrue(queue.await(TimeUnit.SECONDS.toMillis(30L)));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10L));
+        assertEquals("wake up", take(queue));
+        producer.join();
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     *
+     * @param agingMillis - The aging time of the queues as <code>long</code>
+     * @return Returns an empty queue with its lanes on the heap and one with
+     * its lanes off of it as {@link List}
+     */
+    private static List<SeverityLaneQueue<String>> queues(long agingMillis) {
+        
+        return List.of(
+            new SeverityLaneQueue<String>(agingMillis),
+            new SeverityLaneQueue<>(agingMillis, 1024, STRINGS)
+        );
+    }
+    
+    /**
+     * PRIVATE STATIC METHOD:<br>
+     * Takes the next item, as the Notifier does.
+     *
+     * @param queue - The queue as {@link SeverityLaneQueue}
+     * @return Returns the item as {@link String}, or null if the queue is empty
+     */
+    private static String take(SeverityLaneQueue<String> queue) {
+        int lane = queue.selectLane();
+        
+        return (lane < 0 ? null : queue.poll(lane));
+    }
+}
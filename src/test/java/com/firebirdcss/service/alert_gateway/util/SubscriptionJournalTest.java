@@ -0,0 +1,172 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.firebirdcss.service.alert_gateway.endpoints.pojo.Subscription;
+
+/**
+ * Tests the replay of the {@link SubscriptionJournal}, including journals
+ * whose last record was torn or corrupted by a crash.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public class SubscriptionJournalTest {
+    private Path dir;
+    private Path file;
+    private SubscriptionJournal journal;
+    
+    @Before
+    public void setUp() throws IOException {
+        dir = TempDirectory.create("subscription-journal-test");
+        file = dir.resolve("subscriptions.journal");
+        journal = new SubscriptionJournal(file.toString());
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        journal.close();
+        TempDirectory.delete(dir);
+    }
+    
+    @Test
+    public void replaysPutsAndRemovals() throws IOException {
+        journal.replay(new HashMap<>());
+        journal.append(new Subscription("a@example.com", "router", null, 6));
+        journal.appendAll(Arrays.asList(
+            new Subscription("b@example.com", "router", null, 2),
+            new Subscription("a@example.com", "router", null, 0)
+        ));
+        assertEquals(3, journal.getRecordCount());
+        journal.close();
+        
+        Map<String, Subscription> subscriptions = new HashMap<>();
+        assertEquals(3, journal.replay(subscriptions));
+        assertEquals(1, subscriptions.size());
+        Subscription b = subscriptions.values().iterator().next();
+        assertEquals("b@example.com", b.getEmail());
+        assertEquals(Integer.valueOf(2), b.getSeverityMask());
+    }
+    
+    @Test
+    public void replaysDigestSettings() throws IOException {
+        journal.replay(new HashMap<>());
+        Subscription digest = new Subscription("a@example.com", "router", null, 62);
+        digest.setDigestSeverity(3);
+        journal.append(digest);
+        Subscription noWindow = new Subscription("b@example.com", "router", null, 62);
+        noWindow.setDigestSeverity(2);
+        noWindow.setDigestWindowSeconds(null);
+        journal.append(noWindow);
+        digest.setDigestWindowSeconds(300);
+        journal.append(digest);
+        journal.close();
+        
+        Map<String, Subscription> subscriptions = new HashMap<>();
+        journal.replay(subscriptions);
+        Subscription a = subscriptions.get(digest.getId());
+        assertEquals(Integer.valueOf(3), a.getDigestSeverity());
+        assertEquals(Integer.valueOf(300), a.getDigestWindowSeconds());
+        Subscription b = subscriptions.get(noWindow.getId());
+        assertEquals(Integer.valueOf(2), b.getDigestSeverity());
+        assertNull(b.getDigestWindowSeconds());
+    }
+    
+    @Test
+    public void discardsTornTail() throws IOException {
+        journal.replay(new HashMap<>());
+        journal.append(new Subscription("a@example.com", "router", null, 2));
+        journal.append(new Subscription("b@example.com", "router", null, 4));
+        journal.close();
+        long validBytes = Files.size(file);
+        
+        /* A crash part way through writing the next record */
+        Files.write(file, new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 1, 1}, StandardOpenOption.APPEND);
+        
+        Map<String, Subscription> subscriptions = new HashMap<>();
+        assertEquals(2, journal.replay(subscriptions));
+        assertEquals(2, subscriptions.size());
+        assertEquals(validBytes, Files.size(file));
+        
+        /* Appends after the replay must not end up behind the torn record */
+        journal.append(new Subscription("c@example.com", "router", null, 8));
+        journal.close();
+        subscriptions.clear();
+        assertEquals(3, journal.replay(subscriptions));
+        assertEquals(3, subscriptions.size());
+    }
+    
+    @Test
+    public void discardsCorruptTail() throws IOException {
+        journal.replay(new HashMap<>());
+        journal.append(new Subscription("a@example.com", "router", null, 2));
+        journal.close();
+        long firstRecordBytes = Files.size(file);
+        journal.replay(new HashMap<>());
+        journal.append(new Subscription("b@example.com", "router", null, 4));
+        journal.close();
+        
+        /* Flip a byte in the payload of the last record, past its header */
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            long position = firstRecordBytes + 8L + 3L;
+            raf.seek(position);
+            int b = raf.read();
+            raf.seek(position);
+            raf.write(b ^ 0xFF);
+        }
+        
+        Map<String, Subscription> subscriptions = new HashMap<>();
+        assertEquals(1, journal.replay(subscriptions));
+        assertEquals(1, subscriptions.size());
+        assertEquals("a@example.com", subscriptions.values().iterator().next().getEmail());
+        assertEquals(firstRecordBytes, Files.size(file));
+    }
+    
+    @Test
+    public void discardsTailWithCorruptLength() throws IOException {
+        journal.replay(new HashMap<>());
+        journal.append(new Subscription("a@example.com", "router", null, 2));
+        journal.close();
+        long validBytes = Files.size(file);
+        Files.write(file, new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0, 0, 0, 0}, StandardOpenOption.APPEND);
+        
+        Map<String, Subscription> subscriptions = new HashMap<>();
+        assertEquals(1, journal.replay(subscriptions));
+        assertEquals(validBytes, Files.size(file));
+    }
+    
+    @Test
+    public void resetEmptiesTheJournal() throws IOException {
+        journal.replay(new HashMap<>());
+        journal.append(new Subscription("a@example.com", "router", null, 2));
+        journal.reset();
+        assertEquals(0, journal.getRecordCount());
+        journal.close();
+        
+        Map<String, Subscription> subscriptions = new HashMap<>();
+        assertEquals(0, journal.replay(subscriptions));
+        assertTrue(subscriptions.isEmpty());
+        assertFalse(Files.size(file) > 0L);
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2024 by FirebirdCSS
+ */
+package com.firebirdcss.service.alert_gateway.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * This class creates and removes the temporary directories the tests and
+ * benchmarks write their files to, so that each of them cleans up the same way.
+ *
+ * @author Scott Griffis
+ * <p>
+ * Date: 10/18/2026
+ *
+ */
+public final class TempDirectory {
+    
+    /**
+     * PRIVATE CONSTRUCTOR:<br>
+     * Only static methods are offered by this class.
+     */
+    private TempDirectory() {}
+    
+    /**
+     * STATIC METHOD:<br>
+     * Creates a new, empty directory in the temporary directory of the system.
+     *
+     * @param prefix - The start of the name of the directory as {@link String}
+     * @return Returns the directory as {@link Path}
+     *
+     * @throws IOException Indicates the directory could not be created.
+     */
+    public static Path create(String prefix) throws IOException {
+        
+        return Files.createTempDirectory(prefix);
+    }
+    
+    /**
+     * STATIC METHOD:<br>
+     * Deletes the given directory and everything in it.
+     *
+     * @param dir - The directory as {@link Path}, may be null
+     *
+     * @throws IOException Indicates the directory could not be deleted.
+     */
+    public static void delete(Path dir) throws IOException {
+        if (dir == null) { // Reason: Setup failed before the directory was created...
+            
+            return;
+        }
+        
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}